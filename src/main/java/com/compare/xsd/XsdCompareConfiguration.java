@@ -1,6 +1,9 @@
 package com.compare.xsd;
 
+import com.compare.xsd.comparison.model.xsd.impl.XsdResourceResolver;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.ResourceBundleMessageSource;
@@ -8,10 +11,18 @@ import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @EnableAsync
 public class XsdCompareConfiguration {
     private static final String DIRECTORY = "lang/";
+    private static final String CATALOG_FILE = "catalog.xml";
+    private static final String CATALOG_FILES_PROPERTY = "javax.xml.catalog.files";
+    private static final String FILE_SCHEME = "file:";
 
     @Bean
     public TaskExecutor threadPoolTaskExecutor() {
@@ -34,4 +45,30 @@ public class XsdCompareConfiguration {
     public ObjectMapper objectMapper() {
         return new ObjectMapper();
     }
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    public XsdResourceResolver resourceResolver() {
+        List<File> catalogFiles = new ArrayList<>();
+        catalogFiles.add(new File(XsdCompareApplication.APP_DIR, CATALOG_FILE));
+
+        // additional catalogs can be configured through the standard catalog property, as a semicolon separated list of files
+        var catalogProperty = System.getProperty(CATALOG_FILES_PROPERTY);
+
+        if (catalogProperty != null) {
+            for (String catalog : catalogProperty.split(";")) {
+                var location = catalog.trim();
+
+                if (!location.isEmpty()) {
+                    catalogFiles.add(location.startsWith(FILE_SCHEME) ? new File(URI.create(location)) : new File(location));
+                }
+            }
+        }
+
+        return new XsdResourceResolver(catalogFiles);
+    }
 }
@@ -1,5 +1,6 @@
 package com.compare.xsd.comparison;
 
+import com.compare.xsd.comparison.model.diff.XsdDiff;
 import com.compare.xsd.comparison.model.xsd.XsdNode;
 import com.compare.xsd.renderers.TreeViewRender;
 import javafx.scene.control.TreeTableView;
@@ -57,6 +58,17 @@ public class TreeViewManager extends AbstractScrollBarSynchronizeManager {
         });
     }
 
+    /**
+     * Render the given comparison in the tree views, which shows the aligned nodes of both documents.
+     *
+     * @param diff Set the comparison to render.
+     */
+    public void render(XsdDiff diff) {
+        Assert.notNull(diff, "diff cannot be null");
+        leftTreeRender.render(diff.getOriginalDocument(), diff.getOriginalSide());
+        rightTreeRender.render(diff.getNewDocument(), diff.getNewSide());
+    }
+
     /**
      * Refresh the rendered tree views.
      */
@@ -0,0 +1,104 @@
+package com.compare.xsd.comparison;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.util.Assert;
+
+/**
+ * Defines how two XSD documents are compared.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+public class XsdCompareOptions {
+    /**
+     * Indicates if independent subtrees are compared in parallel.
+     * The result of a parallel comparison is identical to the result of a sequential comparison.
+     * By default, the documents are compared on the calling thread.
+     */
+    @Builder.Default
+    private boolean parallel = false;
+    /**
+     * The number of threads which compare the subtrees of a parallel comparison.
+     * By default, a thread is used for each available processor.
+     */
+    @Builder.Default
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    /**
+     * Indicates if a removed element and an added element within the same parent are compared as a renamed element when they're similar enough.
+     * By default, a renamed element is reported as a removed and an added element.
+     */
+    @Builder.Default
+    private boolean detectRenames = false;
+    /**
+     * The minimum similarity, between 0 and 1, of a removed and an added element before they're compared as a renamed element.
+     * The similarity is the average of the similarity of the names and the similarity of the inner nodes.
+     */
+    @Builder.Default
+    private double renameSimilarity = 0.6;
+
+    /**
+     * Initialize a new instance of {@link XsdCompareOptions}.
+     * This constructor is used by the builder, so the built options are validated like the options which are set afterwards.
+     *
+     * @param parallel         Set if independent subtrees are compared in parallel.
+     * @param parallelism      Set the number of threads which compare the subtrees of a parallel comparison.
+     * @param detectRenames    Set if renamed elements are detected.
+     * @param renameSimilarity Set the minimum similarity of a renamed element, between 0 and 1.
+     */
+    private XsdCompareOptions(boolean parallel, int parallelism, boolean detectRenames, double renameSimilarity) {
+        this.parallel = parallel;
+        this.parallelism = validParallelism(parallelism);
+        this.detectRenames = detectRenames;
+        this.renameSimilarity = validRenameSimilarity(renameSimilarity);
+    }
+
+    /**
+     * Set the number of threads which compare the subtrees of a parallel comparison.
+     *
+     * @param parallelism Set the number of threads.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = validParallelism(parallelism);
+    }
+
+    /**
+     * Set the minimum similarity of a removed and an added element before they're compared as a renamed element.
+     *
+     * @param renameSimilarity Set the minimum similarity, between 0 and 1.
+     */
+    public void setRenameSimilarity(double renameSimilarity) {
+        this.renameSimilarity = validRenameSimilarity(renameSimilarity);
+    }
+
+    /**
+     * Get the default compare options, which compare the documents on the calling thread.
+     *
+     * @return Returns the default compare options.
+     */
+    public static XsdCompareOptions defaults() {
+        return XsdCompareOptions.builder().build();
+    }
+
+    /**
+     * Get the compare options which compare independent subtrees in parallel on all available processors.
+     *
+     * @return Returns the parallel compare options.
+     */
+    public static XsdCompareOptions parallel() {
+        return XsdCompareOptions.builder()
+                .parallel(true)
+                .build();
+    }
+
+    private static int validParallelism(int parallelism) {
+        Assert.isTrue(parallelism > 0, "parallelism must be larger than 0");
+        return parallelism;
+    }
+
+    private static double validRenameSimilarity(double renameSimilarity) {
+        Assert.isTrue(renameSimilarity > 0 && renameSimilarity <= 1, "renameSimilarity must be larger than 0 and at most 1");
+        return renameSimilarity;
+    }
+}
@@ -2,29 +2,58 @@ package com.compare.xsd.comparison;
 
 import com.compare.xsd.comparison.model.ModificationType;
 import com.compare.xsd.comparison.model.Modifications;
-import com.compare.xsd.comparison.model.xsd.NodeNotFoundException;
-import com.compare.xsd.comparison.model.xsd.XsdAttributeNode;
+import com.compare.xsd.comparison.model.diff.XsdDiff;
+import com.compare.xsd.comparison.model.diff.XsdDiffRow;
 import com.compare.xsd.comparison.model.xsd.XsdNode;
-import com.compare.xsd.comparison.model.xsd.impl.*;
+import com.compare.xsd.comparison.model.xsd.XsdNodeTraversal;
+import com.compare.xsd.comparison.model.xsd.impl.AbstractXsdElementNode;
+import com.compare.xsd.comparison.model.xsd.impl.XsdDocument;
+import com.compare.xsd.comparison.model.xsd.impl.XsdElement;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.util.Assert;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
 
 @Slf4j
 @EqualsAndHashCode
 @Getter
 public class XsdComparer {
+    private static final Modifications MOVED = Modifications.builder()
+            .type(ModificationType.MOVED)
+            .moved(true)
+            .build();
+
     private final XsdDocument originalDocument;
     private final XsdDocument newDocument;
-
-    private int added;
-    private int removed;
-    private int modified;
+    private final XsdCompareOptions options;
+
+    // the counters are updated concurrently by a parallel comparison
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final LongAdder added = new LongAdder();
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final LongAdder removed = new LongAdder();
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final LongAdder modified = new LongAdder();
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final LongAdder skipped = new LongAdder();
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final LongAdder moved = new LongAdder();
+    /**
+     * The result of the last successful comparison, or null when the documents haven't been compared yet.
+     */
+    @EqualsAndHashCode.Exclude
+    private XsdDiff diff;
 
     /**
      * Initialize a new instance of {@link XsdComparer}.
@@ -33,16 +62,80 @@ public class XsdComparer {
      * @param newDocument      Set the new document.
      */
     public XsdComparer(XsdDocument originalDocument, XsdDocument newDocument) {
+        this(originalDocument, newDocument, XsdCompareOptions.defaults());
+    }
+
+    /**
+     * Initialize a new instance of {@link XsdComparer}.
+     *
+     * @param originalDocument Set the original document.
+     * @param newDocument      Set the new document.
+     * @param options          Set the options which define how the documents are compared.
+     */
+    public XsdComparer(XsdDocument originalDocument, XsdDocument newDocument, XsdCompareOptions options) {
         Assert.notNull(originalDocument, "originalDocument cannot be null");
         Assert.notNull(newDocument, "newDocument cannot be null");
+        Assert.notNull(options, "options cannot be null");
         this.originalDocument = originalDocument;
         this.newDocument = newDocument;
+        this.options = options;
+    }
+
+    //region Getters & Setters
+
+    /**
+     * Get the number of nodes which have been added in the new document.
+     *
+     * @return Returns the number of added nodes.
+     */
+    public int getAdded() {
+        return added.intValue();
+    }
+
+    /**
+     * Get the number of nodes which have been removed from the original document.
+     *
+     * @return Returns the number of removed nodes.
+     */
+    public int getRemoved() {
+        return removed.intValue();
+    }
+
+    /**
+     * Get the number of nodes which have been modified in the new document.
+     *
+     * @return Returns the number of modified nodes.
+     */
+    public int getModified() {
+        return modified.intValue();
+    }
+
+    /**
+     * Get the number of pairs of subtrees which haven't been compared as they have the same structure.
+     *
+     * @return Returns the number of skipped pairs of subtrees.
+     */
+    public int getSkipped() {
+        return skipped.intValue();
+    }
+
+    /**
+     * Get the number of nodes which have been moved to another position within their parent or to another parent.
+     * A moved node of which a property has also been changed is counted as moved and as modified.
+     *
+     * @return Returns the number of moved nodes.
+     */
+    public int getMoved() {
+        return moved.intValue();
     }
 
+    //endregion
+
     //region Methods
 
     /**
      * Compare the original document against the new document.
+     * The documents are never modified by a comparison, the result is available through {@link #getDiff()}.
      *
      * @return Returns true if the comparison was successful, else false.
      */
@@ -50,8 +143,16 @@ public class XsdComparer {
         reset();
 
         try {
-            compareAbstractElementNodes(originalDocument, newDocument);
+            var root = new PendingRow(originalDocument, newDocument, null);
 
+            if (options.isParallel()) {
+                compareParallel(root);
+            } else {
+                XsdNodeTraversal.preOrder(root, PendingRow::getPairs, this::compareRow);
+            }
+
+            detectMovedNodes(root);
+            this.diff = new XsdDiff(originalDocument, newDocument, root.toDiffRow());
             return true;
         } catch (Exception ex) {
             log.error(ex.getMessage(), ex);
@@ -61,7 +162,7 @@ public class XsdComparer {
 
     @Override
     public String toString() {
-        return "Added " + added + ", removed " + removed + ", modified " + modified;
+        return "Added " + getAdded() + ", removed " + getRemoved() + ", modified " + getModified() + ", moved " + getMoved();
     }
 
     //endregion
@@ -69,186 +170,378 @@ public class XsdComparer {
     //region Functions
 
     /**
-     * Compare the original abstract XSD node against the new abstract XSD node.
+     * Compare the documents by comparing independent pairs of subtrees on a dedicated fork/join pool.
+     * Each pair only builds its own row, so the result is identical to a sequential comparison.
+     * The inner nodes of a recursive element in a detached document are copied from other subtrees of its root element,
+     * in which case only the root elements are compared in parallel.
      *
-     * @param originalNode Set the original XSD abstract element node.
-     * @param newNode      Set the new XSD abstract element node.
+     * @param root Set the row of the documents.
      */
-    private void compareAbstractElementNodes(AbstractXsdElementNode originalNode, AbstractXsdElementNode newNode) {
-        Assert.notNull(newNode, "newNode cannot be null");
-        List<XsdElement> elementsCopy = new ArrayList<>(originalNode.getElements()); //take a copy as the actual list might be modified during comparison
-        List<XsdElement> compareElementsCopy = new ArrayList<>(newNode.getElements()); //take a copy as the actual list might be modified during comparison
+    private void compareParallel(PendingRow root) {
+        var maxSplitDepth = originalDocument.isCopyingRecursiveElements() || newDocument.isCopyingRecursiveElements() ? 1 : Integer.MAX_VALUE;
+        var pool = new ForkJoinPool(options.getParallelism());
 
-        //check for removed nodes
-        for (XsdElement element : elementsCopy) {
-            try {
-                if (StringUtils.isNoneEmpty(element.getName())) {
-                    XsdElement compareElement = newNode.findElement(element.getName());
+        try {
+            XsdNodeTraversal.preOrder(root, PendingRow::getPairs, this::compareRow, pool, maxSplitDepth);
+        } finally {
+            pool.shutdown();
+        }
+    }
 
-                    compareXsdElements(element, compareElement);
-                }
-            } catch (NodeNotFoundException ex) {
-                removed++;
-                element.setModifications(new Modifications(ModificationType.REMOVED));
-                copyElementAsEmptyNode(originalNode.getElements().indexOf(element), element, newNode);
-            }
+    /**
+     * Compare the pair of element nodes of the given row.
+     * The pairs of child elements which are present on both sides are compared afterwards by the traversal.
+     * Nodes with the same structure can't contain any modification, so neither they nor their inner nodes are compared.
+     *
+     * @param row   Set the row of the pair of element nodes.
+     * @param depth Set the depth of the row.
+     * @return Returns true if the inner pairs of the row should be compared, else false.
+     */
+    private boolean compareRow(PendingRow row, int depth) {
+        var originalNode = (AbstractXsdElementNode) row.originalNode;
+        var newNode = (AbstractXsdElementNode) row.newNode;
+
+        if (originalNode.hasSameStructure(newNode)) {
+            skipped.increment();
+            row.modifications = compareProperties(row.moved);
+            return false;
         }
 
-        //check for added nodes
-        for (XsdElement element : compareElementsCopy) {
-            try {
-                if (StringUtils.isNoneEmpty(element.getName())) {
-                    originalNode.findElement(element.getName());
-                }
-            } catch (NodeNotFoundException ex) {
-                added++;
-                element.setModifications(new Modifications(ModificationType.ADDED));
-                copyElementAsEmptyNode(newNode.getElements().indexOf(element), element, originalNode);
-            }
+        if (originalNode instanceof XsdElement && newNode instanceof XsdElement) {
+            compareXsdElements(row, (XsdElement) originalNode, (XsdElement) newNode);
+        } else {
+            row.rows = new ArrayList<>();
+            alignElements(row, originalNode, newNode);
+            row.modifications = compareProperties(originalNode, newNode, row.moved);
         }
 
-        compareProperties(originalNode, newNode);
+        return true;
     }
 
     /**
      * Compare the original XSD element against the new XSD element.
      *
+     * @param row          Set the row of both elements.
      * @param originalNode Set the original XSD element.
      * @param newNode      Set the new XSD element.
      */
-    private void compareXsdElements(XsdElement originalNode, XsdElement newNode) {
-        List<XsdAttribute> originalNodeAttributes = new ArrayList<>(originalNode.getAttributes()); //take a copy as the actual list might be modified during comparison
-        List<XsdAttribute> newNodeAttributes = new ArrayList<>(newNode.getAttributes());
+    private void compareXsdElements(PendingRow row, XsdElement originalNode, XsdElement newNode) {
+        // both elements repeat the inner nodes of an ancestor which is already being compared
+        // loading and comparing these inner nodes would never end
+        if (originalNode.isRecursive() && newNode.isRecursive()) {
+            row.modifications = compareProperties(originalNode, newNode, row.moved);
+            return;
+        }
 
-        compareAbstractElementNodes(originalNode, newNode);
+        row.rows = new ArrayList<>();
+        // the attributes are aligned before the child elements, which is the order of the inner nodes of an element
+        alignNodes(row, originalNode.getAttributes(), newNode.getAttributes(), false);
+        alignElements(row, originalNode, newNode);
+        row.modifications = compareProperties(originalNode, newNode, row.moved);
+    }
 
-        for (XsdAttribute attribute : originalNodeAttributes) {
-            try {
-                if (StringUtils.isNoneEmpty(attribute.getName())) {
-                    XsdAttributeNode compareAttribute = newNode.findAttributeByName(attribute.getName());
+    private void alignElements(PendingRow row, AbstractXsdElementNode originalNode, AbstractXsdElementNode newNode) {
+        alignNodes(row, originalNode.getElements(), newNode.getElements(), true);
+    }
 
-                    compareXsdAttributes(attribute, compareAttribute);
-                }
-            } catch (NodeNotFoundException ex) {
-                removed++;
-                attribute.setModifications(new Modifications(ModificationType.REMOVED));
-                copyAttributeAsEmptyNode(originalNode.getAttributes().indexOf(attribute), newNode);
+    /**
+     * Align the given inner nodes of both sides of the row, which are matched by name.
+     * Nodes which share their name with siblings are matched by occurrence, so the second original node with a name is matched
+     * with the second new node with that name. Each new node is matched at most once.
+     * <p>
+     * The nodes are aligned in the order of the original nodes, while each added node is aligned before the next original node
+     * of which the matching node follows the added node. The pairs of elements are scheduled to be compared by the traversal,
+     * while the pairs of attributes are compared immediately.
+     * <p>
+     * The order of the attributes has no meaning, but the pairs of elements which don't keep their relative order are moved.
+     * The elements which keep their order are the longest increasing subsequence of their positions, see {@link XsdSiblingAlignment}.
+     * When renames are detected, the unmatched elements which are similar enough are matched as well, see {@link XsdRenameDetection}.
+     *
+     * @param row           Set the row of which the inner nodes are aligned.
+     * @param originalNodes Set the inner nodes of the original node.
+     * @param newNodes      Set the inner nodes of the new node.
+     * @param elements      Set if the nodes are elements, else they're attributes.
+     */
+    private void alignNodes(PendingRow row, List<? extends XsdNode> originalNodes, List<? extends XsdNode> newNodes, boolean elements) {
+        if (originalNodes.isEmpty() && newNodes.isEmpty()) {
+            return;
+        }
+
+        var positions = new int[originalNodes.size()];
+        var matchedNodes = new boolean[newNodes.size()];
+        var newPositions = indexByName(newNodes);
+        var next = 0;
+
+        for (int i = 0; i < positions.length; i++) {
+            var occurrences = newPositions.get(toNameKey(originalNodes.get(i)));
+            var position = occurrences != null && !occurrences.isEmpty() ? occurrences.poll() : XsdSiblingAlignment.NO_POSITION;
+
+            positions[i] = position;
+
+            if (position != XsdSiblingAlignment.NO_POSITION) {
+                matchedNodes[position] = true;
             }
         }
 
-        for (XsdAttribute attribute : newNodeAttributes) {
-            try {
-                if (StringUtils.isNoneEmpty(attribute.getName())) {
-                    originalNode.findAttributeByName(attribute.getName());
+        if (elements && options.isDetectRenames()) {
+            pairRenamedNodes(positions, matchedNodes, originalNodes, newNodes);
+        }
+
+        var inOrder = elements ? XsdSiblingAlignment.inOrder(positions) : null;
+
+        for (int i = 0; i < positions.length; i++) {
+            var originalNode = originalNodes.get(i);
+
+            if (positions[i] == XsdSiblingAlignment.NO_POSITION) {
+                row.rows.add(new PendingRow(originalNode, null, unmatched(originalNode, removed, ModificationType.REMOVED)));
+                continue;
+            }
+
+            var match = newNodes.get(positions[i]);
+            var pair = new PendingRow(originalNode, match, null);
+
+            if (inOrder != null && !inOrder[i]) {
+                // a moved pair doesn't affect the alignment of the added nodes
+                pair.moved = true;
+            } else {
+                // the added nodes which precede the match are aligned before it
+                for (; next < positions[i]; next++) {
+                    alignUnmatchedNode(row, newNodes.get(next), matchedNodes[next]);
                 }
-            } catch (NodeNotFoundException ex) {
-                added++;
-                attribute.setModifications(new Modifications(ModificationType.ADDED));
-                copyAttributeAsEmptyNode(newNode.getAttributes().indexOf(attribute), originalNode);
+
+                next = Math.max(next, positions[i] + 1);
+            }
+
+            row.rows.add(pair);
+
+            if (elements) {
+                row.pairs.add(pair);
+            } else {
+                pair.modifications = compareProperties(originalNode, match, false);
             }
         }
+
+        for (; next < newNodes.size(); next++) {
+            alignUnmatchedNode(row, newNodes.get(next), matchedNodes[next]);
+        }
     }
 
     /**
-     * Compare the original XSD attribute against the new XSD attribute.
+     * Match the unmatched original nodes with the unmatched new nodes which are most likely the same node under another name.
+     * The renamed nodes are compared like any other pair, so their name is reported as changed instead of reporting a removed and an added subtree.
      *
-     * @param originalNode Set the original XSD attribute.
-     * @param newNode      Set the new XSD attribute.
+     * @param positions     Set the position of the matched new node of each original node, which is updated with the renamed nodes.
+     * @param matchedNodes  Set if each new node has been matched, which is updated with the renamed nodes.
+     * @param originalNodes Set the inner nodes of the original node.
+     * @param newNodes      Set the inner nodes of the new node.
      */
-    private void compareXsdAttributes(XsdAttributeNode originalNode, XsdAttributeNode newNode) {
-        compareProperties(originalNode, newNode);
+    private void pairRenamedNodes(int[] positions, boolean[] matchedNodes, List<? extends XsdNode> originalNodes, List<? extends XsdNode> newNodes) {
+        var removedIndexes = new ArrayList<Integer>();
+        var removedNodes = new ArrayList<XsdNode>();
+        var addedPositions = new ArrayList<Integer>();
+        var addedNodes = new ArrayList<XsdNode>();
+
+        for (int i = 0; i < positions.length; i++) {
+            var originalNode = originalNodes.get(i);
+
+            if (positions[i] == XsdSiblingAlignment.NO_POSITION && StringUtils.isNotEmpty(originalNode.getName())) {
+                removedIndexes.add(i);
+                removedNodes.add(originalNode);
+            }
+        }
+
+        if (removedNodes.isEmpty()) {
+            return;
+        }
+
+        for (int i = 0; i < newNodes.size(); i++) {
+            var newNode = newNodes.get(i);
+
+            if (!matchedNodes[i] && StringUtils.isNotEmpty(newNode.getName())) {
+                addedPositions.add(i);
+                addedNodes.add(newNode);
+            }
+        }
+
+        var pairs = XsdRenameDetection.pair(removedNodes, addedNodes, options.getRenameSimilarity());
+
+        for (int i = 0; i < pairs.length; i++) {
+            if (pairs[i] != XsdRenameDetection.NO_MATCH) {
+                var position = addedPositions.get(pairs[i]);
+
+                positions[removedIndexes.get(i)] = position;
+                matchedNodes[position] = true;
+            }
+        }
     }
 
     /**
-     * Compare the original XSD node properties against the new XSD node properties.
+     * Detect the elements which have been moved to another parent.
+     * A removed element is moved when an added element has the same name and the same structure fingerprint,
+     * which are paired in the order of the rows. The removed elements are indexed by their fingerprint,
+     * so the detection only visits each row once.
+     * <p>
+     * Elements of which the structure isn't known, such as the elements of a lazy loaded document, are never moved.
      *
-     * @param originalNode Set the original XSD node.
-     * @param newNode      Set the new XSD node.
+     * @param root Set the row of the documents.
      */
-    private void compareProperties(XsdNode originalNode, XsdNode newNode) {
-        Assert.notNull(newNode, "newNode cannot be null");
+    private void detectMovedNodes(PendingRow root) {
+        var removedRows = new HashMap<Long, Deque<PendingRow>>();
+        var addedRows = new ArrayList<PendingRow>();
 
-        if (StringUtils.isNotEmpty(originalNode.getName())) {
-            Modifications modifications = new Modifications();
-
-            if (hasNameChanged(originalNode, newNode)) {
-                modifications.setNameChanged(true);
-            }
-            if (hasNamespaceChanged(originalNode, newNode)) {
-                modifications.setNamespaceChanged(true);
+        XsdNodeTraversal.preOrder(root, e -> e.rows, (row, depth) -> {
+            if (row.modifications == null || row.modifications.getType() == null) {
+                return true;
             }
-            if (hasTypeChanged(originalNode, newNode)) {
-                modifications.setTypeChanged(true);
-            }
-            if (hasCardinalityChanged(originalNode, newNode)) {
-                modifications.setCardinalityChanged(true);
-            }
-            if (hasFixedValueChanged(originalNode, newNode)) {
-                modifications.setFixedValueChanged(true);
-            }
-            if (hasLengthChanged(originalNode, newNode)) {
-                modifications.setLengthChanged(true);
-            }
-            if (hasMinLengthChanged(originalNode, newNode)) {
-                modifications.setMinLengthChanged(true);
-            }
-            if (hasMaxLengthChanged(originalNode, newNode)) {
-                modifications.setMaxLengthChanged(true);
-            }
-            if (hasPatternChanged(originalNode, newNode)) {
-                modifications.setPatternChanged(true);
-            }
-            if (hasEnumerationChanged(originalNode, newNode)) {
-                modifications.setEnumerationChanged(true);
-            }
-            if (hasWhitespaceChanged(originalNode, newNode)) {
-                modifications.setWhitespaceChanged(true);
+
+            switch (row.modifications.getType()) {
+                case REMOVED:
+                    fingerprint(row.originalNode).ifPresent(e -> removedRows.computeIfAbsent(e, key -> new ArrayDeque<>()).add(row));
+                    break;
+                case ADDED:
+                    addedRows.add(row);
+                    break;
+                default:
+                    break;
             }
 
-            if (modifications.isModified()) {
-                modified++;
-                modifications.setType(ModificationType.MODIFIED);
-                originalNode.setModifications(modifications);
-                newNode.setModifications(modifications);
+            return true;
+        });
+
+        for (PendingRow addedRow : addedRows) {
+            var fingerprint = fingerprint(addedRow.newNode);
+            var candidates = fingerprint.isPresent() ? removedRows.get(fingerprint.getAsLong()) : null;
+
+            // the fingerprint includes the name, the name is only verified to rule out a collision
+            if (candidates == null || candidates.isEmpty() || !candidates.peek().originalNode.getName().equals(addedRow.newNode.getName())) {
+                continue;
             }
+
+            var removedRow = candidates.poll();
+
+            removedRow.modifications = MOVED;
+            addedRow.modifications = MOVED;
+            removed.decrement();
+            added.decrement();
+            moved.increment();
+        }
+    }
+
+    private static OptionalLong fingerprint(XsdNode node) {
+        return node instanceof XsdElement ? ((XsdElement) node).getStructureFingerprint() : OptionalLong.empty();
+    }
+
+    private void alignUnmatchedNode(PendingRow row, XsdNode newNode, boolean matched) {
+        if (matched) {
+            return;
         }
+
+        row.rows.add(new PendingRow(null, newNode, unmatched(newNode, added, ModificationType.ADDED)));
+    }
+
+    private Modifications unmatched(XsdNode node, LongAdder counter, ModificationType type) {
+        // nodes without a name can't be matched and are never marked
+        if (StringUtils.isEmpty(node.getName())) {
+            return null;
+        }
+
+        counter.increment();
+        return Modifications.of(type);
     }
 
     /**
-     * Copy the attribute and inner attributes of the given to copy node to the destination element at given index.
+     * Index the positions of the given nodes by name, in the order in which they occur.
+     * Nodes without a name can't be matched and are never indexed.
      *
-     * @param index           Set the index to add the nodes at.
-     * @param destinationNode Set the destination of the copied nodes.
+     * @param nodes Set the nodes to index.
+     * @return Returns the positions of the nodes with each name.
      */
-    private void copyAttributeAsEmptyNode(int index, XsdElement destinationNode) {
-        destinationNode.insertAttributeAt(index, new XsdEmptyAttributeNode());
+    private static Map<String, Queue<Integer>> indexByName(List<? extends XsdNode> nodes) {
+        var index = new HashMap<String, Queue<Integer>>();
+
+        for (int i = 0; i < nodes.size(); i++) {
+            var key = toNameKey(nodes.get(i));
+
+            if (key != null) {
+                index.computeIfAbsent(key, e -> new ArrayDeque<>()).add(i);
+            }
+        }
+
+        return index;
+    }
+
+    private static String toNameKey(XsdNode node) {
+        // names are matched without regard to case, like the lookup of the inner nodes of an element
+        return StringUtils.isNotEmpty(node.getName()) ? node.getName().toLowerCase(Locale.ROOT) : null;
     }
 
     /**
-     * Copy the element and inner elements of the given to copy node to the destination element at given index.
+     * Compare the original XSD node properties against the new XSD node properties.
      *
-     * @param index           Set the index to add the nodes at.
-     * @param toCopyNode      Set the node to deep copy.
-     * @param destinationNode Set the destination of the copied nodes.
+     * @param originalNode Set the original XSD node.
+     * @param newNode      Set the new XSD node.
+     * @param moved        Set if the nodes have been moved within their parent.
+     * @return Returns the modifications of the nodes or null when the nodes haven't been modified.
      */
-    private void copyElementAsEmptyNode(int index, AbstractXsdElementNode toCopyNode, AbstractXsdElementNode destinationNode) {
-        destinationNode.insertElementAt(index, deepCopyEmptyElementNodes(toCopyNode));
-    }
+    private Modifications compareProperties(XsdNode originalNode, XsdNode newNode, boolean moved) {
+        Assert.notNull(newNode, "newNode cannot be null");
 
-    private XsdEmptyElementNode deepCopyEmptyElementNodes(XsdNode toCopyNode) {
-        XsdEmptyElementNode emptyNode = new XsdEmptyElementNode();
+        if (StringUtils.isEmpty(originalNode.getName())) {
+            return compareProperties(moved);
+        }
+
+        // the facets of nodes which use an identical simple type don't need to be compared one by one
+        var facetsChanged = !Objects.equals(originalNode.getFacets(), newNode.getFacets());
+        var modifications = Modifications.builder()
+                .type(ModificationType.MODIFIED)
+                .nameChanged(hasNameChanged(originalNode, newNode))
+                .namespaceChanged(hasNamespaceChanged(originalNode, newNode))
+                .typeChanged(hasTypeChanged(originalNode, newNode))
+                .cardinalityChanged(hasCardinalityChanged(originalNode, newNode))
+                .fixedValueChanged(hasFixedValueChanged(originalNode, newNode))
+                .lengthChanged(facetsChanged && hasLengthChanged(originalNode, newNode))
+                .minLengthChanged(facetsChanged && hasMinLengthChanged(originalNode, newNode))
+                .maxLengthChanged(facetsChanged && hasMaxLengthChanged(originalNode, newNode))
+                .patternChanged(facetsChanged && hasPatternChanged(originalNode, newNode))
+                .enumerationChanged(facetsChanged && hasEnumerationChanged(originalNode, newNode))
+                .whitespaceChanged(facetsChanged && hasWhitespaceChanged(originalNode, newNode))
+                .moved(moved)
+                .build();
+
+        if (!modifications.isModified()) {
+            return compareProperties(moved);
+        }
 
-        for (XsdNode element : toCopyNode.getNodes()) {
-            emptyNode.addNode(deepCopyEmptyElementNodes(element));
+        if (moved) {
+            this.moved.increment();
         }
 
-        return emptyNode;
+        modified.increment();
+        return modifications;
+    }
+
+    /**
+     * Get the modifications of a pair of nodes of which no property has been changed.
+     *
+     * @param moved Set if the nodes have been moved.
+     * @return Returns the modifications of a moved pair or null.
+     */
+    private Modifications compareProperties(boolean moved) {
+        if (!moved) {
+            return null;
+        }
+
+        this.moved.increment();
+        return MOVED;
     }
 
     private void reset() {
-        this.added = 0;
-        this.removed = 0;
-        this.modified = 0;
+        this.diff = null;
+        this.added.reset();
+        this.removed.reset();
+        this.modified.reset();
+        this.skipped.reset();
+        this.moved.reset();
     }
 
     private boolean hasNameChanged(XsdNode originalNode, XsdNode newNode) {
@@ -311,4 +604,53 @@ public class XsdComparer {
     }
 
     //endregion
+
+    /**
+     * A row which is being built by the comparison.
+     * The pairs of inner elements are compared after the row itself, so the immutable rows are only created once the whole comparison is done.
+     */
+    private static final class PendingRow {
+        private final XsdNode originalNode;
+        private final XsdNode newNode;
+        private final List<PendingRow> pairs = new ArrayList<>();
+
+        private Modifications modifications;
+        private List<PendingRow> rows;
+        private boolean moved;
+        private XsdDiffRow diffRow;
+
+        private PendingRow(XsdNode originalNode, XsdNode newNode, Modifications modifications) {
+            this.originalNode = originalNode;
+            this.newNode = newNode;
+            this.modifications = modifications;
+        }
+
+        private List<PendingRow> getPairs() {
+            return pairs;
+        }
+
+        /**
+         * Create the immutable row of this row and its inner rows.
+         * The inner rows are created before the rows which contain them, without any recursion.
+         *
+         * @return Returns the immutable row.
+         */
+        private XsdDiffRow toDiffRow() {
+            XsdNodeTraversal.postOrder(this, e -> e.rows, (row, depth) -> {
+                List<XsdDiffRow> innerRows = null;
+
+                if (row.rows != null) {
+                    innerRows = new ArrayList<>(row.rows.size());
+
+                    for (PendingRow innerRow : row.rows) {
+                        innerRows.add(innerRow.diffRow);
+                    }
+                }
+
+                row.diffRow = new XsdDiffRow(row.originalNode, row.newNode, row.modifications, innerRows);
+            });
+
+            return diffRow;
+        }
+    }
 }
@@ -0,0 +1,217 @@
+package com.compare.xsd.comparison;
+
+import com.compare.xsd.XsdCompareApplication;
+import com.compare.xsd.comparison.model.xsd.impl.XsdDocument;
+import com.compare.xsd.comparison.model.xsd.impl.XsdDocumentCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Cache of loaded {@link XsdDocument}'s in the application directory.
+ * A cached document is identified by the content of the XSD file and all the schema files it includes or imports,
+ * so a document is only restored from the cache when none of these files have been changed.
+ */
+@Slf4j
+@Service
+public class XsdDocumentCache {
+    static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+
+    private static final String CACHE_DIRECTORY = "cache";
+    private static final String CACHE_EXTENSION = ".xdc";
+
+    private final File directory;
+    private final long maxSize;
+
+    //region Constructors
+
+    /**
+     * Initialize a new instance of {@link XsdDocumentCache} in the application directory.
+     */
+    public XsdDocumentCache() {
+        this(new File(XsdCompareApplication.APP_DIR, CACHE_DIRECTORY), DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Initialize a new instance of {@link XsdDocumentCache}.
+     *
+     * @param directory Set the directory of the cache files.
+     * @param maxSize   Set the max. total size in bytes of the cache files.
+     */
+    public XsdDocumentCache(File directory, long maxSize) {
+        Assert.notNull(directory, "directory cannot be null");
+        Assert.isTrue(maxSize > 0, "maxSize must be larger than 0");
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    //endregion
+
+    //region Methods
+
+    /**
+     * Get the cached document of the given XSD file.
+     *
+     * @param file Set the XSD file.
+     * @return Returns the cached document if present and the schema files haven't been changed, else empty.
+     */
+    public Optional<XsdDocument> get(File file) {
+        Assert.notNull(file, "file cannot be null");
+
+        return key(file).flatMap(key -> {
+            var cacheFile = getCacheFile(key);
+
+            if (!cacheFile.exists()) {
+                return Optional.empty();
+            }
+
+            try (var input = new FileInputStream(cacheFile)) {
+                var document = XsdDocumentCodec.read(file, input);
+
+                // the last modified timestamp is used to evict the least recently used entries
+                if (!cacheFile.setLastModified(System.currentTimeMillis())) {
+                    log.trace("Unable to update the timestamp of cache file " + cacheFile);
+                }
+
+                log.debug("Restored {} from cache file {}", file, cacheFile);
+                return Optional.of(document);
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Failed to read cache file " + cacheFile + ", " + ex.getMessage(), ex);
+                delete(cacheFile);
+                return Optional.empty();
+            }
+        });
+    }
+
+    /**
+     * Store the given document in the cache.
+     * Documents which still contain nodes that haven't been loaded are ignored.
+     *
+     * @param document Set the document to store.
+     */
+    public void put(XsdDocument document) {
+        Assert.notNull(document, "document cannot be null");
+
+        if (!XsdDocumentCodec.isEncodable(document)) {
+            log.debug("Document {} is not cached as it contains nodes which have not been loaded", document.getName());
+            return;
+        }
+
+        key(document.getFile()).ifPresent(key -> {
+            var cacheFile = getCacheFile(key);
+
+            try {
+                Files.createDirectories(directory.toPath());
+
+                // write to a temporary file first, so a concurrent read never sees a partially written entry
+                var tempFile = File.createTempFile(key, ".tmp", directory);
+
+                try (var output = new FileOutputStream(tempFile)) {
+                    XsdDocumentCodec.write(document, output);
+                }
+
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                log.debug("Stored {} in cache file {}", document.getFile(), cacheFile);
+                evict();
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Failed to write cache file " + cacheFile + ", " + ex.getMessage(), ex);
+            }
+        });
+    }
+
+    /**
+     * Remove all entries from the cache.
+     */
+    public void clear() {
+        for (File cacheFile : listCacheFiles()) {
+            delete(cacheFile);
+        }
+    }
+
+    //endregion
+
+    //region Functions
+
+    /**
+     * Get the cache key of the given XSD file.
+     * The key is a hash over the content of the XSD file and all schema files which it includes or imports (transitively).
+     * Only the literal schema locations are followed, so documents of which the imports are resolved through an XML catalog shouldn't be cached.
+     *
+     * @param file Set the XSD file.
+     * @return Returns the key of the file, or empty if one of the schema files can't be read from the local file system.
+     */
+    Optional<String> key(File file) {
+        var closure = XsdSchemaClosure.read(file);
+
+        // a schema file which isn't part of the key could change without invalidating the cache entry
+        if (!closure.isComplete()) {
+            return Optional.empty();
+        }
+
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+
+            for (Map.Entry<File, byte[]> schemaFile : closure.getFiles().entrySet()) {
+                digest.update(schemaFile.getKey().getPath().getBytes(StandardCharsets.UTF_8));
+                digest.update(schemaFile.getValue());
+            }
+
+            return Optional.of(HexFormat.of().formatHex(digest.digest()));
+        } catch (NoSuchAlgorithmException ex) {
+            log.debug("Unable to determine the cache key of " + file + ", " + ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void evict() {
+        var cacheFiles = listCacheFiles();
+        var totalSize = cacheFiles.stream()
+                .mapToLong(File::length)
+                .sum();
+
+        if (totalSize <= maxSize) {
+            return;
+        }
+
+        // remove the least recently used entries until the cache fits within the max size again
+        cacheFiles.sort(Comparator.comparingLong(File::lastModified));
+
+        for (File cacheFile : cacheFiles) {
+            if (totalSize <= maxSize) {
+                break;
+            }
+
+            totalSize -= cacheFile.length();
+            log.debug("Evicting cache file {}", cacheFile);
+            delete(cacheFile);
+        }
+    }
+
+    private List<File> listCacheFiles() {
+        var files = directory.listFiles((dir, name) -> name.endsWith(CACHE_EXTENSION));
+
+        return files != null ? new ArrayList<>(Arrays.asList(files)) : new ArrayList<>();
+    }
+
+    private File getCacheFile(String key) {
+        return new File(directory, key + CACHE_EXTENSION);
+    }
+
+    private static void delete(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException ex) {
+            log.warn("Unable to delete cache file " + file + ", " + ex.getMessage());
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,312 @@
+package com.compare.xsd.comparison;
+
+import com.compare.xsd.comparison.model.xsd.impl.XsdDocument;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches the schema files of loaded {@link XsdDocument}'s for changes.
+ * The schema files of a document are the XSD file itself and the schema files which it includes or imports.
+ * Changes are debounced, so a burst of changes, such as an editor saving multiple files, results in a single notification.
+ */
+@Slf4j
+@Component
+public class XsdFileWatcher {
+    static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+    private final Map<XsdDocument, Registration> registrations = new IdentityHashMap<>();
+    private final Map<Path, WatchKey> watchKeys = new HashMap<>();
+    private final long debounceMillis;
+    private final ScheduledExecutorService scheduler;
+
+    private WatchService watchService;
+
+    //region Constructors
+
+    /**
+     * Initialize a new instance of {@link XsdFileWatcher} with the default debounce delay.
+     */
+    public XsdFileWatcher() {
+        this(DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * Initialize a new instance of {@link XsdFileWatcher}.
+     *
+     * @param debounceMillis Set the time in millis to wait for further changes before notifying the listener.
+     */
+    public XsdFileWatcher(long debounceMillis) {
+        Assert.isTrue(debounceMillis >= 0, "debounceMillis cannot be negative");
+        this.debounceMillis = debounceMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "xc-file-watcher-debounce");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //endregion
+
+    //region Methods
+
+    /**
+     * Watch the schema files of the given document for changes.
+     * The listener is invoked on a background thread with the document of which a schema file has been changed.
+     * A document which is already being watched will replace its previous listener.
+     *
+     * @param document Set the document to watch.
+     * @param listener Set the listener which is invoked when a schema file of the document has changed.
+     */
+    public synchronized void watch(XsdDocument document, Consumer<XsdDocument> listener) {
+        Assert.notNull(document, "document cannot be null");
+        Assert.notNull(listener, "listener cannot be null");
+
+        try {
+            startWatchService();
+        } catch (IOException ex) {
+            log.warn("Unable to start watching files, " + ex.getMessage(), ex);
+            return;
+        }
+
+        unwatch(document);
+
+        var registration = new Registration(document, listener, resolveSchemaFiles(document.getFile()));
+
+        registrations.put(document, registration);
+        registerDirectories(registration);
+        log.debug("Watching {} schema files of {}", registration.files.size(), document.getFile());
+    }
+
+    /**
+     * Stop watching the schema files of the given document.
+     *
+     * @param document Set the document to stop watching.
+     */
+    public synchronized void unwatch(XsdDocument document) {
+        if (document == null) {
+            return;
+        }
+
+        var registration = registrations.remove(document);
+
+        if (registration != null) {
+            registration.cancelPendingNotification();
+            unregisterUnusedDirectories();
+        }
+    }
+
+    /**
+     * Stop watching the schema files of all documents.
+     */
+    public synchronized void unwatchAll() {
+        registrations.values().forEach(Registration::cancelPendingNotification);
+        registrations.clear();
+        unregisterUnusedDirectories();
+    }
+
+    /**
+     * Check if the given document is being watched.
+     *
+     * @param document Set the document to check.
+     * @return Returns true if the document is being watched, else false.
+     */
+    public synchronized boolean isWatching(XsdDocument document) {
+        return registrations.containsKey(document);
+    }
+
+    //endregion
+
+    //region PreDestroy
+
+    @PreDestroy
+    public synchronized void close() {
+        unwatchAll();
+        scheduler.shutdownNow();
+
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ex) {
+                log.warn("Unable to close the watch service, " + ex.getMessage(), ex);
+            }
+
+            watchService = null;
+        }
+    }
+
+    //endregion
+
+    //region Functions
+
+    private void startWatchService() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+
+        var service = FileSystems.getDefault().newWatchService();
+        var watchThread = new Thread(() -> processEvents(service), "xc-file-watcher");
+
+        watchService = service;
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    private void processEvents(WatchService service) {
+        try {
+            while (true) {
+                var key = service.take();
+                var directory = (Path) key.watchable();
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() != StandardWatchEventKinds.OVERFLOW) {
+                        onFileChanged(directory.resolve((Path) event.context()));
+                    } else {
+                        onDirectoryOverflow(directory);
+                    }
+                }
+
+                key.reset();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            log.trace("Watch service has been closed");
+        }
+    }
+
+    private synchronized void onFileChanged(Path path) {
+        var file = path.toFile();
+
+        for (Registration registration : registrations.values()) {
+            if (registration.files.contains(file)) {
+                log.trace("Schema file {} of {} has been changed", file, registration.document.getFile());
+                scheduleNotification(registration);
+            }
+        }
+    }
+
+    private synchronized void onDirectoryOverflow(Path directory) {
+        // events have been lost, so notify every registration which has a file in the directory
+        for (Registration registration : registrations.values()) {
+            if (registration.files.stream().anyMatch(e -> directory.equals(e.toPath().getParent()))) {
+                scheduleNotification(registration);
+            }
+        }
+    }
+
+    private void scheduleNotification(Registration registration) {
+        registration.cancelPendingNotification();
+        registration.pendingNotification = scheduler.schedule(() -> notifyListener(registration), debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void notifyListener(Registration registration) {
+        synchronized (this) {
+            // the document might have been unwatched while the notification was pending
+            if (registrations.get(registration.document) != registration) {
+                return;
+            }
+
+            // the includes or imports might have been changed, so the schema files are resolved again
+            registration.files = resolveSchemaFiles(registration.document.getFile());
+            registerDirectories(registration);
+            unregisterUnusedDirectories();
+        }
+
+        log.debug("Schema files of {} have been changed", registration.document.getFile());
+
+        try {
+            registration.listener.accept(registration.document);
+        } catch (Exception ex) {
+            log.error("Failed to handle the changes of " + registration.document.getFile() + ", " + ex.getMessage(), ex);
+        }
+    }
+
+    private void registerDirectories(Registration registration) {
+        for (File file : registration.files) {
+            var directory = file.toPath().getParent();
+
+            if (directory != null && !watchKeys.containsKey(directory)) {
+                try {
+                    watchKeys.put(directory, directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+                } catch (IOException ex) {
+                    log.warn("Unable to watch directory " + directory + ", " + ex.getMessage(), ex);
+                }
+            }
+        }
+    }
+
+    private void unregisterUnusedDirectories() {
+        var usedDirectories = new HashSet<Path>();
+
+        for (Registration registration : registrations.values()) {
+            for (File file : registration.files) {
+                usedDirectories.add(file.toPath().getParent());
+            }
+        }
+
+        var iterator = watchKeys.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+
+            if (!usedDirectories.contains(entry.getKey())) {
+                entry.getValue().cancel();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static Set<File> resolveSchemaFiles(File file) {
+        // schema files which can't be resolved on the local file system are skipped, the others are still watched
+        var schemaFiles = new HashSet<>(XsdSchemaClosure.read(file).getFiles().keySet());
+
+        if (schemaFiles.isEmpty()) {
+            schemaFiles.add(toCanonicalFile(file));
+        }
+
+        return schemaFiles;
+    }
+
+    private static File toCanonicalFile(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException ex) {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    //endregion
+
+    private static class Registration {
+        private final XsdDocument document;
+        private final Consumer<XsdDocument> listener;
+
+        private Set<File> files;
+        private ScheduledFuture<?> pendingNotification;
+
+        private Registration(XsdDocument document, Consumer<XsdDocument> listener, Set<File> files) {
+            this.document = document;
+            this.listener = listener;
+            this.files = files;
+        }
+
+        private void cancelPendingNotification() {
+            if (pendingNotification != null) {
+                pendingNotification.cancel(false);
+                pendingNotification = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.compare.xsd.comparison;
+
+import com.compare.xsd.comparison.model.xsd.XsdLoadMonitor;
+import com.compare.xsd.comparison.model.xsd.impl.XsdDocument;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The future of an XSD document load which can be cancelled while the document is being loaded.
+ * Cancelling the future cancels the load itself, which stops at the next particle that is projected.
+ */
+public class XsdLoadFuture extends CompletableFuture<XsdDocument> {
+    private final XsdLoadMonitor monitor;
+
+    /**
+     * Initialize a new instance of {@link XsdLoadFuture}.
+     *
+     * @param monitor Set the monitor of the load.
+     */
+    public XsdLoadFuture(XsdLoadMonitor monitor) {
+        Assert.notNull(monitor, "monitor cannot be null");
+        this.monitor = monitor;
+    }
+
+    /**
+     * Get the current progress of the load.
+     *
+     * @return Returns the progress between 0 and 1.
+     */
+    public double getProgress() {
+        return monitor.getProgress();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        monitor.cancel();
+        return super.cancel(mayInterruptIfRunning);
+    }
+}
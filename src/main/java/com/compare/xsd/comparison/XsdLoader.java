@@ -1,42 +1,75 @@
 package com.compare.xsd.comparison;
 
+import com.compare.xsd.comparison.model.xsd.*;
+import com.compare.xsd.comparison.model.xsd.impl.XsdArchive;
 import com.compare.xsd.comparison.model.xsd.impl.XsdDocument;
+import com.compare.xsd.comparison.model.xsd.impl.XsdGrammarCache;
+import com.compare.xsd.comparison.model.xsd.impl.XsdResourceResolver;
 import com.github.spring.boot.javafx.view.ViewManager;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.Optional;
+import java.util.function.DoubleConsumer;
 
 @Slf4j
 @Component
 public class XsdLoader {
     private static final String EXTENSION = "*.xsd";
     private static final String EXTENSION_DESCRIPTION = "XML Schema Definition Language (XSD)";
+    private static final String WSDL_EXTENSION = "*.wsdl";
+    private static final String WSDL_EXTENSION_DESCRIPTION = "Web Services Description Language (WSDL)";
+    private static final String METRIC_PREFIX = "xsd.load.";
+    private static final String SCHEMA_TAG = "schema";
+    private static final String PROFILE_TAG = "profile";
+    private static final String THREAD_NAME_PREFIX = "xsd-loader";
 
     private final ViewManager viewManager;
     private final FileChooser fileChooser;
+    private final XsdGrammarCache grammarCache;
+    private final XsdDocumentCache documentCache;
+    private final XsdResourceResolver resourceResolver;
+    private final MeterRegistry meterRegistry;
+    private final TaskExecutor taskExecutor;
 
     /**
      * Initialize a new instance of {@link XsdLoader}.
      *
-     * @param viewManager Set the view manager.
+     * @param viewManager      Set the view manager.
+     * @param documentCache    Set the cache of loaded documents (optional).
+     * @param meterRegistry    Set the registry which receives the metrics of each load (optional).
+     * @param resourceResolver Set the resolver of the imported schemas (optional).
+     * @param taskExecutor     Set the executor of the cancellable loads (optional).
      */
-    public XsdLoader(ViewManager viewManager) {
+    public XsdLoader(ViewManager viewManager, XsdDocumentCache documentCache, MeterRegistry meterRegistry, XsdResourceResolver resourceResolver,
+                     TaskExecutor taskExecutor) {
         this.viewManager = viewManager;
+        this.documentCache = documentCache;
+        this.resourceResolver = resourceResolver;
+        this.meterRegistry = meterRegistry;
+        this.taskExecutor = taskExecutor != null ? taskExecutor : new SimpleAsyncTaskExecutor(THREAD_NAME_PREFIX);
         this.fileChooser = new FileChooser();
+        this.grammarCache = new XsdGrammarCache(resourceResolver);
     }
 
     @PostConstruct
     public void init() {
         FileChooser.ExtensionFilter extensionFilter = new FileChooser.ExtensionFilter(EXTENSION_DESCRIPTION, EXTENSION);
+        FileChooser.ExtensionFilter wsdlExtensionFilter = new FileChooser.ExtensionFilter(WSDL_EXTENSION_DESCRIPTION, WSDL_EXTENSION);
 
-        this.fileChooser.getExtensionFilters().add(extensionFilter);
+        this.fileChooser.getExtensionFilters().addAll(extensionFilter, wsdlExtensionFilter);
         this.fileChooser.setInitialDirectory(new File(System.getProperty("user.dir")));
     }
 
@@ -47,6 +80,22 @@ public class XsdLoader {
      */
     //TODO: refactor to a separate class so the actual XSD loading and javafx dependency are separated
     public XsdDocument chooseAndLoad() {
+        File file = choose();
+
+        if (file != null) {
+            return load(file);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Open a {@link FileChooser} to select an XSD file.
+     * This method needs to be invoked on the JavaFX thread.
+     *
+     * @return Returns the selected XSD file, or null if no file has been selected.
+     */
+    public File choose() {
         Optional<Stage> stage = viewManager.getPrimaryStage();
 
         if (!stage.isPresent()) {
@@ -58,10 +107,9 @@ public class XsdLoader {
 
         if (file != null) {
             this.fileChooser.setInitialDirectory(file.getParentFile());
-            return load(file);
-        } else {
-            return null;
         }
+
+        return file;
     }
 
     /**
@@ -71,7 +119,33 @@ public class XsdLoader {
      * @return Returns the loaded {@link XsdDocument}.
      */
     public XsdDocument load(File file) {
+        return load(file, XsdLoadOptions.defaults());
+    }
+
+    /**
+     * Load the given XSD file into a {@link XsdDocument} with the given options.
+     *
+     * @param file    Set the XSD file to load.
+     * @param options Set the options which define how the file is loaded.
+     * @return Returns the loaded {@link XsdDocument}.
+     */
+    public XsdDocument load(File file, XsdLoadOptions options) {
+        return load(file, options, null);
+    }
+
+    /**
+     * Load the given XSD file into a {@link XsdDocument} with the given options.
+     * A WSDL file is loaded as a single document which contains the schemas that are embedded in the WSDL.
+     *
+     * @param file    Set the XSD or WSDL file to load.
+     * @param options Set the options which define how the file is loaded.
+     * @param monitor Set the monitor which receives the progress of the load and can cancel it (optional).
+     * @return Returns the loaded {@link XsdDocument}.
+     * @throws XsdLoadCancelledException Is thrown when the load has been cancelled through the monitor.
+     */
+    public XsdDocument load(File file, XsdLoadOptions options, XsdLoadMonitor monitor) {
         Assert.notNull(file, "file cannot be null");
+        Assert.notNull(options, "options cannot be null");
 
         // verify if the file exists
         // if not, throw an XsdLoadException that contains an inner FileNotFoundException
@@ -80,7 +154,132 @@ public class XsdLoader {
             throw new XsdLoadException(fileException.getMessage(), fileException);
         }
 
+        var useCache = isCacheable(options);
+
+        if (useCache) {
+            var cachedDocument = documentCache.get(file);
+
+            if (cachedDocument.isPresent()) {
+                if (monitor != null) {
+                    monitor.done();
+                }
+
+                return cachedDocument.get();
+            }
+        }
+
         log.debug("Loading xsd file " + file);
-        return new XsdDocument(file);
+        var document = new XsdDocument(file, options, grammarCache, monitor);
+        log.debug("Grammar cache contains {} grammars, reused {} times", grammarCache.getSize(), grammarCache.getHits());
+        recordStatistics(document.getLoadStatistics());
+
+        if (useCache) {
+            documentCache.put(document);
+        }
+
+        return document;
+    }
+
+    /**
+     * Load the given XSD entry of a zip or jar archive into a {@link XsdDocument} with the given options.
+     * The entry and the schemas it imports relative to its location are read directly from the archive, without extracting it.
+     *
+     * @param archiveFile Set the zip or jar archive which contains the XSD.
+     * @param entry       Set the path of the XSD within the archive.
+     * @param options     Set the options which define how the entry is loaded.
+     * @return Returns the loaded {@link XsdDocument}.
+     */
+    public XsdDocument load(File archiveFile, String entry, XsdLoadOptions options) {
+        Assert.notNull(archiveFile, "archiveFile cannot be null");
+        Assert.hasText(entry, "entry cannot be empty");
+        Assert.notNull(options, "options cannot be null");
+
+        if (!archiveFile.exists()) {
+            FileNotFoundException fileException = new FileNotFoundException(archiveFile.getAbsolutePath());
+            throw new XsdLoadException(fileException.getMessage(), fileException);
+        }
+
+        log.debug("Loading xsd entry " + entry + " from archive " + archiveFile);
+
+        try (var archive = new XsdArchive(archiveFile)) {
+            if (!archive.contains(entry)) {
+                FileNotFoundException entryException = new FileNotFoundException(entry + " in " + archiveFile.getAbsolutePath());
+                throw new XsdLoadException(entryException.getMessage(), entryException);
+            }
+
+            var document = new XsdDocument(archive, entry, options, grammarCache, null);
+            recordStatistics(document.getLoadStatistics());
+
+            return document;
+        } catch (IOException ex) {
+            throw new XsdLoadException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Load the given XSD file into a {@link XsdDocument} with the given options in the background.
+     * The load can be cancelled through the returned future, which is then completed with a {@link java.util.concurrent.CancellationException}.
+     *
+     * @param file             Set the XSD file to load.
+     * @param options          Set the options which define how the file is loaded.
+     * @param progressListener Set the listener which receives the progress of the load between 0 and 1 (optional).
+     *                         The listener is invoked on the loading thread.
+     * @return Returns the cancellable future of the load.
+     */
+    public XsdLoadFuture loadCancellable(File file, XsdLoadOptions options, DoubleConsumer progressListener) {
+        Assert.notNull(file, "file cannot be null");
+        Assert.notNull(options, "options cannot be null");
+        var monitor = new XsdLoadMonitor(progressListener);
+        var future = new XsdLoadFuture(monitor);
+
+        taskExecutor.execute(() -> {
+            try {
+                future.complete(load(file, options, monitor));
+            } catch (XsdLoadCancelledException ex) {
+                log.debug("Cancelled the load of xsd file " + file);
+                future.cancel(false);
+            } catch (Exception ex) {
+                future.completeExceptionally(ex);
+            }
+        });
+
+        return future;
+    }
+
+    private boolean isCacheable(XsdLoadOptions options) {
+        // the cache contains the complete node tree of a fast load, so lazy, depth limited, compact and complete loads are never restored from it
+        // the cache key only follows the literal schema locations, which don't reveal the mirrors that a catalog resolves them to
+        return documentCache != null && options.getProfile() == XsdLoadProfile.FAST && !options.isLazy() && options.getMaxEagerDepth() == null
+                && !options.isCompact() && (resourceResolver == null || !resourceResolver.hasCatalog());
+    }
+
+    private void recordStatistics(XsdLoadStatistics statistics) {
+        if (meterRegistry == null || statistics == null) {
+            return;
+        }
+
+        // the metrics are tagged with the profile, so the load times of the profiles can be compared for the same schema
+        timer("parse", "Time spent on parsing the schema and resolving its imports", statistics).record(statistics.getParseTime());
+        timer("projection", "Time spent on projecting the parsed schema into the node tree", statistics).record(statistics.getProjectionTime());
+        summary("elements", "Number of elements created by a load", statistics).record(statistics.getElements());
+        summary("attributes", "Number of attributes created by a load", statistics).record(statistics.getAttributes());
+        summary("types.expanded", "Number of complex types expanded by a load", statistics).record(statistics.getTypesExpanded());
+        summary("depth", "Deepest element level created by a load", statistics).record(statistics.getMaxDepth());
+    }
+
+    private Timer timer(String name, String description, XsdLoadStatistics statistics) {
+        return Timer.builder(METRIC_PREFIX + name)
+                .description(description)
+                .tag(SCHEMA_TAG, statistics.getSchema())
+                .tag(PROFILE_TAG, statistics.getProfile().name())
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary summary(String name, String description, XsdLoadStatistics statistics) {
+        return DistributionSummary.builder(METRIC_PREFIX + name)
+                .description(description)
+                .tag(SCHEMA_TAG, statistics.getSchema())
+                .tag(PROFILE_TAG, statistics.getProfile().name())
+                .register(meterRegistry);
     }
 }
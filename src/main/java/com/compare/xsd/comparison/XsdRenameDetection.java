@@ -0,0 +1,312 @@
+package com.compare.xsd.comparison;
+
+import com.compare.xsd.comparison.model.xsd.XsdNode;
+import com.compare.xsd.comparison.model.xsd.impl.XsdElement;
+
+import java.util.*;
+
+/**
+ * Pairs the removed siblings of a node with the added siblings which are most likely the same nodes under another name.
+ * The similarity of two siblings is the average of the similarity of their names, based on the edit distance,
+ * and the similarity of their structure, based on the structure fingerprints of their loaded inner nodes.
+ * <p>
+ * Comparing every removed sibling with every added sibling doesn't scale for wide nodes, so the candidates of a wide node
+ * are found by locality-sensitive hashing. Each sibling is described by the names of its inner nodes and the bigrams of its own name,
+ * of which a MinHash signature is split in bands. Only the siblings which share the most bands are scored, with a bounded number of candidates per sibling.
+ */
+final class XsdRenameDetection {
+    /**
+     * The index of a removed sibling which hasn't been paired.
+     */
+    static final int NO_MATCH = -1;
+
+    // the number of pairs which are always scored one by one
+    private static final int MAX_EXHAUSTIVE_PAIRS = 256;
+    private static final int MAX_CANDIDATES = 32;
+    private static final int MAX_SCAN = 2048;
+    private static final int BANDS = 8;
+    private static final int ROWS = 2;
+    private static final long NAME_SALT = 0x4e414d45L;
+    private static final long NODE_SALT = 0x4e4f4445L;
+
+    private XsdRenameDetection() {
+    }
+
+    //region Methods
+
+    /**
+     * Pair the removed siblings with the added siblings of which the similarity is at least the given minimum.
+     * The pairs with the highest similarity are chosen first, each sibling is paired at most once.
+     *
+     * @param removedNodes  Set the siblings which only exist in the original node.
+     * @param addedNodes    Set the siblings which only exist in the new node.
+     * @param minSimilarity Set the minimum similarity of a pair, between 0 and 1.
+     * @return Returns for each removed sibling the index of the paired added sibling, or {@link #NO_MATCH}.
+     */
+    static int[] pair(List<? extends XsdNode> removedNodes, List<? extends XsdNode> addedNodes, double minSimilarity) {
+        var result = new int[removedNodes.size()];
+
+        Arrays.fill(result, NO_MATCH);
+
+        if (removedNodes.isEmpty() || addedNodes.isEmpty()) {
+            return result;
+        }
+
+        var removedSiblings = describe(removedNodes);
+        var addedSiblings = describe(addedNodes);
+        var candidates = new ArrayList<Candidate>();
+
+        if ((long) removedNodes.size() * addedNodes.size() <= MAX_EXHAUSTIVE_PAIRS) {
+            for (int i = 0; i < removedSiblings.size(); i++) {
+                for (int j = 0; j < addedSiblings.size(); j++) {
+                    addCandidate(candidates, removedSiblings, addedSiblings, i, j, minSimilarity);
+                }
+            }
+        } else {
+            findCandidates(candidates, removedSiblings, addedSiblings, minSimilarity);
+        }
+
+        // the order of equal scores is defined by the positions, so the result doesn't depend on the order of the buckets
+        candidates.sort(Comparator.comparingDouble(Candidate::getScore).reversed()
+                .thenComparingInt(Candidate::getRemovedIndex)
+                .thenComparingInt(Candidate::getAddedIndex));
+
+        var pairedNodes = new boolean[addedNodes.size()];
+
+        for (Candidate candidate : candidates) {
+            if (result[candidate.removedIndex] == NO_MATCH && !pairedNodes[candidate.addedIndex]) {
+                result[candidate.removedIndex] = candidate.addedIndex;
+                pairedNodes[candidate.addedIndex] = true;
+            }
+        }
+
+        return result;
+    }
+
+    //endregion
+
+    //region Functions
+
+    private static void findCandidates(List<Candidate> candidates, List<Sibling> removedSiblings, List<Sibling> addedSiblings, double minSimilarity) {
+        var buckets = new HashMap<Long, List<Integer>>();
+
+        for (int j = 0; j < addedSiblings.size(); j++) {
+            var bands = addedSiblings.get(j).bands;
+
+            for (long band : bands) {
+                buckets.computeIfAbsent(band, key -> new ArrayList<>()).add(j);
+            }
+        }
+
+        for (int i = 0; i < removedSiblings.size(); i++) {
+            // the siblings which share the most bands are the most similar
+            // the smallest buckets are the most selective, so they're visited first until the scan limit is reached
+            var sharedBands = new HashMap<Integer, Integer>();
+            var remainingScan = MAX_SCAN;
+            var siblingBuckets = new ArrayList<List<Integer>>(BANDS);
+
+            for (long band : removedSiblings.get(i).bands) {
+                siblingBuckets.add(buckets.getOrDefault(band, Collections.emptyList()));
+            }
+
+            siblingBuckets.sort(Comparator.comparingInt(List::size));
+
+            for (List<Integer> bucket : siblingBuckets) {
+                var size = Math.min(bucket.size(), remainingScan);
+
+                for (int j : bucket.subList(0, size)) {
+                    sharedBands.merge(j, 1, Integer::sum);
+                }
+
+                remainingScan -= size;
+            }
+
+            var removedIndex = i;
+
+            sharedBands.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(MAX_CANDIDATES)
+                    .forEach(e -> addCandidate(candidates, removedSiblings, addedSiblings, removedIndex, e.getKey(), minSimilarity));
+        }
+    }
+
+    private static void addCandidate(List<Candidate> candidates, List<Sibling> removedSiblings, List<Sibling> addedSiblings, int removedIndex,
+                                     int addedIndex, double minSimilarity) {
+        var score = similarity(removedSiblings.get(removedIndex), addedSiblings.get(addedIndex));
+
+        if (score >= minSimilarity) {
+            candidates.add(new Candidate(removedIndex, addedIndex, score));
+        }
+    }
+
+    private static double similarity(Sibling removedSibling, Sibling addedSibling) {
+        var nameSimilarity = nameSimilarity(removedSibling.node.getName(), addedSibling.node.getName());
+        double structureSimilarity;
+
+        if (removedSibling.structure.isEmpty() && addedSibling.structure.isEmpty()) {
+            structureSimilarity = Objects.equals(removedSibling.node.getType(), addedSibling.node.getType()) ? 1 : 0;
+        } else {
+            structureSimilarity = jaccard(removedSibling.structure, addedSibling.structure);
+        }
+
+        return (nameSimilarity + structureSimilarity) / 2;
+    }
+
+    private static double nameSimilarity(String originalName, String newName) {
+        var length = Math.max(originalName.length(), newName.length());
+
+        return length == 0 ? 1 : 1 - (double) editDistance(originalName.toLowerCase(Locale.ROOT), newName.toLowerCase(Locale.ROOT)) / length;
+    }
+
+    private static int editDistance(String originalName, String newName) {
+        var previous = new int[newName.length() + 1];
+        var current = new int[newName.length() + 1];
+
+        for (int j = 0; j <= newName.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= originalName.length(); i++) {
+            current[0] = i;
+
+            for (int j = 1; j <= newName.length(); j++) {
+                var cost = originalName.charAt(i - 1) == newName.charAt(j - 1) ? 0 : 1;
+
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+
+            var row = previous;
+
+            previous = current;
+            current = row;
+        }
+
+        return previous[newName.length()];
+    }
+
+    private static double jaccard(Set<Long> originalTokens, Set<Long> newTokens) {
+        var intersection = 0;
+
+        for (Long token : originalTokens) {
+            if (newTokens.contains(token)) {
+                intersection++;
+            }
+        }
+
+        return (double) intersection / (originalTokens.size() + newTokens.size() - intersection);
+    }
+
+    private static List<Sibling> describe(List<? extends XsdNode> nodes) {
+        var siblings = new ArrayList<Sibling>(nodes.size());
+
+        for (XsdNode node : nodes) {
+            var structure = new HashSet<Long>();
+            var tokens = new HashSet<Long>();
+            // only the inner nodes which are already loaded are used, so describing a lazy sibling doesn't load its inner nodes
+            var innerNodes = node.isLoaded() ? node.getNodes() : Collections.<XsdNode>emptyList();
+
+            for (XsdNode innerNode : innerNodes) {
+                structure.add(fingerprint(innerNode));
+                tokens.add(hash(NODE_SALT, innerNode.getName()));
+            }
+
+            var name = node.getName().toLowerCase(Locale.ROOT);
+
+            for (int i = 0; i < name.length() - 1; i++) {
+                tokens.add(hash(NAME_SALT, name.substring(i, i + 2)));
+            }
+
+            siblings.add(new Sibling(node, structure, tokens.isEmpty() ? new long[0] : bands(tokens)));
+        }
+
+        return siblings;
+    }
+
+    private static long fingerprint(XsdNode node) {
+        if (node instanceof XsdElement) {
+            var fingerprint = ((XsdElement) node).getStructureFingerprint();
+
+            if (fingerprint.isPresent()) {
+                return fingerprint.getAsLong();
+            }
+        }
+
+        return hash(Objects.hashCode(node.getType()), node.getName());
+    }
+
+    private static long[] bands(Set<Long> tokens) {
+        var signature = new long[BANDS * ROWS];
+
+        Arrays.fill(signature, Long.MAX_VALUE);
+
+        for (long token : tokens) {
+            for (int k = 0; k < signature.length; k++) {
+                signature[k] = Math.min(signature[k], mix(token + k * 0x9e3779b97f4a7c15L));
+            }
+        }
+
+        var bands = new long[BANDS];
+
+        for (int b = 0; b < BANDS; b++) {
+            var band = mix(b);
+
+            for (int r = 0; r < ROWS; r++) {
+                band = mix(band ^ signature[b * ROWS + r]);
+            }
+
+            bands[b] = band;
+        }
+
+        return bands;
+    }
+
+    private static long hash(long salt, String value) {
+        return mix(salt * 31 + (value != null ? value.hashCode() : 0));
+    }
+
+    private static long mix(long value) {
+        // the finalizer of SplitMix64
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    //endregion
+
+    private static final class Sibling {
+        private final XsdNode node;
+        private final Set<Long> structure;
+        private final long[] bands;
+
+        private Sibling(XsdNode node, Set<Long> structure, long[] bands) {
+            this.node = node;
+            this.structure = structure;
+            this.bands = bands;
+        }
+    }
+
+    private static final class Candidate {
+        private final int removedIndex;
+        private final int addedIndex;
+        private final double score;
+
+        private Candidate(int removedIndex, int addedIndex, double score) {
+            this.removedIndex = removedIndex;
+            this.addedIndex = addedIndex;
+            this.score = score;
+        }
+
+        private int getRemovedIndex() {
+            return removedIndex;
+        }
+
+        private int getAddedIndex() {
+            return addedIndex;
+        }
+
+        private double getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.compare.xsd.comparison;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Resolves the schema files which make up an XSD file, being the file itself and all schema files
+ * which it includes, imports, redefines or overrides (transitively).
+ */
+@Slf4j
+final class XsdSchemaClosure {
+    private static final String SCHEMA_NAMESPACE = XMLConstants.W3C_XML_SCHEMA_NS_URI;
+    private static final String SCHEMA_LOCATION_ATTRIBUTE = "schemaLocation";
+    private static final String FILE_SCHEME = "file";
+    private static final Set<String> REFERENCE_ELEMENTS = Set.of("include", "import", "redefine", "override");
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final Map<File, byte[]> files;
+    private final boolean complete;
+
+    //region Constructors
+
+    private XsdSchemaClosure(Map<File, byte[]> files, boolean complete) {
+        this.files = files;
+        this.complete = complete;
+    }
+
+    //endregion
+
+    //region Getters & Setters
+
+    /**
+     * Get the content of the schema files which could be resolved on the local file system.
+     * The given XSD file is always the first entry, unless it couldn't be read.
+     *
+     * @return Returns the content of each resolved schema file.
+     */
+    Map<File, byte[]> getFiles() {
+        return files;
+    }
+
+    /**
+     * Check if all schema files which make up the XSD file could be resolved.
+     *
+     * @return Returns false if one of the schema files isn't located on the local file system or couldn't be read.
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    //endregion
+
+    //region Functions
+
+    /**
+     * Read the content of all schema files which make up the given XSD file.
+     * Schema files which can't be resolved are skipped and mark the closure as incomplete.
+     *
+     * @param file Set the XSD file.
+     * @return Returns the closure of the XSD file.
+     */
+    static XsdSchemaClosure read(File file) {
+        var schemaFiles = new LinkedHashMap<File, byte[]>();
+        var queue = new ArrayDeque<File>();
+        var complete = true;
+
+        queue.add(toCanonicalFile(file));
+
+        while (!queue.isEmpty()) {
+            var schemaFile = queue.poll();
+
+            if (schemaFiles.containsKey(schemaFile)) {
+                continue;
+            }
+
+            try {
+                var content = Files.readAllBytes(schemaFile.toPath());
+                var references = new ArrayList<File>();
+
+                schemaFiles.put(schemaFile, content);
+                complete &= findReferences(schemaFile, content, references);
+                queue.addAll(references);
+            } catch (IOException ex) {
+                log.debug("Unable to read schema file " + schemaFile + ", " + ex.getMessage());
+                complete = false;
+            }
+        }
+
+        return new XsdSchemaClosure(Collections.unmodifiableMap(schemaFiles), complete);
+    }
+
+    /**
+     * Add the local schema files which are referenced by the given schema file to the given references.
+     *
+     * @return Returns false if one of the references isn't located on the local file system or the schema file couldn't be scanned.
+     */
+    private static boolean findReferences(File schemaFile, byte[] content, List<File> references) {
+        var complete = true;
+
+        try {
+            var reader = INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(content));
+
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && SCHEMA_NAMESPACE.equals(reader.getNamespaceURI()) &&
+                            REFERENCE_ELEMENTS.contains(reader.getLocalName())) {
+                        var location = reader.getAttributeValue(null, SCHEMA_LOCATION_ATTRIBUTE);
+
+                        if (location != null) {
+                            var uri = schemaFile.toURI().resolve(location.trim());
+
+                            // schemas which aren't located on the local file system can't be verified for changes
+                            if (FILE_SCHEME.equalsIgnoreCase(uri.getScheme())) {
+                                references.add(toCanonicalFile(new File(uri)));
+                            } else {
+                                complete = false;
+                            }
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | IllegalArgumentException ex) {
+            log.debug("Unable to scan schema references of " + schemaFile + ", " + ex.getMessage());
+            return false;
+        }
+
+        return complete;
+    }
+
+    private static File toCanonicalFile(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException ex) {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        var inputFactory = XMLInputFactory.newFactory();
+
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        return inputFactory;
+    }
+
+    //endregion
+}
@@ -0,0 +1,97 @@
+package com.compare.xsd.comparison;
+
+/**
+ * Aligns the sequence of matched siblings of the original node with the sequence of the new node.
+ * The siblings which keep their relative order are the longest increasing subsequence of their positions within the new node,
+ * which is found by patience sorting in O(n log n). Every other matched sibling has been moved.
+ */
+final class XsdSiblingAlignment {
+    /**
+     * The position of a sibling which isn't part of the alignment, such as an unmatched sibling.
+     */
+    static final int NO_POSITION = -1;
+
+    private XsdSiblingAlignment() {
+    }
+
+    //region Methods
+
+    /**
+     * Find the siblings which keep their relative order, based on their positions within the new node.
+     * The siblings are given in the order of the original node.
+     *
+     * @param positions Set the position of each sibling within the new node, or {@link #NO_POSITION}.
+     * @return Returns for each sibling if it keeps its relative order, siblings without a position never do.
+     */
+    static boolean[] inOrder(int[] positions) {
+        var result = new boolean[positions.length];
+
+        // siblings which haven't been reordered don't need any search
+        if (isIncreasing(positions)) {
+            for (int i = 0; i < positions.length; i++) {
+                result[i] = positions[i] != NO_POSITION;
+            }
+
+            return result;
+        }
+
+        // the index of the smallest last sibling of an increasing subsequence of each length
+        var tails = new int[positions.length];
+        var previous = new int[positions.length];
+        var length = 0;
+
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] == NO_POSITION) {
+                continue;
+            }
+
+            var low = 0;
+            var high = length;
+
+            while (low < high) {
+                var middle = (low + high) >>> 1;
+
+                if (positions[tails[middle]] < positions[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            previous[i] = low > 0 ? tails[low - 1] : NO_POSITION;
+            tails[low] = i;
+
+            if (low == length) {
+                length++;
+            }
+        }
+
+        for (int i = length > 0 ? tails[length - 1] : NO_POSITION; i != NO_POSITION; i = previous[i]) {
+            result[i] = true;
+        }
+
+        return result;
+    }
+
+    //endregion
+
+    //region Functions
+
+    private static boolean isIncreasing(int[] positions) {
+        var last = NO_POSITION;
+
+        for (int position : positions) {
+            if (position != NO_POSITION) {
+                if (position <= last) {
+                    return false;
+                }
+
+                last = position;
+            }
+        }
+
+        return true;
+    }
+
+    //endregion
+}
@@ -1,11 +1,23 @@
 package com.compare.xsd.comparison.model;
 
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
 
-@Data
-@NoArgsConstructor
+/**
+ * The modifications of a pair of nodes within a comparison.
+ * Modifications are immutable, so the same instance can be shared by both sides of a comparison.
+ */
+@Value
+@Builder(toBuilder = true)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class Modifications {
+    /**
+     * The modifications of a node which hasn't been modified.
+     */
+    public static final Modifications NONE = Modifications.builder().build();
+
     private ModificationType type;
 
     private boolean nameChanged;
@@ -19,30 +31,39 @@ public class Modifications {
     private boolean patternChanged;
     private boolean enumerationChanged;
     private boolean whitespaceChanged;
+    /**
+     * Indicates if the node has been moved to another position within its parent or to another parent.
+     * A moved node of which no property has been changed has the type {@link ModificationType#MOVED}.
+     */
+    private boolean moved;
 
-    //region Constructors
+    //region Getters & Setters
 
     /**
-     * Initialize a new instance of {@link Modifications}.
+     * Verify if any property of the node has been changed.
+     * A node which has only been moved is not modified.
      *
-     * @param type Set the type of modifications.
+     * @return Returns true if a property changed, else false.
      */
-    public Modifications(ModificationType type) {
-        this.type = type;
+    public boolean isModified() {
+        return nameChanged || namespaceChanged || typeChanged || cardinalityChanged || fixedValueChanged || lengthChanged || maxLengthChanged ||
+                minLengthChanged || patternChanged || enumerationChanged || whitespaceChanged;
     }
 
     //endregion
 
-    //region Getters & Setters
+    //region Methods
 
     /**
-     * Verify if any modifications were made.
+     * Get the modifications of the given type without any changed property.
      *
-     * @return Returns true if something changed, else false.
+     * @param type Set the type of modifications.
+     * @return Returns the modifications of the given type.
      */
-    public boolean isModified() {
-        return nameChanged || namespaceChanged || typeChanged || cardinalityChanged || fixedValueChanged || lengthChanged || maxLengthChanged ||
-                minLengthChanged || patternChanged || enumerationChanged || whitespaceChanged;
+    public static Modifications of(ModificationType type) {
+        return Modifications.builder()
+                .type(type)
+                .build();
     }
 
     //endregion
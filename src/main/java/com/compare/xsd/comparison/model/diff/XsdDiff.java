@@ -0,0 +1,84 @@
+package com.compare.xsd.comparison.model.diff;
+
+import com.compare.xsd.comparison.model.xsd.XsdNode;
+import com.compare.xsd.comparison.model.xsd.impl.XsdDocument;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.util.Assert;
+
+/**
+ * The result of a comparison between two XSD documents, which aligns the nodes of both documents in rows.
+ * The result is immutable and doesn't modify the compared documents, so the same documents can be compared many times
+ * and by multiple comparisons at once.
+ */
+@Getter
+@ToString(onlyExplicitlyIncluded = true)
+public final class XsdDiff {
+    /**
+     * The original document of the comparison.
+     */
+    @ToString.Include
+    private final XsdDocument originalDocument;
+    /**
+     * The new document of the comparison.
+     */
+    @ToString.Include
+    private final XsdDocument newDocument;
+    /**
+     * The row which aligns both documents.
+     */
+    private final XsdDiffRow root;
+
+    @Getter(AccessLevel.NONE)
+    private final XsdDiffNode originalSide;
+    @Getter(AccessLevel.NONE)
+    private final XsdDiffNode newSide;
+
+    //region Constructors
+
+    /**
+     * Initialize a new instance of {@link XsdDiff}.
+     *
+     * @param originalDocument Set the original document.
+     * @param newDocument      Set the new document.
+     * @param root             Set the row which aligns both documents.
+     */
+    public XsdDiff(XsdDocument originalDocument, XsdDocument newDocument, XsdDiffRow root) {
+        Assert.notNull(originalDocument, "originalDocument cannot be null");
+        Assert.notNull(newDocument, "newDocument cannot be null");
+        Assert.notNull(root, "root cannot be null");
+        Assert.isTrue(root.getOriginalNode() == originalDocument && root.getNewNode() == newDocument, "root must align both documents");
+        this.originalDocument = originalDocument;
+        this.newDocument = newDocument;
+        this.root = root;
+        this.originalSide = new XsdDiffNode(root, true, true);
+        this.newSide = new XsdDiffNode(root, false, true);
+    }
+
+    //endregion
+
+    //region Getters & Setters
+
+    /**
+     * Get the view of the original document within this comparison, which contains the modifications and the empty nodes
+     * which align it with the new document.
+     *
+     * @return Returns the root node of the original side.
+     */
+    public XsdNode getOriginalSide() {
+        return originalSide;
+    }
+
+    /**
+     * Get the view of the new document within this comparison, which contains the modifications and the empty nodes
+     * which align it with the original document.
+     *
+     * @return Returns the root node of the new side.
+     */
+    public XsdNode getNewSide() {
+        return newSide;
+    }
+
+    //endregion
+}
@@ -0,0 +1,236 @@
+package com.compare.xsd.comparison.model.diff;
+
+import com.compare.xsd.comparison.model.Modifications;
+import com.compare.xsd.comparison.model.xsd.XsdFacets;
+import com.compare.xsd.comparison.model.xsd.XsdNode;
+import javafx.scene.image.Image;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The view of one side of a {@link XsdDiffRow}, which presents the node of that side together with the modifications of the row.
+ * The inner nodes of an aligned row are the views of the inner rows, so both sides of a comparison have the same shape.
+ * <p>
+ * A node which is absent on this side is presented as an empty node, which mirrors the node on the other side.
+ * The mirror has the same recursive and loaded state, so its inner nodes are only created when the inner nodes of the other side are requested.
+ * The nodes of the documents themselves are never modified by a comparison.
+ */
+public final class XsdDiffNode implements XsdNode {
+    private static final String ICON_DIRECTORY = "/images/";
+
+    private final XsdDiffRow row;
+    private final XsdNode node;
+    private final XsdNode otherNode;
+    private final boolean originalSide;
+    private final boolean root;
+
+    private List<XsdNode> nodes;
+
+    //region Constructors
+
+    /**
+     * Initialize a new instance of {@link XsdDiffNode} for the given side of the row.
+     *
+     * @param row          Set the row of the node.
+     * @param originalSide Set if this is the view of the original document.
+     * @param root         Set if the row is the root row of the comparison.
+     */
+    XsdDiffNode(XsdDiffRow row, boolean originalSide, boolean root) {
+        this(row, row.getNode(originalSide), row.getNode(!originalSide), originalSide, root);
+    }
+
+    private XsdDiffNode(XsdDiffRow row, XsdNode node, XsdNode otherNode, boolean originalSide, boolean root) {
+        this.row = row;
+        this.node = node;
+        this.otherNode = otherNode;
+        this.originalSide = originalSide;
+        this.root = root;
+    }
+
+    //endregion
+
+    //region Getters & Setters
+
+    /**
+     * Get the node of the document which is presented by this view.
+     *
+     * @return Returns the node or null when the node is absent on this side.
+     */
+    public XsdNode getNode() {
+        return node;
+    }
+
+    //endregion
+
+    //region Implementation of XsdNode
+
+    @Override
+    public String getName() {
+        return node != null ? node.getName() : "";
+    }
+
+    @Override
+    public String getNamespace() {
+        return node != null ? node.getNamespace() : null;
+    }
+
+    @Override
+    public String getType() {
+        return node != null ? node.getType() : null;
+    }
+
+    @Override
+    public String getCardinality() {
+        return node != null ? node.getCardinality() : null;
+    }
+
+    @Override
+    public String getFixedValue() {
+        return node != null ? node.getFixedValue() : null;
+    }
+
+    @Override
+    public String getPattern() {
+        return node != null ? node.getPattern() : null;
+    }
+
+    @Override
+    public String getWhitespace() {
+        return node != null ? node.getWhitespace() : null;
+    }
+
+    @Override
+    public String getXPath() {
+        return node != null ? node.getXPath() : "";
+    }
+
+    @Override
+    public String getXml() {
+        return node != null ? node.getXml() : "";
+    }
+
+    @Override
+    public Integer getLength() {
+        return node != null ? node.getLength() : null;
+    }
+
+    @Override
+    public Integer getMinLength() {
+        return node != null ? node.getMinLength() : null;
+    }
+
+    @Override
+    public Integer getMaxLength() {
+        return node != null ? node.getMaxLength() : null;
+    }
+
+    @Override
+    public Image getIcon() {
+        return node != null ? node.getIcon() : null;
+    }
+
+    @Override
+    public Image getModificationColor() {
+        var modifications = getModifications();
+
+        // the documents themselves are never marked
+        if (root || modifications == null || modifications.getType() == null) {
+            return null;
+        }
+
+        switch (modifications.getType()) {
+            case ADDED:
+                return loadResourceIcon("green.png");
+            case REMOVED:
+                return loadResourceIcon("red.png");
+            case MODIFIED:
+                return loadResourceIcon("orange.png");
+            case MOVED:
+                return loadResourceIcon("yellow.png");
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public List<XsdNode> getNodes() {
+        if (nodes != null) {
+            return nodes;
+        }
+
+        var innerNodes = createNodes();
+
+        // a mirror is only kept once the other side has been loaded, so it never misses inner nodes which are loaded later on
+        if (node != null || otherNode == null || otherNode.isLoaded()) {
+            nodes = innerNodes;
+        }
+
+        return innerNodes;
+    }
+
+    @Override
+    public boolean isLoaded() {
+        if (node == null) {
+            return otherNode == null || otherNode.isLoaded();
+        }
+
+        return (row != null && row.isAligned()) || node.isLoaded();
+    }
+
+    @Override
+    public boolean isRecursive() {
+        if (node == null) {
+            return otherNode != null && otherNode.isRecursive();
+        }
+
+        return node.isRecursive();
+    }
+
+    @Override
+    public XsdFacets getFacets() {
+        return node != null ? node.getFacets() : XsdFacets.EMPTY;
+    }
+
+    @Override
+    public List<String> getEnumeration() {
+        return node != null ? node.getEnumeration() : Collections.emptyList();
+    }
+
+    @Override
+    public Modifications getModifications() {
+        // an absent node and the inner nodes of a row which haven't been compared have no modifications
+        return node != null && row != null ? row.getModifications() : null;
+    }
+
+    //endregion
+
+    //region Functions
+
+    private List<XsdNode> createNodes() {
+        if (row != null && row.isAligned()) {
+            return row.getRows().stream()
+                    .map(e -> new XsdDiffNode(e, originalSide, false))
+                    .collect(Collectors.toUnmodifiableList());
+        }
+
+        if (node != null) {
+            return node.getNodes();
+        }
+
+        if (otherNode == null) {
+            return Collections.emptyList();
+        }
+
+        return otherNode.getNodes().stream()
+                .map(e -> new XsdDiffNode(null, null, e, originalSide, false))
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private Image loadResourceIcon(String name) {
+        return new Image(XsdDiffNode.class.getResourceAsStream(ICON_DIRECTORY + name));
+    }
+
+    //endregion
+}
@@ -0,0 +1,83 @@
+package com.compare.xsd.comparison.model.diff;
+
+import com.compare.xsd.comparison.model.Modifications;
+import com.compare.xsd.comparison.model.xsd.XsdNode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.util.Assert;
+
+import java.util.List;
+
+/**
+ * A row of a comparison, which aligns a node of the original document with the matching node of the new document.
+ * A node which only exists in one of the documents is aligned with an absent node on the other side.
+ * <p>
+ * The inner rows align the inner nodes of both nodes. The inner nodes of a row which haven't been compared,
+ * such as the inner nodes of an added or removed node or of two nodes with the same structure, are not aligned.
+ */
+@Getter
+@ToString(onlyExplicitlyIncluded = true)
+public final class XsdDiffRow {
+    /**
+     * The node of the original document, or null when the node has been added.
+     */
+    @ToString.Include
+    private final XsdNode originalNode;
+    /**
+     * The node of the new document, or null when the node has been removed.
+     */
+    @ToString.Include
+    private final XsdNode newNode;
+    /**
+     * The modifications of the aligned nodes, or null when the nodes haven't been modified.
+     */
+    @ToString.Include
+    private final Modifications modifications;
+    /**
+     * The rows which align the inner nodes of both nodes, or null when the inner nodes are not aligned.
+     */
+    private final List<XsdDiffRow> rows;
+
+    //region Constructors
+
+    /**
+     * Initialize a new instance of {@link XsdDiffRow}.
+     *
+     * @param originalNode  Set the node of the original document (optional).
+     * @param newNode       Set the node of the new document (optional).
+     * @param modifications Set the modifications of the nodes (optional).
+     * @param rows          Set the rows which align the inner nodes (optional).
+     */
+    public XsdDiffRow(XsdNode originalNode, XsdNode newNode, Modifications modifications, List<XsdDiffRow> rows) {
+        Assert.isTrue(originalNode != null || newNode != null, "originalNode and newNode cannot both be null");
+        this.originalNode = originalNode;
+        this.newNode = newNode;
+        this.modifications = modifications;
+        this.rows = rows != null ? List.copyOf(rows) : null;
+    }
+
+    //endregion
+
+    //region Getters & Setters
+
+    /**
+     * Check if the inner nodes of this row have been aligned.
+     *
+     * @return Returns true if the inner nodes are aligned by {@link #getRows()}, else false.
+     */
+    public boolean isAligned() {
+        return rows != null;
+    }
+
+    /**
+     * Get the node of the given side of this row.
+     *
+     * @param originalSide Set if the node of the original document should be returned.
+     * @return Returns the node of the given side or null when the node is absent.
+     */
+    public XsdNode getNode(boolean originalSide) {
+        return originalSide ? originalNode : newNode;
+    }
+
+    //endregion
+}
@@ -0,0 +1,47 @@
+package com.compare.xsd.comparison.model.xsd;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The constraining facets of a simple type, such as the length, pattern and enumeration values.
+ * A facet set is immutable, so the same instance is shared by all nodes which use the same simple type.
+ */
+@Value
+@Builder(toBuilder = true)
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
+public class XsdFacets {
+    /**
+     * The facet set of a type without any constraining facets.
+     */
+    public static final XsdFacets EMPTY = XsdFacets.builder().build();
+
+    Integer length;
+    Integer minLength;
+    Integer maxLength;
+    String pattern;
+    String whitespace;
+    List<String> enumeration;
+
+    private XsdFacets(Integer length, Integer minLength, Integer maxLength, String pattern, String whitespace, List<String> enumeration) {
+        this.length = length;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.pattern = pattern;
+        this.whitespace = whitespace;
+        this.enumeration = enumeration != null ? List.copyOf(enumeration) : Collections.emptyList();
+    }
+
+    /**
+     * Check if this facet set doesn't contain any constraining facets.
+     *
+     * @return Returns true if no facet is present, else false.
+     */
+    public boolean isEmpty() {
+        return EMPTY.equals(this);
+    }
+}
@@ -0,0 +1,10 @@
+package com.compare.xsd.comparison.model.xsd;
+
+/**
+ * Signals that the loading of an XSD file has been cancelled through its {@link XsdLoadMonitor} before it was completed.
+ */
+public class XsdLoadCancelledException extends RuntimeException {
+    public XsdLoadCancelledException(String message) {
+        super("Cancelled the load of XSD file, " + message);
+    }
+}
@@ -0,0 +1,134 @@
+package com.compare.xsd.comparison.model.xsd;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * Monitors the progress of a single XSD document load and allows the load to be cancelled.
+ * The progress is based on the number of element particles which have been projected into the node tree,
+ * compared to the number of particles which the schema is expected to expand into.
+ * <p>
+ * The load checks for cancellation cooperatively while projecting the particles, so a cancelled load stops
+ * with an {@link XsdLoadCancelledException} after the current particle has been processed.
+ */
+public class XsdLoadMonitor {
+    private static final double REPORT_STEP = 0.01;
+
+    private final DoubleConsumer progressListener;
+
+    private volatile boolean cancelled;
+    private volatile double progress;
+    private long totalParticles;
+    private long processedParticles;
+    private double reportedProgress;
+
+    //region Constructors
+
+    /**
+     * Initialize a new instance of {@link XsdLoadMonitor} without a progress listener.
+     */
+    public XsdLoadMonitor() {
+        this(null);
+    }
+
+    /**
+     * Initialize a new instance of {@link XsdLoadMonitor}.
+     *
+     * @param progressListener Set the listener which receives the progress between 0 and 1 (optional).
+     *                         The listener is invoked on the loading thread each time the progress advanced by at least 1%.
+     */
+    public XsdLoadMonitor(DoubleConsumer progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    //endregion
+
+    //region Getters & Setters
+
+    /**
+     * Check if the load has been cancelled.
+     *
+     * @return Returns true if the load has been cancelled, else false.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Get the current progress of the load.
+     *
+     * @return Returns the progress between 0 and 1.
+     */
+    public double getProgress() {
+        return progress;
+    }
+
+    //endregion
+
+    //region Methods
+
+    /**
+     * Cancel the load.
+     * The load will stop at the next particle which is processed.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Verify that the load hasn't been cancelled.
+     *
+     * @throws XsdLoadCancelledException Is thrown when the load has been cancelled.
+     */
+    public void checkCancelled() {
+        if (cancelled) {
+            throw new XsdLoadCancelledException("load has been cancelled");
+        }
+    }
+
+    /**
+     * Start the projection phase of the load, which is expected to process the given number of particles.
+     * This method is invoked by the load, once the schema has been parsed.
+     *
+     * @param totalParticles Set the expected number of particles.
+     */
+    public void start(long totalParticles) {
+        checkCancelled();
+        this.totalParticles = Math.max(totalParticles, 1);
+        this.processedParticles = 0;
+    }
+
+    /**
+     * Register that a particle has been processed and verify that the load hasn't been cancelled.
+     * This method is invoked by the load for each element particle which is projected.
+     *
+     * @throws XsdLoadCancelledException Is thrown when the load has been cancelled.
+     */
+    public void particleProcessed() {
+        checkCancelled();
+        processedParticles++;
+        updateProgress(Math.min((double) processedParticles / totalParticles, 1));
+    }
+
+    /**
+     * Complete the load, which sets the progress to 1.
+     * This method is invoked by the load when the projection phase is done.
+     */
+    public void done() {
+        updateProgress(1);
+    }
+
+    //endregion
+
+    //region Functions
+
+    private void updateProgress(double progress) {
+        this.progress = progress;
+
+        if (progressListener != null && (progress - reportedProgress >= REPORT_STEP || (progress == 1 && reportedProgress < 1))) {
+            reportedProgress = progress;
+            progressListener.accept(progress);
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,168 @@
+package com.compare.xsd.comparison.model.xsd;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.util.Assert;
+
+/**
+ * Defines how an XSD document is loaded into the node tree.
+ * A detached or compact document is always loaded completely, so it can't be combined with a lazy or depth limited load.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+public class XsdLoadOptions {
+    /**
+     * The profile which defines how thoroughly the schemas are verified by the schema loader.
+     * By default, the schemas are only loaded for a comparison.
+     */
+    @Builder.Default
+    private XsdLoadProfile profile = XsdLoadProfile.FAST;
+    /**
+     * Indicates if the inner nodes of an element are only loaded when they're requested for the first time.
+     * By default, the whole node tree is loaded at once.
+     */
+    @Builder.Default
+    private boolean lazy = false;
+    /**
+     * Indicates if the references to the Xerces schema model are released once the document has been loaded.
+     * Every value which is needed afterwards is captured during the load, so the parsed schema grammar can be garbage collected
+     * while the document is still in use. A detached document always loads its whole node tree at once, so it can't be loaded lazy.
+     * The inner nodes of recursive elements are copied on demand from the ancestor element which uses the same type.
+     */
+    @Builder.Default
+    private boolean detached = false;
+    /**
+     * Indicates if the node tree is kept in a columnar node store instead of an object graph once the document has been loaded.
+     * The elements are recreated from the store when the inner nodes of their parent are requested, so only the used parts
+     * of the tree exist as objects. A compact document is always detached, so it can't be loaded lazy or limited to a max. eager depth.
+     */
+    @Builder.Default
+    private boolean compact = false;
+    /**
+     * The max. depth of the elements which are loaded at once, starting at 1 for the root elements.
+     * The inner nodes of the elements at this depth are loaded on demand, when they're requested for the first time.
+     * By default, the depth is not limited. The max. eager depth can't be combined with a detached or compact load.
+     */
+    private Integer maxEagerDepth;
+
+    /**
+     * Initialize a new instance of {@link XsdLoadOptions}.
+     * This constructor is used by the builder, so the built options are validated like the options which are set afterwards.
+     *
+     * @param profile       Set the profile which defines how thoroughly the schemas are verified.
+     * @param lazy          Set if the inner nodes of an element are loaded on demand.
+     * @param detached      Set if the references to the Xerces schema model are released once the document has been loaded.
+     * @param compact       Set if the node tree is kept in a columnar node store.
+     * @param maxEagerDepth Set the max. depth of the elements which are loaded at once (optional).
+     */
+    private XsdLoadOptions(XsdLoadProfile profile, boolean lazy, boolean detached, boolean compact, Integer maxEagerDepth) {
+        validate(lazy, detached, compact, maxEagerDepth);
+        this.profile = profile;
+        this.lazy = lazy;
+        this.detached = detached;
+        this.compact = compact;
+        this.maxEagerDepth = maxEagerDepth;
+    }
+
+    /**
+     * Set if the inner nodes of an element are only loaded when they're requested for the first time.
+     *
+     * @param lazy Set if the inner nodes are loaded on demand.
+     */
+    public void setLazy(boolean lazy) {
+        validate(lazy, detached, compact, maxEagerDepth);
+        this.lazy = lazy;
+    }
+
+    /**
+     * Set if the references to the Xerces schema model are released once the document has been loaded.
+     *
+     * @param detached Set if the document is detached from the schema model.
+     */
+    public void setDetached(boolean detached) {
+        validate(lazy, detached, compact, maxEagerDepth);
+        this.detached = detached;
+    }
+
+    /**
+     * Set if the node tree is kept in a columnar node store once the document has been loaded.
+     *
+     * @param compact Set if the node tree is kept in a node store.
+     */
+    public void setCompact(boolean compact) {
+        validate(lazy, detached, compact, maxEagerDepth);
+        this.compact = compact;
+    }
+
+    /**
+     * Set the max. depth of the elements which are loaded at once.
+     *
+     * @param maxEagerDepth Set the max. eager depth, starting at 1 for the root elements, or null to load the complete tree.
+     */
+    public void setMaxEagerDepth(Integer maxEagerDepth) {
+        validate(lazy, detached, compact, maxEagerDepth);
+        this.maxEagerDepth = maxEagerDepth;
+    }
+
+    /**
+     * Get the default load options, which load the whole node tree at once.
+     *
+     * @return Returns the default load options.
+     */
+    public static XsdLoadOptions defaults() {
+        return XsdLoadOptions.builder().build();
+    }
+
+    /**
+     * Get the load options which release the Xerces schema model once the document has been loaded.
+     *
+     * @return Returns the detached load options.
+     */
+    public static XsdLoadOptions detached() {
+        return XsdLoadOptions.builder()
+                .detached(true)
+                .build();
+    }
+
+    /**
+     * Get the load options which keep the node tree in a columnar node store once the document has been loaded.
+     *
+     * @return Returns the compact load options.
+     */
+    public static XsdLoadOptions compact() {
+        return XsdLoadOptions.builder()
+                .compact(true)
+                .build();
+    }
+
+    /**
+     * Get the load options which only load the elements up to the given depth at once.
+     *
+     * @param maxEagerDepth Set the max. depth of the elements which are loaded at once, starting at 1 for the root elements.
+     * @return Returns the depth limited load options.
+     */
+    public static XsdLoadOptions maxEagerDepth(int maxEagerDepth) {
+        var options = XsdLoadOptions.defaults();
+        options.setMaxEagerDepth(maxEagerDepth);
+        return options;
+    }
+
+    /**
+     * Get the load options which only load the inner nodes of an element when they're requested.
+     *
+     * @return Returns the lazy load options.
+     */
+    public static XsdLoadOptions lazy() {
+        return XsdLoadOptions.builder()
+                .lazy(true)
+                .build();
+    }
+
+    private static void validate(boolean lazy, boolean detached, boolean compact, Integer maxEagerDepth) {
+        Assert.isTrue(maxEagerDepth == null || maxEagerDepth > 0, "maxEagerDepth must be larger than 0");
+        Assert.isTrue(!(detached || compact) || (!lazy && maxEagerDepth == null),
+                "a detached or compact load can't be combined with lazy or maxEagerDepth");
+    }
+}
@@ -0,0 +1,19 @@
+package com.compare.xsd.comparison.model.xsd;
+
+/**
+ * Defines how thoroughly the Xerces schema loader verifies the schemas of a document.
+ */
+public enum XsdLoadProfile {
+    /**
+     * Load the schemas for a comparison only.
+     * The constraint checks which don't affect the projected structure and facets are skipped, the annotations aren't validated
+     * and only the first schema location of an imported namespace is loaded. Imported grammars are reused from the grammar cache.
+     */
+    FAST,
+    /**
+     * Verify the schemas completely.
+     * The full schema constraint checking is executed, the annotations are validated and all schema locations of an imported namespace are loaded.
+     * Imported grammars are only reused from the grammar cache when they've been verified completely before.
+     */
+    COMPLETE
+}
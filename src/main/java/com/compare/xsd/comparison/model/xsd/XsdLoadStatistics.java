@@ -0,0 +1,92 @@
+package com.compare.xsd.comparison.model.xsd;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Contains the measurements of the phases of a single XSD document load.
+ * The parse phase covers the Xerces schema parsing including the resolution of imported and included schemas,
+ * the projection phase covers the creation of the node tree from the parsed schema model.
+ */
+@Value
+@Builder
+public class XsdLoadStatistics {
+    /**
+     * The name of the loaded schema.
+     */
+    String schema;
+    /**
+     * The profile with which the schema has been loaded.
+     */
+    @Builder.Default
+    XsdLoadProfile profile = XsdLoadProfile.FAST;
+    /**
+     * The time spent on parsing the schema and resolving its imports.
+     */
+    @Builder.Default
+    Duration parseTime = Duration.ZERO;
+    /**
+     * The time spent on projecting the parsed schema into the node tree.
+     */
+    @Builder.Default
+    Duration projectionTime = Duration.ZERO;
+    /**
+     * The number of elements which have been created during the load.
+     */
+    int elements;
+    /**
+     * The number of attributes which have been created during the load.
+     */
+    int attributes;
+    /**
+     * The number of times a complex type has been expanded into inner nodes.
+     */
+    int typesExpanded;
+    /**
+     * The number of distinct type definitions which have been projected.
+     */
+    int projectedTypes;
+    /**
+     * The deepest element level which has been created, starting at 1 for the root elements.
+     */
+    int maxDepth;
+    /**
+     * The number of recursive occurrences of which the inner nodes are loaded on demand.
+     */
+    int recursiveElements;
+    /**
+     * The number of elements of which the inner nodes have been deferred by the lazy or max. eager depth load option.
+     */
+    int deferredElements;
+
+    /**
+     * Get the total time of the load.
+     *
+     * @return Returns the sum of the parse and projection time.
+     */
+    public Duration getTotalTime() {
+        return parseTime.plus(projectionTime);
+    }
+
+    /**
+     * Get the statistics as a single line of key-value pairs which can be parsed by log processing tools.
+     *
+     * @return Returns the structured representation of the statistics.
+     */
+    public String toLogString() {
+        return "schema=" + schema +
+                " profile=" + profile +
+                " parseMs=" + parseTime.toMillis() +
+                " projectionMs=" + projectionTime.toMillis() +
+                " totalMs=" + getTotalTime().toMillis() +
+                " elements=" + elements +
+                " attributes=" + attributes +
+                " typesExpanded=" + typesExpanded +
+                " projectedTypes=" + projectedTypes +
+                " maxDepth=" + maxDepth +
+                " recursiveElements=" + recursiveElements +
+                " deferredElements=" + deferredElements;
+    }
+}
@@ -112,23 +112,42 @@ public interface XsdNode {
     List<XsdNode> getNodes();
 
     /**
-     * Get the enumeration values of the node.
+     * Check if the inner nodes of this node have been loaded.
+     * A node which hasn't been loaded yet will load its inner nodes when {@link #getNodes()} is invoked.
      *
-     * @return Returns the enumeration values of the node or an empty list.
+     * @return Returns true if the inner nodes are loaded, else false.
      */
-    List<String> getEnumeration();
+    boolean isLoaded();
 
     /**
-     * Get the modifications of this node.
+     * Check if this node is a recursive occurrence of the type of one of its ancestors.
+     * The inner nodes of a recursive node repeat the inner nodes of that ancestor, so walking all inner nodes
+     * of a recursive node will never end.
      *
-     * @return Returns the modifications.
+     * @return Returns true if this node is a recursive occurrence, else false.
      */
-    Modifications getModifications();
+    boolean isRecursive();
+
+    /**
+     * Get the constraining facets of the node.
+     * Nodes which use the same simple type share the same facet set.
+     *
+     * @return Returns the facets of the node or {@link XsdFacets#EMPTY}.
+     */
+    XsdFacets getFacets();
 
     /**
-     * Set the modifications of this node.
+     * Get the enumeration values of the node.
+     *
+     * @return Returns the enumeration values of the node or an empty list.
+     */
+    List<String> getEnumeration();
+
+    /**
+     * Get the modifications of this node within a comparison (optional).
+     * The nodes of a document are never modified by a comparison, only the nodes of a comparison result have modifications.
      *
-     * @param modifications Set the modifications.
+     * @return Returns the modifications or null.
      */
-    void setModifications(Modifications modifications);
+    Modifications getModifications();
 }
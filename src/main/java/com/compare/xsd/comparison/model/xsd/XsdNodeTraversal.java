@@ -0,0 +1,256 @@
+package com.compare.xsd.comparison.model.xsd;
+
+import org.springframework.util.Assert;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Traverses a tree of nodes with an explicit stack instead of recursive method calls.
+ * The depth of a tree therefore only costs heap memory and never exhausts the stack of the calling thread,
+ * which might be a background thread with a small stack size.
+ * <p>
+ * The inner nodes of a node are provided by a function, so the traversal can be used for any view on the {@link XsdNode} model.
+ * The list of inner nodes of a node may not be modified while these inner nodes are being traversed.
+ */
+public final class XsdNodeTraversal {
+    /**
+     * The number of queued tasks of the current worker thread below which a parallel traversal splits off a node,
+     * so nodes are only split off when other worker threads are likely to be idle.
+     */
+    private static final int SPLIT_SURPLUS = 2;
+
+    private XsdNodeTraversal() {
+    }
+
+    //region Methods
+
+    /**
+     * Get the inner nodes of the given node which can be traversed without loading a recursive node.
+     * The inner nodes of a recursive node repeat the inner nodes of an ancestor, so they're only traversed
+     * when they have already been loaded.
+     *
+     * @param node Set the node to get the inner nodes of.
+     * @return Returns the inner nodes of the node or an empty list.
+     */
+    public static List<XsdNode> loadedNodes(XsdNode node) {
+        return !node.isRecursive() || node.isLoaded() ? node.getNodes() : Collections.emptyList();
+    }
+
+    /**
+     * Visit the given root node and its inner nodes in pre-order, so each node is visited before its inner nodes.
+     *
+     * @param root     Set the root node to start from.
+     * @param children Set the function which returns the inner nodes of a node.
+     * @param visitor  Set the visitor which is invoked for each node.
+     * @param <T>      The type of the nodes.
+     */
+    public static <T> void preOrder(T root, Function<? super T, ? extends List<? extends T>> children, PreOrderVisitor<? super T> visitor) {
+        Assert.notNull(root, "root cannot be null");
+        preOrderAll(Collections.singletonList(root), children, visitor);
+    }
+
+    /**
+     * Visit the given root nodes and their inner nodes in pre-order, so each node is visited before its inner nodes.
+     * The root nodes are visited at depth 0.
+     *
+     * @param roots    Set the root nodes to start from.
+     * @param children Set the function which returns the inner nodes of a node.
+     * @param visitor  Set the visitor which is invoked for each node.
+     * @param <T>      The type of the nodes.
+     */
+    public static <T> void preOrderAll(List<? extends T> roots, Function<? super T, ? extends List<? extends T>> children, PreOrderVisitor<? super T> visitor) {
+        Assert.notNull(roots, "roots cannot be null");
+        Assert.notNull(children, "children cannot be null");
+        Assert.notNull(visitor, "visitor cannot be null");
+        var stack = new ArrayDeque<Iterator<? extends T>>();
+
+        stack.push(roots.iterator());
+
+        while (!stack.isEmpty()) {
+            var iterator = stack.peek();
+
+            if (!iterator.hasNext()) {
+                stack.pop();
+                continue;
+            }
+
+            var node = iterator.next();
+
+            if (visitor.visit(node, stack.size() - 1)) {
+                var innerNodes = children.apply(node);
+
+                if (innerNodes != null && !innerNodes.isEmpty()) {
+                    stack.push(innerNodes.iterator());
+                }
+            }
+        }
+    }
+
+    /**
+     * Visit the given root node and its inner nodes in post-order, so each node is visited after all its inner nodes.
+     *
+     * @param root     Set the root node to start from.
+     * @param children Set the function which returns the inner nodes of a node.
+     * @param visitor  Set the visitor which is invoked for each node.
+     * @param <T>      The type of the nodes.
+     */
+    public static <T> void postOrder(T root, Function<? super T, ? extends List<? extends T>> children, PostOrderVisitor<? super T> visitor) {
+        Assert.notNull(root, "root cannot be null");
+        Assert.notNull(children, "children cannot be null");
+        Assert.notNull(visitor, "visitor cannot be null");
+        var nodes = new ArrayDeque<T>();
+        var stack = new ArrayDeque<Iterator<? extends T>>();
+
+        nodes.push(root);
+        stack.push(iterator(children.apply(root)));
+
+        while (!nodes.isEmpty()) {
+            var iterator = stack.peek();
+
+            if (iterator.hasNext()) {
+                T node = iterator.next();
+
+                nodes.push(node);
+                stack.push(iterator(children.apply(node)));
+            } else {
+                stack.pop();
+                visitor.visit(nodes.pop(), nodes.size());
+            }
+        }
+    }
+
+    /**
+     * Visit the given root node and its inner nodes in pre-order on the threads of the given pool.
+     * Each node is still visited before its inner nodes, but nodes of which neither is an ancestor of the other might be visited concurrently.
+     * The visitor and the function which returns the inner nodes may therefore only modify the node which they're invoked for.
+     * <p>
+     * Each worker thread visits its nodes in the same order as {@link #preOrder(Object, Function, PreOrderVisitor)},
+     * while the nodes which are closest to the root are split off to idle worker threads. Only the nodes up to the given depth are split off,
+     * the inner nodes below that depth are always visited by the thread which visited their ancestor at that depth.
+     *
+     * @param root          Set the root node to start from.
+     * @param children      Set the function which returns the inner nodes of a visited node, which needs to be thread-safe.
+     * @param visitor       Set the visitor which is invoked for each node, which needs to be thread-safe.
+     * @param pool          Set the pool which executes the traversal.
+     * @param maxSplitDepth Set the max. depth of the nodes which can be visited by another thread, starting at 1 for the inner nodes of the root.
+     * @param <T>           The type of the nodes.
+     */
+    public static <T> void preOrder(T root, Function<? super T, ? extends List<? extends T>> children, PreOrderVisitor<? super T> visitor,
+                                    ForkJoinPool pool, int maxSplitDepth) {
+        Assert.notNull(root, "root cannot be null");
+        Assert.notNull(children, "children cannot be null");
+        Assert.notNull(visitor, "visitor cannot be null");
+        Assert.notNull(pool, "pool cannot be null");
+        Assert.isTrue(maxSplitDepth >= 0, "maxSplitDepth cannot be negative");
+
+        pool.invoke(new PreOrderTask<T>(new DepthNode<>(root, 0), children, visitor, maxSplitDepth));
+    }
+
+    //endregion
+
+    //region Functions
+
+    private static <T> Iterator<? extends T> iterator(List<? extends T> nodes) {
+        return nodes != null ? nodes.iterator() : Collections.emptyIterator();
+    }
+
+    //endregion
+
+    private static final class DepthNode<T> {
+        private final T node;
+        private final int depth;
+
+        private DepthNode(T node, int depth) {
+            this.node = node;
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * Task of a parallel pre-order traversal, which visits the nodes of its own stack
+     * and splits the node at the bottom of the stack off to a new task while other worker threads are idle.
+     */
+    private static final class PreOrderTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ArrayDeque<DepthNode<T>> stack = new ArrayDeque<>();
+        private final Function<? super T, ? extends List<? extends T>> children;
+        private final PreOrderVisitor<? super T> visitor;
+        private final int maxSplitDepth;
+
+        private PreOrderTask(DepthNode<T> node, Function<? super T, ? extends List<? extends T>> children, PreOrderVisitor<? super T> visitor,
+                             int maxSplitDepth) {
+            this.stack.push(node);
+            this.children = children;
+            this.visitor = visitor;
+            this.maxSplitDepth = maxSplitDepth;
+        }
+
+        @Override
+        protected void compute() {
+            var forkedTasks = new ArrayList<PreOrderTask<T>>();
+
+            while (!stack.isEmpty()) {
+                // the node at the bottom of the stack is the closest to the root, so it's most likely the largest subtree to split off
+                if (stack.size() > 1 && stack.peekLast().depth <= maxSplitDepth && getSurplusQueuedTaskCount() < SPLIT_SURPLUS) {
+                    var task = new PreOrderTask<>(stack.pollLast(), children, visitor, maxSplitDepth);
+
+                    task.fork();
+                    forkedTasks.add(task);
+                    continue;
+                }
+
+                var entry = stack.pop();
+
+                if (visitor.visit(entry.node, entry.depth)) {
+                    var innerNodes = children.apply(entry.node);
+
+                    // the inner nodes are pushed in reverse, so the first inner node is visited first
+                    for (int i = innerNodes != null ? innerNodes.size() - 1 : -1; i >= 0; i--) {
+                        stack.push(new DepthNode<>(innerNodes.get(i), entry.depth + 1));
+                    }
+                }
+            }
+
+            for (PreOrderTask<T> task : forkedTasks) {
+                task.join();
+            }
+        }
+    }
+
+    /**
+     * Visitor of a pre-order traversal.
+     *
+     * @param <T> The type of the nodes.
+     */
+    @FunctionalInterface
+    public interface PreOrderVisitor<T> {
+        /**
+         * Visit the given node.
+         *
+         * @param node  The node which is being visited.
+         * @param depth The depth of the node, starting at 0 for the root nodes.
+         * @return Returns true if the inner nodes of the node should be visited, else false.
+         */
+        boolean visit(T node, int depth);
+    }
+
+    /**
+     * Visitor of a post-order traversal.
+     *
+     * @param <T> The type of the nodes.
+     */
+    @FunctionalInterface
+    public interface PostOrderVisitor<T> {
+        /**
+         * Visit the given node after all its inner nodes have been visited.
+         *
+         * @param node  The node which is being visited.
+         * @param depth The depth of the node, starting at 0 for the root node.
+         */
+        void visit(T node, int depth);
+    }
+}
@@ -3,10 +3,9 @@ package com.compare.xsd.comparison.model.xsd.impl;
 import com.compare.xsd.comparison.model.xsd.NodeNotFoundException;
 import com.compare.xsd.comparison.model.xsd.XsdElementNode;
 import com.compare.xsd.comparison.model.xsd.XsdNode;
-import lombok.AccessLevel;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
-import lombok.NoArgsConstructor;
+import com.compare.xsd.comparison.model.xsd.XsdNodeTraversal;
+import lombok.*;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.xerces.dom.DocumentImpl;
 import org.springframework.util.Assert;
 import org.w3c.dom.Comment;
@@ -16,15 +15,38 @@ import org.w3c.dom.Element;
 import org.w3c.dom.ls.DOMImplementationLS;
 import org.w3c.dom.ls.LSSerializer;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
-@EqualsAndHashCode(callSuper = true)
+@EqualsAndHashCode(callSuper = true, doNotUseGetters = true)
+@ToString(doNotUseGetters = true)
 @Data
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public abstract class AbstractXsdElementNode extends AbstractXsdNode implements XsdElementNode {
     protected final List<XsdElement> elements = new ArrayList<>();
 
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final Map<String, XsdElement> elementIndex = new HashMap<>();
+
+    /**
+     * The cached view of the inner nodes, which is rebuilt when the inner nodes are modified.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<XsdNode> nodesView;
+    /**
+     * The structural hash of this node and its inner nodes, see {@link XsdStructureHash}.
+     * This hash is computed when the document is loaded and is {@link XsdStructureHash#UNKNOWN} when not all inner nodes have been loaded.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private long structureHash;
+
     //region Constructors
 
     /**
@@ -40,9 +62,30 @@ public abstract class AbstractXsdElementNode extends AbstractXsdNode implements
 
     //region Getters & Setters
 
+    /**
+     * Get the child elements of this node.
+     * The child elements are loaded if they haven't been loaded yet.
+     *
+     * @return Returns the child elements.
+     */
+    public List<XsdElement> getElements() {
+        loadNodes();
+        return elements;
+    }
+
+    /**
+     * Get the inner nodes of this node.
+     * The returned list is a cached read-only view which is only rebuilt when the inner nodes of this node are modified.
+     *
+     * @return Returns the inner nodes of this node.
+     */
     @Override
     public List<XsdNode> getNodes() {
-        return new ArrayList<>(elements);
+        if (nodesView == null) {
+            nodesView = Collections.unmodifiableList(createNodes());
+        }
+
+        return nodesView;
     }
 
     @Override
@@ -56,7 +99,16 @@ public abstract class AbstractXsdElementNode extends AbstractXsdNode implements
         domConfig.setParameter("format-pretty-print", Boolean.TRUE);
         domConfig.setParameter("element-content-whitespace", Boolean.TRUE);
 
-        createXml(xmlDoc, null);
+        var xmlElements = new ArrayList<Element>();
+
+        // the xml element of each node is appended to the xml element of its parent, which is the previous element in the path
+        XsdNodeTraversal.preOrder(this, AbstractXsdElementNode::getXmlElements, (node, depth) -> {
+            var xmlElement = node.createXml(xmlDoc, depth > 0 ? xmlElements.get(depth - 1) : null);
+
+            xmlElements.subList(depth, xmlElements.size()).clear();
+            xmlElements.add(xmlElement);
+            return true;
+        });
 
         return serializer.writeToString(xmlDoc);
     }
@@ -68,9 +120,8 @@ public abstract class AbstractXsdElementNode extends AbstractXsdNode implements
     @Override
     public XsdElementNode getElementByName(String name) throws NodeNotFoundException {
         Assert.notNull(name, "name cannot be null");
-        return elements.stream()
-                .filter(e -> e.getName().equalsIgnoreCase(name))
-                .findFirst()
+
+        return Optional.ofNullable(lookupElement(name))
                 .orElseThrow(() -> new NodeNotFoundException(name));
     }
 
@@ -88,30 +139,99 @@ public abstract class AbstractXsdElementNode extends AbstractXsdNode implements
     public XsdElement findElement(String name) throws NodeNotFoundException {
         Assert.hasText(name, "name cannot be empty");
 
-        return elements.stream()
-                .filter(e -> e.getName().equalsIgnoreCase(name))
-                .findFirst()
+        return Optional.ofNullable(lookupElement(name))
                 .orElseThrow(() -> new NodeNotFoundException(name));
     }
 
     /**
-     * Insert the given element at the given index in this node.
+     * Check if this node and its inner nodes have the same structure as the given node and its inner nodes.
+     * Nodes with the same structure have identical properties, attributes and child elements, so comparing them never results in modifications.
+     * The structure is only known for nodes of which all inner nodes have been loaded together with the document,
+     * for any other node this returns false.
      *
-     * @param index   Set the index to add the element at.
-     * @param element Set the element to add at the given index.
+     * @param node Set the node to check against.
+     * @return Returns true if both nodes are known to have the same structure, else false.
      */
-    public void insertElementAt(int index, XsdElement element) {
-        Assert.notNull(element, "element cannot be null");
+    public boolean hasSameStructure(AbstractXsdElementNode node) {
+        Assert.notNull(node, "node cannot be null");
+        return structureHash != XsdStructureHash.UNKNOWN && structureHash == node.structureHash;
+    }
 
-        this.elements.add(index, element);
+    /**
+     * Get the fingerprint of the structure of this node and its inner nodes.
+     * Nodes with the same structure have the same fingerprint, see {@link #hasSameStructure(AbstractXsdElementNode)}.
+     *
+     * @return Returns the fingerprint of the structure or empty when the structure isn't known.
+     */
+    public OptionalLong getStructureFingerprint() {
+        return structureHash != XsdStructureHash.UNKNOWN ? OptionalLong.of(structureHash) : OptionalLong.empty();
     }
 
     //endregion
 
     //region Functions
 
+    /**
+     * Load the inner nodes of this node if they haven't been loaded yet.
+     * Nodes are loaded by default, so this doesn't do anything unless the node supports loading on demand.
+     */
+    protected void loadNodes() {
+        //no-op
+    }
+
+    /**
+     * Look up the direct child element by the given name.
+     * The child elements are loaded if they haven't been loaded yet.
+     *
+     * @param name Set the name of the element.
+     * @return Returns the found element, or null if none of the child elements has the given name.
+     */
+    protected XsdElement lookupElement(String name) {
+        loadNodes();
+        return elementIndex.get(toIndexKey(name));
+    }
+
+    /**
+     * Create the list of inner nodes of this node.
+     *
+     * @return Returns a new list containing the inner nodes.
+     */
+    protected List<XsdNode> createNodes() {
+        return new ArrayList<>(getElements());
+    }
+
+    /**
+     * Invalidate the cached view of the inner nodes, which needs to be done each time the inner nodes are modified.
+     */
+    protected void invalidateNodes() {
+        this.nodesView = null;
+    }
+
+    /**
+     * Add the given element at the end of the child elements of this node.
+     *
+     * @param element Set the element to add.
+     */
+    protected void addElement(XsdElement element) {
+        this.elements.add(element);
+        indexElement(element);
+        invalidateNodes();
+    }
+
+    /**
+     * Get the lookup key of the given node name.
+     * Node names are matched case insensitive, so the key is the lower case name.
+     *
+     * @param name Set the node name.
+     * @return Returns the lookup key for the name.
+     */
+    static String toIndexKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Get the XML element representing this XSD node.
+     * The XML elements of the child elements are created separately by {@link #getXml()}.
      *
      * @param xmlDoc Set the document.
      * @param parent Set the parent of this element.
@@ -134,13 +254,14 @@ public abstract class AbstractXsdElementNode extends AbstractXsdNode implements
             xmlDoc.insertBefore(comment, element);
         }
 
-        for (AbstractXsdElementNode childElement : getElements()) {
-            childElement.createXml(xmlDoc, element);
-        }
-
         return element;
     }
 
+    private List<XsdElement> getXmlElements() {
+        // the inner nodes of a recursive node which hasn't been loaded would repeat endlessly
+        return !isRecursive() || isLoaded() ? getElements() : Collections.emptyList();
+    }
+
     private XsdDocument getDocument() {
         AbstractXsdNode parent = getParent();
 
@@ -153,5 +274,13 @@ public abstract class AbstractXsdElementNode extends AbstractXsdNode implements
         return (XsdDocument) parent;
     }
 
+    private void indexElement(XsdElement element) {
+        // nodes without a name can never be looked up
+        // the first element with a given name wins, which is in line with the previous linear search
+        if (StringUtils.isNotEmpty(element.getName())) {
+            elementIndex.putIfAbsent(toIndexKey(element.getName()), element);
+        }
+    }
+
     //endregion
 }
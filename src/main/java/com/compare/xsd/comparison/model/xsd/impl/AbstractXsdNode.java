@@ -1,48 +1,42 @@
 package com.compare.xsd.comparison.model.xsd.impl;
 
 import com.compare.xsd.comparison.model.Modifications;
+import com.compare.xsd.comparison.model.xsd.XsdFacets;
 import com.compare.xsd.comparison.model.xsd.XsdNode;
 import javafx.scene.image.Image;
-import lombok.AccessLevel;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import lombok.*;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.xerces.xs.XSFacet;
-import org.apache.xerces.xs.XSMultiValueFacet;
-import org.apache.xerces.xs.XSSimpleTypeDefinition;
-import org.apache.xerces.xs.XSTypeDefinition;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * Abstract implementation of the {@link XsdNode}.
  */
-@Slf4j
 @Data
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public abstract class AbstractXsdNode implements XsdNode {
-    private static final String SCHEMA_DEFINITION = "http://www.w3.org/2001/XMLSchema";
     private static final String ICON_DIRECTORY = "/images/";
 
     protected String name;
     protected String namespace;
     protected String type;
     protected String fixedValue;
-    protected String pattern;
-    protected String whitespace;
     protected Integer minOccurrence;
     protected Integer maxOccurrence;
-    protected Integer length;
-    protected Integer minLength;
-    protected Integer maxLength;
-    protected List<String> enumeration = new ArrayList<>();
+    protected XsdFacets facets = XsdFacets.EMPTY;
 
     protected AbstractXsdNode parent;
-    protected Modifications modifications;
+    /**
+     * The inner nodes of the parent to which this node belongs, when this node has been created from a node store.
+     * The parent only holds its inner nodes weakly, so this keeps them alive for as long as this node is in use.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    XsdNodeStore.InnerNodes siblingNodes;
 
     //region Constructors
 
@@ -64,40 +58,71 @@ public abstract class AbstractXsdNode implements XsdNode {
         return minOccurrence + ".." + (maxOccurrence != null ? maxOccurrence : "*");
     }
 
+    @Override
+    public String getPattern() {
+        return facets.getPattern();
+    }
+
+    @Override
+    public String getWhitespace() {
+        return facets.getWhitespace();
+    }
+
+    @Override
+    public Integer getLength() {
+        return facets.getLength();
+    }
+
+    @Override
+    public Integer getMinLength() {
+        return facets.getMinLength();
+    }
+
+    @Override
+    public Integer getMaxLength() {
+        return facets.getMaxLength();
+    }
+
+    @Override
+    public List<String> getEnumeration() {
+        return facets.getEnumeration();
+    }
+
     @Override
     public Image getModificationColor() {
-        if (modifications != null) {
-            switch (modifications.getType()) {
-                case ADDED:
-                    return loadResourceIcon("green.png");
-                case REMOVED:
-                    return loadResourceIcon("red.png");
-                case MODIFIED:
-                    return loadResourceIcon("orange.png");
-                case MOVED:
-                    return loadResourceIcon("yellow.png");
-                default:
-                    return null;
-            }
-        }
+        return null;
+    }
 
+    @Override
+    public Modifications getModifications() {
         return null;
     }
 
+    @Override
+    public boolean isLoaded() {
+        return true;
+    }
+
+    @Override
+    public boolean isRecursive() {
+        return false;
+    }
+
     @Override
     public String getXPath() {
-        String xpath = "";
-        String multiplicity = "";
+        var path = new ArrayDeque<AbstractXsdNode>();
+        var xpath = new StringBuilder();
 
-        if (parent != null) {
-            xpath = parent.getXPath() + "/";
+        // the ancestors are walked iteratively, so the depth of the node doesn't cost any stack
+        for (AbstractXsdNode node = this; node != null; node = node.getParent()) {
+            path.push(node);
         }
 
-        if (maxOccurrence == null || maxOccurrence > 1) {
-            multiplicity = "[]";
+        for (AbstractXsdNode node : path) {
+            xpath.append(node.getXPathSegment());
         }
 
-        return xpath + "*:" + getName() + multiplicity;
+        return xpath.toString();
     }
 
     //endregion
@@ -151,80 +176,55 @@ public abstract class AbstractXsdNode implements XsdNode {
     //region Functions
 
     /**
-     * Load the base type of the definition and store the value in {@link #type}.
+     * Copy the properties of the given node into this node.
+     * The parent and the inner nodes are not copied.
      *
-     * @param typeDefinition Set the type definition of the node.
+     * @param source Set the node to copy the properties from.
      */
-    protected void loadType(XSTypeDefinition typeDefinition) {
-        while (typeDefinition.getBaseType() != null && !isTypeDefinitionDefaultXsdSchemaDefinition(typeDefinition)) {
-            typeDefinition = typeDefinition.getBaseType();
-        }
-
-        this.type = typeDefinition.getName();
+    protected void copyProperties(AbstractXsdNode source) {
+        this.name = source.name;
+        this.namespace = source.namespace;
+        this.type = source.type;
+        this.fixedValue = source.fixedValue;
+        this.minOccurrence = source.minOccurrence;
+        this.maxOccurrence = source.maxOccurrence;
+        this.facets = source.facets;
     }
 
     /**
-     * Load the given resource icon.
+     * Load the projected type information of the given template into this node.
      *
-     * @param name Set the name of the icon to load.
-     * @return Returns the load icon.
+     * @param template Set the type template of this node.
      */
-    protected Image loadResourceIcon(String name) {
-        return new Image(getClass().getResourceAsStream(ICON_DIRECTORY + name));
+    void loadTypeTemplate(XsdTypeTemplate template) {
+        this.type = template.getType();
+        // the facets are shared with all nodes which use the same simple type
+        this.facets = template.getFacets();
     }
 
     /**
-     * Load the simple type definition for this node.
+     * Get the segment of this node within the xpath, which is appended to the xpath of the parent.
      *
-     * @param simpleType Set the simple type definition to load.
+     * @return Returns the xpath segment of this node.
      */
-    protected void loadSimpleType(XSSimpleTypeDefinition simpleType) {
-        loadType(simpleType);
-
-        for (Object facetObject : simpleType.getFacets()) {
-            var facet = (XSFacet) facetObject;
-
-            switch (facet.getFacetKind()) {
-                case XSSimpleTypeDefinition.FACET_LENGTH:
-                    this.length = Integer.valueOf(facet.getLexicalFacetValue());
-                    break;
-                case XSSimpleTypeDefinition.FACET_MINLENGTH:
-                    this.minLength = Integer.valueOf(facet.getLexicalFacetValue());
-                    break;
-                case XSSimpleTypeDefinition.FACET_MAXLENGTH:
-                    this.maxLength = Integer.valueOf(facet.getLexicalFacetValue());
-                    break;
-                case XSSimpleTypeDefinition.FACET_PATTERN:
-                    this.pattern = facet.getLexicalFacetValue();
-                    break;
-                case XSSimpleTypeDefinition.FACET_WHITESPACE:
-                    this.whitespace = facet.getLexicalFacetValue();
-                    break;
-                default:
-                    log.warn("Facet type " + facet.getFacetKind() + " is not implemented at the moment");
-                    break;
-            }
-        }
+    protected String getXPathSegment() {
+        String multiplicity = "";
 
-        for (Object facetObject : simpleType.getMultiValueFacets()) {
-            var facet = (XSMultiValueFacet) facetObject;
-
-            switch (facet.getFacetKind()) {
-                case XSSimpleTypeDefinition.FACET_ENUMERATION:
-                    this.enumeration.addAll(facet.getLexicalFacetValues());
-                    break;
-                case XSSimpleTypeDefinition.FACET_PATTERN:
-                    this.pattern = String.join(", ", facet.getLexicalFacetValues());
-                    break;
-                default:
-                    log.warn("Multi facet value type " + facet.getFacetKind() + " is not implemented at the moment");
-                    break;
-            }
+        if (maxOccurrence == null || maxOccurrence > 1) {
+            multiplicity = "[]";
         }
+
+        return (parent != null ? "/" : "") + "*:" + getName() + multiplicity;
     }
 
-    private boolean isTypeDefinitionDefaultXsdSchemaDefinition(XSTypeDefinition typeDefinition) {
-        return Objects.equals(typeDefinition.getNamespace(), SCHEMA_DEFINITION);
+    /**
+     * Load the given resource icon.
+     *
+     * @param name Set the name of the icon to load.
+     * @return Returns the load icon.
+     */
+    protected Image loadResourceIcon(String name) {
+        return new Image(getClass().getResourceAsStream(ICON_DIRECTORY + name));
     }
 
     //endregion
@@ -0,0 +1,187 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.xerces.dom.DOMInputImpl;
+import org.apache.xerces.impl.XMLEntityManager;
+import org.apache.xerces.util.URI;
+import org.springframework.util.Assert;
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSResourceResolver;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * A zip or jar archive which contains a bundle of XSD schemas.
+ * The schemas are read directly from the archive through a zip file system, so the archive never needs to be extracted.
+ * Imports and includes with a location relative to a schema in the archive are resolved within the archive,
+ * all other locations are left to the next resolver.
+ * <p>
+ * The schemas within the archive are identified by jar URIs, such as {@code jar:file:/bundle.zip!/common/types.xsd}.
+ * The archive needs to be closed once the schemas have been loaded.
+ */
+@Slf4j
+public class XsdArchive implements LSResourceResolver, Closeable {
+    private static final String ARCHIVE_SCHEME = "jar:";
+    private static final String ENTRY_SEPARATOR = "!/";
+    private static final String EXTENSION = ".xsd";
+
+    /**
+     * The archive file.
+     */
+    @Getter
+    private final File file;
+    private final FileSystem fileSystem;
+    private final String systemIdPrefix;
+
+    //region Constructors
+
+    /**
+     * Initialize a new instance of {@link XsdArchive} by opening the given archive file.
+     *
+     * @param file Set the zip or jar archive to open.
+     * @throws IOException Is thrown when the file couldn't be opened as a zip archive.
+     */
+    public XsdArchive(File file) throws IOException {
+        Assert.notNull(file, "file cannot be null");
+        this.file = file;
+        this.fileSystem = FileSystems.newFileSystem(file.toPath(), (ClassLoader) null);
+        this.systemIdPrefix = ARCHIVE_SCHEME + file.getAbsoluteFile().toURI() + ENTRY_SEPARATOR;
+    }
+
+    //endregion
+
+    //region Getters & Setters
+
+    /**
+     * Get the paths of all XSD schemas within the archive.
+     *
+     * @return Returns the sorted entry paths of the schemas, relative to the root of the archive.
+     * @throws IOException Is thrown when the archive couldn't be read.
+     */
+    public List<String> getEntries() throws IOException {
+        var root = fileSystem.getPath("/");
+
+        try (var paths = Files.walk(root)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(e -> e.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(EXTENSION))
+                    .map(e -> root.relativize(e).toString())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Check if the archive contains the given entry.
+     *
+     * @param entry Set the path of the entry, relative to the root of the archive.
+     * @return Returns true if the entry exists as a file within the archive, else false.
+     */
+    public boolean contains(String entry) {
+        Assert.notNull(entry, "entry cannot be null");
+        return Files.isRegularFile(toPath(entry));
+    }
+
+    /**
+     * Get the system identifier of the given entry, which is used as base location for the imports of the entry.
+     *
+     * @param entry Set the path of the entry, relative to the root of the archive.
+     * @return Returns the jar URI of the entry.
+     */
+    public String getSystemId(String entry) {
+        Assert.notNull(entry, "entry cannot be null");
+
+        try {
+            return systemIdPrefix + new java.net.URI(null, null, toPath(entry).toString().substring(1), null).getRawPath();
+        } catch (URISyntaxException ex) {
+            throw new IllegalArgumentException("Invalid archive entry " + entry, ex);
+        }
+    }
+
+    //endregion
+
+    //region LSResourceResolver
+
+    @Override
+    public LSInput resolveResource(String type, String namespaceURI, String publicId, String systemId, String baseURI) {
+        if (systemId == null) {
+            return null;
+        }
+
+        var entry = toEntry(systemId, baseURI);
+
+        if (entry == null || !Files.isRegularFile(entry)) {
+            return null;
+        }
+
+        try {
+            log.trace("Reading schema {} from archive {}", entry, file);
+            return new DOMInputImpl(publicId, getSystemId(entry.toString()), baseURI, new ByteArrayInputStream(Files.readAllBytes(entry)), null);
+        } catch (IOException ex) {
+            // the schema loader will report the unresolvable location while trying to read it itself
+            log.warn("Unable to read schema {} from archive {}, {}", entry, file, ex.getMessage());
+            return null;
+        }
+    }
+
+    //endregion
+
+    //region Methods
+
+    /**
+     * Open the given entry for reading.
+     *
+     * @param entry Set the path of the entry, relative to the root of the archive.
+     * @return Returns the input stream of the entry.
+     * @throws IOException Is thrown when the entry doesn't exist or couldn't be read.
+     */
+    public InputStream open(String entry) throws IOException {
+        Assert.notNull(entry, "entry cannot be null");
+        var path = toPath(entry);
+
+        if (!Files.isRegularFile(path)) {
+            throw new FileNotFoundException(entry + " in " + file.getAbsolutePath());
+        }
+
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileSystem.close();
+    }
+
+    //endregion
+
+    //region Functions
+
+    private Path toPath(String entry) {
+        return fileSystem.getPath("/").resolve(entry).normalize();
+    }
+
+    private Path toEntry(String systemId, String baseURI) {
+        try {
+            var location = XMLEntityManager.expandSystemId(systemId, baseURI, false);
+
+            if (location == null || !location.startsWith(systemIdPrefix)) {
+                return null;
+            }
+
+            return toPath(new java.net.URI(location.substring(systemIdPrefix.length())).getPath());
+        } catch (URI.MalformedURIException | URISyntaxException ex) {
+            log.trace("Unable to expand schema location " + systemId, ex);
+            return null;
+        }
+    }
+
+    //endregion
+}
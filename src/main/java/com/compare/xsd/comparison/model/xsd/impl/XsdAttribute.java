@@ -3,8 +3,10 @@ package com.compare.xsd.comparison.model.xsd.impl;
 import com.compare.xsd.comparison.model.xsd.XsdAttributeNode;
 import com.compare.xsd.comparison.model.xsd.XsdNode;
 import javafx.scene.image.Image;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Setter;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.xerces.impl.xs.XSAttributeUseImpl;
@@ -17,7 +19,12 @@ import java.util.List;
 @EqualsAndHashCode(callSuper = true)
 @Data
 public class XsdAttribute extends AbstractXsdNode implements XsdAttributeNode {
-    private final XSAttributeUseImpl attribute;
+    /**
+     * The Xerces attribute use of this attribute.
+     * This reference is released when the document is loaded in detached mode.
+     */
+    @Setter(AccessLevel.NONE)
+    private XSAttributeUseImpl attribute;
 
     //region Constructors
 
@@ -28,21 +35,46 @@ public class XsdAttribute extends AbstractXsdNode implements XsdAttributeNode {
      * @param parent    Set the parent element of this node.
      */
     public XsdAttribute(XSAttributeUseImpl attribute, XsdElement parent) {
+        this(attribute, parent, new XsdLoadContext());
+    }
+
+    /**
+     * Initialize a new instance of {@link XsdAttribute}.
+     *
+     * @param attribute   Set the attribute.
+     * @param parent      Set the parent element of this node.
+     * @param loadContext Set the context of the document load.
+     */
+    XsdAttribute(XSAttributeUseImpl attribute, XsdElement parent, XsdLoadContext loadContext) {
         super(parent);
         Assert.notNull(attribute, "attribute cannot be null");
         this.attribute = attribute;
         this.maxOccurrence = 1;
 
-        init();
+        init(loadContext);
     }
 
     /**
-     * Initialize a new instance of {@link XsdAttribute}.
-     * This constructor should only be used by {@link XsdEmptyAttributeNode}.
+     * Initialize a new instance of {@link XsdAttribute} which is restored from the document cache.
+     * The properties of the attribute are populated by {@link XsdDocumentCodec}.
+     *
+     * @param parent Set the parent element of this node.
      */
-    protected XsdAttribute() {
+    XsdAttribute(XsdElement parent) {
+        super(parent);
         this.attribute = null;
-        this.name = "";
+    }
+
+    /**
+     * Initialize a new instance of {@link XsdAttribute} which is a copy of the given attribute.
+     *
+     * @param parent Set the parent element of this node.
+     * @param source Set the attribute to copy.
+     */
+    XsdAttribute(XsdElement parent, XsdAttribute source) {
+        super(parent);
+        copyProperties(source);
+        this.attribute = source.attribute;
     }
 
     //endregion
@@ -59,13 +91,6 @@ public class XsdAttribute extends AbstractXsdNode implements XsdAttributeNode {
         return new ArrayList<>();
     }
 
-    @Override
-    public String getXPath() {
-        String xpath = parent.getXPath();
-
-        return xpath + "[@" + getName() + "]";
-    }
-
     @Override
     public String getXml() {
         return null;
@@ -92,14 +117,27 @@ public class XsdAttribute extends AbstractXsdNode implements XsdAttributeNode {
 
     //region Functions
 
-    private void init() {
+    /**
+     * Release the reference to the Xerces schema model.
+     */
+    void detach() {
+        this.attribute = null;
+    }
+
+    @Override
+    protected String getXPathSegment() {
+        return "[@" + getName() + "]";
+    }
+
+    private void init(XsdLoadContext loadContext) {
         var declaration = this.attribute.getAttrDeclaration();
 
-        this.name = declaration.getName();
+        this.name = loadContext.intern(declaration.getName());
         this.minOccurrence = attribute.getRequired() ? 1 : 0;
 
         loadNamespace(declaration);
-        loadSimpleType(declaration.getTypeDefinition());
+        this.namespace = loadContext.intern(this.namespace);
+        loadTypeTemplate(loadContext.getTypeTemplate(declaration.getTypeDefinition()));
     }
 
     private void loadNamespace(XSAttributeDeclaration declaration) {
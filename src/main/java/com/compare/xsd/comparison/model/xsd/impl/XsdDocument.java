@@ -2,22 +2,50 @@ package com.compare.xsd.comparison.model.xsd.impl;
 
 import com.compare.xsd.comparison.model.xsd.NodeNotFoundException;
 import com.compare.xsd.comparison.model.xsd.XsdAttributeNode;
+import com.compare.xsd.comparison.model.xsd.XsdLoadMonitor;
+import com.compare.xsd.comparison.model.xsd.XsdLoadOptions;
+import com.compare.xsd.comparison.model.xsd.XsdLoadStatistics;
+import com.compare.xsd.comparison.model.xsd.XsdNodeTraversal;
 import javafx.scene.image.Image;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
+import lombok.*;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.xerces.impl.xs.XSElementDecl;
-import org.apache.xerces.impl.xs.XSLoaderImpl;
 import org.apache.xerces.xs.XSConstants;
+import org.apache.xerces.xs.XSElementDeclaration;
+import org.apache.xerces.xs.XSModel;
 import org.apache.xerces.xs.XSObject;
 import org.springframework.util.Assert;
 
 import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.function.Supplier;
 
+@Slf4j
 @EqualsAndHashCode(callSuper = true)
 @Data
 public class XsdDocument extends AbstractXsdElementNode {
     private final File file;
 
+    /**
+     * The statistics of the load of this document.
+     * These statistics are only present when the document has been loaded from its schema file, not when it's restored from the document cache.
+     */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private XsdLoadStatistics loadStatistics;
+    /**
+     * Indicates if the recursive elements of this document copy their inner nodes from an ancestor element when they're requested.
+     * Loading the inner nodes of such an element reads the inner nodes of other elements within the same root element,
+     * so the subtrees of a root element can't be loaded by separate threads.
+     */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean copyingRecursiveElements;
+
     //region Constructors
 
     /**
@@ -26,10 +54,78 @@ public class XsdDocument extends AbstractXsdElementNode {
      * @param file Set the XSD file to load.
      */
     public XsdDocument(File file) {
+        this(file, XsdLoadOptions.defaults());
+    }
+
+    /**
+     * Initialize a new instance of {@link XsdDocument}.
+     *
+     * @param file    Set the XSD file to load.
+     * @param options Set the options which define how the file is loaded.
+     */
+    public XsdDocument(File file, XsdLoadOptions options) {
+        this(file, options, new XsdGrammarCache());
+    }
+
+    /**
+     * Initialize a new instance of {@link XsdDocument}.
+     *
+     * @param file         Set the XSD file to load.
+     * @param options      Set the options which define how the file is loaded.
+     * @param grammarCache Set the cache of the imported schema grammars.
+     */
+    public XsdDocument(File file, XsdLoadOptions options, XsdGrammarCache grammarCache) {
+        this(file, options, grammarCache, null);
+    }
+
+    /**
+     * Initialize a new instance of {@link XsdDocument}.
+     *
+     * @param file         Set the XSD file to load.
+     * @param options      Set the options which define how the file is loaded.
+     * @param grammarCache Set the cache of the imported schema grammars.
+     * @param monitor      Set the monitor which receives the progress of the load and can cancel it (optional).
+     */
+    public XsdDocument(File file, XsdLoadOptions options, XsdGrammarCache grammarCache, XsdLoadMonitor monitor) {
         Assert.notNull(file, "file cannot be null");
+        Assert.notNull(options, "options cannot be null");
+        Assert.notNull(grammarCache, "grammarCache cannot be null");
         this.file = file;
 
-        init();
+        init(options, () -> grammarCache.load(file, options.getProfile()), monitor);
+    }
+
+    /**
+     * Initialize a new instance of {@link XsdDocument} which is loaded from an entry within an XSD archive.
+     * The file of the document refers to the entry within the archive, it doesn't exist on disk.
+     *
+     * @param archive      Set the archive which contains the XSD entry.
+     * @param entry        Set the path of the XSD entry within the archive.
+     * @param options      Set the options which define how the entry is loaded.
+     * @param grammarCache Set the cache of the imported schema grammars.
+     * @param monitor      Set the monitor which receives the progress of the load and can cancel it (optional).
+     */
+    public XsdDocument(XsdArchive archive, String entry, XsdLoadOptions options, XsdGrammarCache grammarCache, XsdLoadMonitor monitor) {
+        Assert.notNull(archive, "archive cannot be null");
+        Assert.hasText(entry, "entry cannot be empty");
+        Assert.notNull(options, "options cannot be null");
+        Assert.notNull(grammarCache, "grammarCache cannot be null");
+        this.file = new File(archive.getFile(), entry);
+
+        init(options, () -> grammarCache.load(archive, entry, options.getProfile()), monitor);
+    }
+
+    /**
+     * Initialize a new instance of {@link XsdDocument} which is restored from the document cache.
+     * The inner nodes of the document are populated by {@link XsdDocumentCodec}.
+     *
+     * @param file Set the XSD file of the document.
+     * @param name Set the name of the document.
+     */
+    XsdDocument(File file, String name) {
+        Assert.notNull(file, "file cannot be null");
+        this.file = file;
+        this.name = name;
     }
 
     //endregion
@@ -51,16 +147,6 @@ public class XsdDocument extends AbstractXsdElementNode {
         return loadResourceIcon("file.png");
     }
 
-    @Override
-    public Image getModificationColor() {
-        return null;
-    }
-
-    @Override
-    public String getXPath() {
-        return "//";
-    }
-
     //endregion
 
     //region XsdElementNode
@@ -74,13 +160,25 @@ public class XsdDocument extends AbstractXsdElementNode {
 
     //region Functions
 
+    @Override
+    protected String getXPathSegment() {
+        return "//";
+    }
+
     /**
      * Initialize the {@link XsdDocument} by loading the given file.
+     *
+     * @param options     Set the options of the load.
+     * @param modelLoader Set the loader which parses the schema model of the file.
+     * @param monitor     Set the monitor of the load (optional).
      */
-    private void init() {
-        var loader = new XSLoaderImpl();
-        var model = loader.loadURI(file.getAbsolutePath());
+    private void init(XsdLoadOptions options, Supplier<XSModel> modelLoader, XsdLoadMonitor monitor) {
+        var loadContext = new XsdLoadContext(options, monitor);
+        var parseStart = System.nanoTime();
+        var model = modelLoader.get();
+        var projectionStart = System.nanoTime();
         var elements = model.getComponents(XSConstants.ELEMENT_DECLARATION);
+        var rootElements = new ArrayList<XSElementDeclaration>();
 
         this.name = file.getName();
 
@@ -89,12 +187,66 @@ public class XsdDocument extends AbstractXsdElementNode {
                 XSObject element = (XSObject) item;
 
                 if (element instanceof XSElementDecl) {
-                    XsdElement rootElement = new XsdElement((XSElementDecl) item, this);
-
-                    this.elements.add(rootElement);
+                    rootElements.add((XSElementDecl) element);
                 }
             }
         }
+
+        var nodeStore = options.isCompact() ? new XsdNodeStore() : null;
+
+        loadContext.startMonitor(rootElements);
+
+        for (XSElementDeclaration element : rootElements) {
+            loadContext.registerProcessedParticle();
+            var rootElement = new XsdElement(element, this, loadContext);
+
+            // a compact document only retains the columns of each root element, so the object graph never exceeds a single root element
+            // the structure of the root element is therefore hashed before it's stored
+            if (nodeStore != null) {
+                XsdStructureHash.compute(rootElement);
+                rootElement = nodeStore.createElement(this, nodeStore.append(rootElement));
+            }
+
+            addElement(rootElement);
+            loadContext.registerRootElement();
+        }
+
+        XsdStructureHash.compute(this);
+        loadContext.stopMonitor();
+
+        if (nodeStore != null) {
+            nodeStore.trim();
+            log.debug("Stored xsd {} in node store elements={} attributes={} strings={}", this.name,
+                    nodeStore.getElementCount(), nodeStore.getAttributeCount(), nodeStore.getStringCount());
+        }
+
+        if (options.isDetached()) {
+            detach();
+        }
+
+        // a compact document shares the stored inner nodes of the ancestor instead
+        this.copyingRecursiveElements = loadContext.isDetached() && nodeStore == null && loadContext.getRecursiveElements() > 0;
+
+        this.loadStatistics = loadContext.statistics()
+                .schema(this.name)
+                .profile(options.getProfile())
+                .parseTime(Duration.ofNanos(projectionStart - parseStart))
+                .projectionTime(Duration.ofNanos(System.nanoTime() - projectionStart))
+                .build();
+
+        log.debug("Loaded xsd {} typeTemplateHits={} pooledStrings={} pooledStringHits={}", loadStatistics.toLogString(),
+                loadContext.getTypeTemplateHits(), loadContext.getPooledStrings(), loadContext.getPooledStringHits());
+    }
+
+    /**
+     * Release the references to the Xerces schema model of all loaded elements.
+     * The inner nodes of recursive elements aren't loaded by this, as they're copied from their ancestor when requested.
+     */
+    private void detach() {
+        XsdNodeTraversal.preOrderAll(getElements(), e -> e.isLoaded() ? e.getElements() : Collections.emptyList(), (element, depth) -> {
+            element.detach();
+            return true;
+        });
     }
 
     //endregion
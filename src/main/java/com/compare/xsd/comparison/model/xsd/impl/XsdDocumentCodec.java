@@ -0,0 +1,273 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import com.compare.xsd.comparison.model.xsd.XsdFacets;
+import com.compare.xsd.comparison.model.xsd.XsdNodeTraversal;
+import org.springframework.util.Assert;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes the projected node tree of a {@link XsdDocument} into a compact binary format and back.
+ * Only documents of which all inner nodes have been loaded can be encoded, as the encoded tree no longer
+ * has access to the schema model to load inner nodes on demand.
+ */
+public final class XsdDocumentCodec {
+    private static final int MAGIC = 0x58534443;
+    private static final int VERSION = 1;
+    private static final int MAX_STRING_LENGTH = 16 * 1024 * 1024;
+
+    private XsdDocumentCodec() {
+    }
+
+    //region Methods
+
+    /**
+     * Check if the given document can be encoded.
+     * Documents which contain recursive or lazy loaded elements can't be encoded.
+     *
+     * @param document Set the document to check.
+     * @return Returns true if the document can be encoded, else false.
+     */
+    public static boolean isEncodable(XsdDocument document) {
+        Assert.notNull(document, "document cannot be null");
+        var queue = new ArrayList<XsdElement>(document.getElements());
+
+        while (!queue.isEmpty()) {
+            var element = queue.remove(queue.size() - 1);
+
+            if (element.isRecursive() || !element.isLoaded()) {
+                return false;
+            }
+
+            queue.addAll(element.getElements());
+        }
+
+        return true;
+    }
+
+    /**
+     * Write the node tree of the given document to the given output stream.
+     *
+     * @param document Set the document to write.
+     * @param output   Set the output stream to write to.
+     * @throws IOException Is thrown when the output stream couldn't be written.
+     */
+    public static void write(XsdDocument document, OutputStream output) throws IOException {
+        Assert.notNull(document, "document cannot be null");
+        Assert.notNull(output, "output cannot be null");
+        Assert.isTrue(isEncodable(document), "document contains nodes which have not been loaded");
+        var data = new DataOutputStream(new BufferedOutputStream(output));
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        writeString(data, document.getName());
+        writeElements(data, document.getElements());
+        data.flush();
+    }
+
+    /**
+     * Read the node tree of a document from the given input stream.
+     *
+     * @param file  Set the XSD file of the document.
+     * @param input Set the input stream to read from.
+     * @return Returns the restored document.
+     * @throws IOException Is thrown when the input stream couldn't be read or has an unknown format.
+     */
+    public static XsdDocument read(File file, InputStream input) throws IOException {
+        // the restored values are deduplicated the same way as during a load of the schema
+        return read(file, input, new XsdStringPool());
+    }
+
+    /**
+     * Read the node tree of a document from the given input stream.
+     * Each string is read as a separate copy, so the given pool is what shares the values which are repeated by the nodes.
+     *
+     * @param file       Set the XSD file of the document.
+     * @param input      Set the input stream to read from.
+     * @param stringPool Set the pool which deduplicates the restored values.
+     * @return Returns the restored document.
+     * @throws IOException Is thrown when the input stream couldn't be read or has an unknown format.
+     */
+    static XsdDocument read(File file, InputStream input, XsdStringPool stringPool) throws IOException {
+        Assert.notNull(file, "file cannot be null");
+        Assert.notNull(input, "input cannot be null");
+        Assert.notNull(stringPool, "stringPool cannot be null");
+        var data = new DataInputStream(new BufferedInputStream(input));
+
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Unsupported document cache format");
+        }
+
+        var document = new XsdDocument(file, readString(data));
+
+        readElements(data, document, stringPool);
+        XsdStructureHash.compute(document);
+
+        return document;
+    }
+
+    //endregion
+
+    //region Functions
+
+    private static void writeElements(DataOutputStream data, List<XsdElement> elements) throws IOException {
+        data.writeInt(elements.size());
+
+        try {
+            // each element is followed by its attributes and the number of child elements, which are written next
+            XsdNodeTraversal.preOrderAll(elements, XsdElement::getElements, (element, depth) -> {
+                writeElement(data, element);
+                return true;
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static void writeElement(DataOutputStream data, XsdElement element) {
+        try {
+            writeNode(data, element);
+            data.writeInt(element.getAttributes().size());
+
+            for (XsdAttribute attribute : element.getAttributes()) {
+                writeNode(data, attribute);
+            }
+
+            data.writeInt(element.getElements().size());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void readElements(DataInputStream data, AbstractXsdElementNode parent, XsdStringPool stringPool) throws IOException {
+        var parents = new ArrayDeque<AbstractXsdElementNode>();
+        var remainingElements = new ArrayDeque<Integer>();
+
+        parents.push(parent);
+        remainingElements.push(data.readInt());
+
+        // the elements are read with an explicit stack of the parents which still expect child elements
+        while (!parents.isEmpty()) {
+            var remaining = remainingElements.pop();
+
+            if (remaining <= 0) {
+                parents.pop();
+                continue;
+            }
+
+            remainingElements.push(remaining - 1);
+
+            var element = new XsdElement(parents.peek());
+
+            readNode(data, element, stringPool);
+
+            var attributeCount = data.readInt();
+
+            for (int j = 0; j < attributeCount; j++) {
+                var attribute = new XsdAttribute(element);
+
+                readNode(data, attribute, stringPool);
+                element.addAttribute(attribute);
+            }
+
+            parents.peek().addElement(element);
+            parents.push(element);
+            remainingElements.push(data.readInt());
+        }
+    }
+
+    private static void writeNode(DataOutputStream data, AbstractXsdNode node) throws IOException {
+        writeString(data, node.getName());
+        writeString(data, node.getNamespace());
+        writeString(data, node.getType());
+        writeString(data, node.getFixedValue());
+        writeString(data, node.getPattern());
+        writeString(data, node.getWhitespace());
+        writeInteger(data, node.getMinOccurrence());
+        writeInteger(data, node.getMaxOccurrence());
+        writeInteger(data, node.getLength());
+        writeInteger(data, node.getMinLength());
+        writeInteger(data, node.getMaxLength());
+        data.writeInt(node.getEnumeration().size());
+
+        for (String value : node.getEnumeration()) {
+            writeString(data, value);
+        }
+    }
+
+    private static void readNode(DataInputStream data, AbstractXsdNode node, XsdStringPool stringPool) throws IOException {
+        node.setName(stringPool.intern(readString(data)));
+        node.setNamespace(stringPool.intern(readString(data)));
+        node.setType(stringPool.intern(readString(data)));
+        node.setFixedValue(readString(data));
+
+        var facetsBuilder = XsdFacets.builder()
+                .pattern(readString(data))
+                .whitespace(readString(data));
+
+        node.setMinOccurrence(readInteger(data));
+        node.setMaxOccurrence(readInteger(data));
+        facetsBuilder
+                .length(readInteger(data))
+                .minLength(readInteger(data))
+                .maxLength(readInteger(data));
+
+        var enumerationCount = data.readInt();
+        var enumeration = new ArrayList<String>(enumerationCount);
+
+        for (int i = 0; i < enumerationCount; i++) {
+            enumeration.add(readString(data));
+        }
+
+        node.setFacets(stringPool.intern(facetsBuilder
+                .enumeration(enumeration)
+                .build()));
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+        } else {
+            // strings are written as UTF-8 bytes, as writeUTF is limited to 64KB which a pattern could exceed
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+
+            data.writeInt(bytes.length);
+            data.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        var length = data.readInt();
+
+        if (length < 0) {
+            return null;
+        }
+        if (length > MAX_STRING_LENGTH) {
+            throw new IOException("Invalid string length " + length + " in document cache");
+        }
+
+        var bytes = new byte[length];
+
+        data.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInteger(DataOutputStream data, Integer value) throws IOException {
+        data.writeBoolean(value != null);
+
+        if (value != null) {
+            data.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream data) throws IOException {
+        return data.readBoolean() ? data.readInt() : null;
+    }
+
+    //endregion
+}
@@ -4,13 +4,12 @@ import com.compare.xsd.comparison.model.xsd.NodeNotFoundException;
 import com.compare.xsd.comparison.model.xsd.XsdAttributeNode;
 import com.compare.xsd.comparison.model.xsd.XsdNode;
 import javafx.scene.image.Image;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
+import lombok.*;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.xerces.impl.dv.xs.XSSimpleTypeDecl;
-import org.apache.xerces.impl.xs.*;
+import org.apache.xerces.impl.xs.XSAttributeUseImpl;
+import org.apache.xerces.impl.xs.XSElementDecl;
+import org.apache.xerces.impl.xs.XSParticleDecl;
 import org.apache.xerces.xs.XSElementDeclaration;
 import org.apache.xerces.xs.XSParticle;
 import org.apache.xerces.xs.XSTypeDefinition;
@@ -18,17 +17,80 @@ import org.springframework.util.Assert;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.lang.ref.WeakReference;
+import java.util.*;
 
 @Slf4j
-@EqualsAndHashCode(callSuper = true)
+@EqualsAndHashCode(callSuper = true, doNotUseGetters = true)
+@ToString(doNotUseGetters = true)
 @Data
 public class XsdElement extends AbstractXsdElementNode {
-    private final XSElementDeclaration element;
-    private final XSParticle definition;
+    /**
+     * The Xerces declaration of this element.
+     * This reference is released when the document is loaded in detached mode.
+     */
+    @Setter(AccessLevel.NONE)
+    private XSElementDeclaration element;
+    /**
+     * The Xerces particle of this element, or null for a root element.
+     * This reference is released when the document is loaded in detached mode.
+     */
+    @Setter(AccessLevel.NONE)
+    private XSParticle definition;
     private final List<XsdAttribute> attributes = new ArrayList<>();
 
+    /**
+     * Indicates if this element is a recursive occurrence of an ancestor type.
+     */
+    private boolean recursive;
+    /**
+     * The context of the load which is used to load the inner nodes on demand.
+     * This context is only present as long as the inner nodes haven't been loaded,
+     * which is the case for recursive elements and for all elements of a lazy loaded document.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private XsdLoadContext loadContext;
+    /**
+     * The element of which the inner nodes are copied when the inner nodes of this element are requested.
+     * This replaces the load context of a recursive element in a detached document, as the schema model isn't available anymore.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private XsdElement prototype;
+    /**
+     * The store from which the inner nodes of this element are created when they're requested.
+     * This store is only present for an element of a compact loaded document which has inner nodes.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private XsdNodeStore nodeStore;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private int nodeId;
+    /**
+     * The inner nodes which have been created from the node store.
+     * They're only held weakly, so they're released once none of them is in use anymore and created again when they're requested.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private WeakReference<XsdNodeStore.InnerNodes> storedNodes;
+
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final Map<String, XsdAttribute> attributeIndex = new HashMap<>();
+
     //region Constructors
 
     /**
@@ -38,6 +100,17 @@ public class XsdElement extends AbstractXsdElementNode {
      * @param parent  Set the parent document.
      */
     public XsdElement(XSElementDeclaration element, XsdDocument parent) {
+        this(element, parent, new XsdLoadContext());
+    }
+
+    /**
+     * Initialize a new {@link XsdElement}.
+     *
+     * @param element     Set the element to process.
+     * @param parent      Set the parent document.
+     * @param loadContext Set the context of the document load.
+     */
+    XsdElement(XSElementDeclaration element, XsdDocument parent, XsdLoadContext loadContext) {
         Assert.notNull(element, "element cannot be null");
         this.element = element;
         this.parent = parent;
@@ -45,7 +118,7 @@ public class XsdElement extends AbstractXsdElementNode {
         this.minOccurrence = 1;
         this.maxOccurrence = 1;
 
-        init();
+        init(loadContext);
     }
 
     /**
@@ -55,6 +128,17 @@ public class XsdElement extends AbstractXsdElementNode {
      * @param parent            Set the parent element of this element.
      */
     public XsdElement(XSParticle elementDefinition, XsdElement parent) {
+        this(elementDefinition, parent, new XsdLoadContext());
+    }
+
+    /**
+     * Initialize a new {@link XsdElement}.
+     *
+     * @param elementDefinition Set the definition to process.
+     * @param parent            Set the parent element of this element.
+     * @param loadContext       Set the context of the document load.
+     */
+    XsdElement(XSParticle elementDefinition, XsdElement parent, XsdLoadContext loadContext) {
         super(parent);
         Assert.notNull(elementDefinition, "elementDefinition cannot be null");
         this.element = (XSElementDecl) elementDefinition.getTerm();
@@ -62,17 +146,63 @@ public class XsdElement extends AbstractXsdElementNode {
         this.minOccurrence = elementDefinition.getMinOccurs();
         this.maxOccurrence = elementDefinition.getMaxOccursUnbounded() ? null : elementDefinition.getMaxOccurs();
 
-        init();
+        init(loadContext);
     }
 
     /**
-     * Initialize a new {@link XsdElement}.
-     * This constructor can only be used {@link XsdEmptyElementNode}.
+     * Initialize a new {@link XsdElement} which is restored from the document cache.
+     * The properties and inner nodes of the element are populated by {@link XsdDocumentCodec}.
+     *
+     * @param parent Set the parent node of this element.
      */
-    protected XsdElement() {
+    XsdElement(AbstractXsdElementNode parent) {
+        super(parent);
         this.element = null;
         this.definition = null;
-        this.name = "";
+    }
+
+    /**
+     * Initialize a new {@link XsdElement} which is a copy of the given element.
+     * The inner nodes of the source element are only copied when they're requested.
+     *
+     * @param parent Set the parent node of this element.
+     * @param source Set the element to copy.
+     */
+    XsdElement(AbstractXsdElementNode parent, XsdElement source) {
+        super(parent);
+        copyProperties(source);
+        this.element = source.element;
+        this.definition = source.definition;
+        this.recursive = source.recursive;
+        // the copied inner nodes have the same structure as the inner nodes of the source
+        setStructureHash(source.getStructureHash());
+
+        // an unloaded source is never loaded by the copy, its inner nodes are copied from its own prototype instead
+        if (source.prototype != null) {
+            this.prototype = source.prototype;
+        } else if (source.hasInnerNodes()) {
+            this.prototype = source;
+        }
+    }
+
+    /**
+     * Initialize a new {@link XsdElement} which is created from the given node store.
+     * The inner nodes of the element are only created when they're requested, and aren't retained by this element.
+     *
+     * @param parent    Set the parent node of this element.
+     * @param nodeStore Set the store which contains this element.
+     * @param nodeId    Set the id of this element in the store.
+     */
+    XsdElement(AbstractXsdElementNode parent, XsdNodeStore nodeStore, int nodeId) {
+        super(parent);
+        this.element = null;
+        this.definition = null;
+        nodeStore.loadProperties(nodeId, this);
+
+        if (nodeStore.hasInnerNodes(nodeId)) {
+            this.nodeStore = nodeStore;
+            this.nodeId = nodeId;
+        }
     }
 
     //endregion
@@ -85,12 +215,34 @@ public class XsdElement extends AbstractXsdElementNode {
     }
 
     @Override
-    public List<XsdNode> getNodes() {
-        List<XsdNode> nodes = new ArrayList<>(attributes);
+    public boolean isLoaded() {
+        // the inner nodes of a stored element are never retained, so they're always created on request
+        return loadContext == null && prototype == null && nodeStore == null;
+    }
 
-        nodes.addAll(elements);
+    /**
+     * Get the attributes of this element.
+     * The attributes are loaded if they haven't been loaded yet.
+     *
+     * @return Returns the attributes of this element.
+     */
+    public List<XsdAttribute> getAttributes() {
+        if (nodeStore != null) {
+            return getStoredNodes().getAttributes();
+        }
 
-        return nodes;
+        loadNodes();
+        return attributes;
+    }
+
+    @Override
+    public List<XsdElement> getElements() {
+        return nodeStore != null ? getStoredNodes().getElements() : super.getElements();
+    }
+
+    @Override
+    public List<XsdNode> getNodes() {
+        return nodeStore != null ? getStoredNodes().getNodes() : super.getNodes();
     }
 
     //endregion
@@ -100,79 +252,212 @@ public class XsdElement extends AbstractXsdElementNode {
     @Override
     public XsdAttributeNode findAttributeByName(String name) throws NodeNotFoundException {
         Assert.notNull(name, "name cannot be null");
-        return attributes.stream()
-                .filter(e -> e.getName().equalsIgnoreCase(name))
-                .findFirst()
+
+        if (nodeStore != null) {
+            return Optional.ofNullable(getStoredNodes().findAttribute(name))
+                    .orElseThrow(() -> new NodeNotFoundException(name));
+        }
+
+        loadNodes();
+
+        return Optional.ofNullable(attributeIndex.get(toIndexKey(name)))
                 .orElseThrow(() -> new NodeNotFoundException(name));
     }
 
     //endregion
 
-    //region Methods
+    //region Functions
 
-    /**
-     * Insert the given attribute at the given index.
-     *
-     * @param index     Set the index of the attribute.
-     * @param attribute Set the attribute to add.
-     */
-    public void insertAttributeAt(int index, XsdAttribute attribute) {
-        Assert.notNull(attribute, "attribute cannot be null");
+    @Override
+    protected List<XsdNode> createNodes() {
+        List<XsdNode> nodes = new ArrayList<>(getAttributes());
 
-        this.attributes.add(index, attribute);
+        nodes.addAll(getElements());
+
+        return nodes;
     }
 
-    //endregion
+    @Override
+    protected XsdElement lookupElement(String name) {
+        return nodeStore != null ? getStoredNodes().findElement(name) : super.lookupElement(name);
+    }
 
-    //region Functions
+    @Override
+    protected synchronized void loadNodes() {
+        // a node can be requested by multiple threads at once, such as by the parallel comparisons of the same document
+        if (prototype != null) {
+            var source = prototype;
+
+            // clear the prototype before copying, so the inner nodes can safely request the nodes of this element
+            prototype = null;
+            log.trace("Copying inner nodes of element " + this.name);
+            copyInnerNodes(source);
+        } else if (loadContext != null) {
+            var context = loadContext;
+
+            // clear the context before loading, so the inner nodes can safely request the nodes of this element
+            loadContext = null;
+            log.trace("Loading inner nodes of element " + this.name);
+
+            // the context is shared by all elements of the document, which might be loaded by the threads of a parallel comparison
+            synchronized (context) {
+                context.loadInnerNodes(this, context.getTypeTemplate(element.getTypeDefinition()));
+            }
+        }
+    }
+
+    private synchronized XsdNodeStore.InnerNodes getStoredNodes() {
+        // the stored nodes can be requested by multiple threads at once, which should all receive the same inner nodes
+        var innerNodes = storedNodes != null ? storedNodes.get() : null;
+
+        if (innerNodes == null) {
+            log.trace("Creating inner nodes of element " + this.name);
+            innerNodes = nodeStore.createInnerNodes(this, nodeId);
+            storedNodes = new WeakReference<>(innerNodes);
+        }
+
+        return innerNodes;
+    }
 
-    private void init() {
+    private void init(XsdLoadContext loadContext) {
         var typeDefinition = element.getTypeDefinition();
 
-        this.name = element.getName();
+        this.name = loadContext.intern(element.getName());
         log.trace("Processing element " + this.name);
         loadNamespace();
+        this.namespace = loadContext.intern(this.namespace);
 
         if (typeDefinition.getTypeCategory() == XSTypeDefinition.COMPLEX_TYPE) {
-            loadComplexType((XSComplexTypeDecl) typeDefinition);
+            var template = loadContext.getTypeTemplate(typeDefinition);
+
+            loadTypeTemplate(template);
+
+            var ancestor = findAncestorOfType(typeDefinition);
+
+            // a type which is already used by an ancestor would load the same inner nodes endlessly
+            // so the inner nodes of the recursive occurrence are only loaded when they're requested
+            if (ancestor != null) {
+                log.trace("Element " + this.name + " is a recursive occurrence of type " + typeDefinition.getName());
+                this.recursive = true;
+                loadContext.registerRecursiveElement();
+
+                // a detached element can't load its inner nodes from the schema model, so they're copied from the ancestor instead
+                if (loadContext.isDetached()) {
+                    this.prototype = ancestor;
+                } else {
+                    this.loadContext = loadContext;
+                }
+            } else if (loadContext.isDeferred(getLevel())) {
+                this.loadContext = loadContext;
+                loadContext.registerDeferredElement();
+            } else {
+                loadContext.loadInnerNodes(this, template);
+            }
         } else if (typeDefinition.getTypeCategory() == XSTypeDefinition.SIMPLE_TYPE) {
-            loadSimpleType((XSSimpleTypeDecl) typeDefinition);
+            loadTypeTemplate(loadContext.getTypeTemplate(typeDefinition));
         } else {
             log.warn("Unknown element type " + typeDefinition.getTypeCategory());
         }
     }
 
-    private void loadComplexType(XSComplexTypeDecl complexType) {
-        var particle = (XSParticleDecl) complexType.getParticle();
-        var attributes = complexType.getAttributeUses();
+    /**
+     * Load the inner nodes of this element from the given complex type template.
+     * The inner nodes of the created elements are loaded by the load context, see {@link XsdLoadContext#loadInnerNodes(XsdElement, XsdTypeTemplate)}.
+     *
+     * @param template    Set the complex type template of this element.
+     * @param loadContext Set the context of the document load.
+     */
+    void loadComplexType(XsdTypeTemplate template, XsdLoadContext loadContext) {
+        loadContext.registerExpandedType(getLevel() + 1, template.getElementParticles().size(), template.getAttributeUses().size());
 
-        if (particle != null) {
-            var group = (XSModelGroupImpl) particle.getTerm();
-            processComplexGroup(group);
-        } else {
-            loadType(complexType);
+        for (XSParticleDecl particle : template.getElementParticles()) {
+            loadContext.registerProcessedParticle();
+            addElement(new XsdElement(particle, this, loadContext));
         }
 
-        if (CollectionUtils.isNotEmpty(attributes)) {
-            for (Object attribute : attributes) {
-                this.attributes.add(new XsdAttribute((XSAttributeUseImpl) attribute, this));
-            }
+        for (XSAttributeUseImpl attribute : template.getAttributeUses()) {
+            addAttribute(new XsdAttribute(attribute, this, loadContext));
         }
     }
 
-    private void processComplexGroup(XSModelGroupImpl group) {
-        var children = group.getParticles();
+    private int getLevel() {
+        var level = 0;
+        AbstractXsdNode ancestor = this;
 
-        for (Object childItem : children) {
-            if (childItem instanceof XSParticle) {
-                XSParticleDecl child = (XSParticleDecl) childItem;
+        while (ancestor instanceof XsdElement) {
+            level++;
+            ancestor = ancestor.getParent();
+        }
 
-                if (child.getTerm() instanceof XSElementDeclaration) {
-                    this.elements.add(new XsdElement(child, this));
-                } else if (child.getTerm() instanceof XSModelGroupImpl) {
-                    processComplexGroup((XSModelGroupImpl) child.getTerm());
-                }
+        return level;
+    }
+
+    /**
+     * Release the references to the Xerces schema model of this element and its attributes.
+     * The inner elements are detached separately.
+     */
+    void detach() {
+        this.element = null;
+        this.definition = null;
+
+        for (XsdAttribute attribute : this.attributes) {
+            attribute.detach();
+        }
+    }
+
+    /**
+     * Get the element of which the inner nodes are copied when they're requested.
+     *
+     * @return Returns the prototype element, or null if the inner nodes aren't copied.
+     */
+    XsdElement getPrototype() {
+        return prototype;
+    }
+
+    private void copyInnerNodes(XsdElement source) {
+        for (XsdAttribute attribute : source.getAttributes()) {
+            addAttribute(new XsdAttribute(this, attribute));
+        }
+
+        for (XsdElement element : source.getElements()) {
+            addElement(new XsdElement(this, element));
+        }
+    }
+
+    private boolean hasInnerNodes() {
+        return !isLoaded() || !this.elements.isEmpty() || !this.attributes.isEmpty();
+    }
+
+    private XsdElement findAncestorOfType(XSTypeDefinition typeDefinition) {
+        var ancestor = parent;
+
+        while (ancestor instanceof XsdElement) {
+            var ancestorElement = ((XsdElement) ancestor).getElement();
+
+            if (ancestorElement != null && ancestorElement.getTypeDefinition() == typeDefinition) {
+                return (XsdElement) ancestor;
             }
+
+            ancestor = ancestor.getParent();
+        }
+
+        return null;
+    }
+
+    /**
+     * Add the given attribute at the end of the attributes of this element.
+     *
+     * @param attribute Set the attribute to add.
+     */
+    void addAttribute(XsdAttribute attribute) {
+        this.attributes.add(attribute);
+        indexAttribute(attribute);
+        invalidateNodes();
+    }
+
+    private void indexAttribute(XsdAttribute attribute) {
+        if (StringUtils.isNotEmpty(attribute.getName())) {
+            attributeIndex.putIfAbsent(toIndexKey(attribute.getName()), attribute);
         }
     }
 
@@ -0,0 +1,475 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import com.compare.xsd.comparison.XsdLoadException;
+import com.compare.xsd.comparison.model.xsd.XsdLoadProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.xerces.impl.XMLEntityManager;
+import org.apache.xerces.impl.xs.SchemaGrammar;
+import org.apache.xerces.impl.xs.XMLSchemaLoader;
+import org.apache.xerces.impl.xs.XSDDescription;
+import org.apache.xerces.util.DOMEntityResolverWrapper;
+import org.apache.xerces.util.SymbolTable;
+import org.apache.xerces.util.SynchronizedSymbolTable;
+import org.apache.xerces.util.URI;
+import org.apache.xerces.xni.grammars.Grammar;
+import org.apache.xerces.xni.grammars.XMLGrammarDescription;
+import org.apache.xerces.xni.grammars.XMLGrammarPool;
+import org.apache.xerces.xni.grammars.XSGrammar;
+import org.apache.xerces.xni.parser.XMLInputSource;
+import org.apache.xerces.xs.XSModel;
+import org.springframework.util.Assert;
+import org.w3c.dom.ls.LSResourceResolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.*;
+
+/**
+ * Cache of the schema grammars which are imported by XSD documents.
+ * A grammar which is imported by multiple documents, such as a set of common components, is only parsed once
+ * as long as none of its schema files have been changed on disk.
+ * The grammars are kept per load profile, so a grammar is only reused by a load which verifies the schemas the same way.
+ * The cache can be shared between the loads of multiple documents and is thread-safe.
+ */
+@Slf4j
+public class XsdGrammarCache {
+    private static final String GRAMMAR_POOL_PROPERTY = "http://apache.org/xml/properties/internal/grammar-pool";
+    private static final String SCHEMA_FULL_CHECKING_FEATURE = "http://apache.org/xml/features/validation/schema-full-checking";
+    private static final String VALIDATE_ANNOTATIONS_FEATURE = "http://apache.org/xml/features/validate-annotations";
+    private static final String HONOUR_ALL_SCHEMA_LOCATIONS_FEATURE = "http://apache.org/xml/features/honour-all-schemaLocations";
+    private static final String GENERATE_SYNTHETIC_ANNOTATIONS_FEATURE = "http://apache.org/xml/features/generate-synthetic-annotations";
+    private static final String FILE_SCHEME = "file";
+    private static final String ARCHIVE_SCHEME = "jar";
+    private static final String ARCHIVE_ENTRY_SEPARATOR = "!/";
+
+    private final SymbolTable symbolTable = new SynchronizedSymbolTable();
+    private final Map<XsdLoadProfile, SharedGrammarPool> grammarPools = new EnumMap<>(XsdLoadProfile.class);
+    private final XsdResourceResolver resourceResolver;
+
+    //region Constructors
+
+    /**
+     * Initialize a new instance of {@link XsdGrammarCache} which resolves imported schemas through their schema location.
+     */
+    public XsdGrammarCache() {
+        this(null);
+    }
+
+    /**
+     * Initialize a new instance of {@link XsdGrammarCache}.
+     *
+     * @param resourceResolver Set the resolver of the imported schemas (optional).
+     */
+    public XsdGrammarCache(XsdResourceResolver resourceResolver) {
+        this.resourceResolver = resourceResolver;
+
+        // the pools are only created here, so the map itself is never modified by concurrent loads
+        for (XsdLoadProfile profile : XsdLoadProfile.values()) {
+            grammarPools.put(profile, new SharedGrammarPool());
+        }
+    }
+
+    //endregion
+
+    //region Getters & Setters
+
+    /**
+     * Get the number of grammars which are currently cached.
+     *
+     * @return Returns the number of cached grammars.
+     */
+    public int getSize() {
+        return grammarPools.values().stream()
+                .mapToInt(SharedGrammarPool::size)
+                .sum();
+    }
+
+    /**
+     * Get the number of times an imported grammar has been reused from this cache.
+     *
+     * @return Returns the number of cache hits.
+     */
+    public int getHits() {
+        return grammarPools.values().stream()
+                .mapToInt(SharedGrammarPool::getHits)
+                .sum();
+    }
+
+    //endregion
+
+    //region Methods
+
+    /**
+     * Load the schema model of the given XSD file with the {@link XsdLoadProfile#FAST} profile.
+     * The given file itself is always parsed, only the grammars imported by the file are reused from the cache.
+     *
+     * @param file Set the XSD file to load.
+     * @return Returns the schema model of the file.
+     */
+    public XSModel load(File file) {
+        return load(file, XsdLoadProfile.FAST);
+    }
+
+    /**
+     * Load the schema model of the given XSD file.
+     * The given file itself is always parsed, the grammars imported by the file are reused from the cache when they've been loaded
+     * with the same profile before.
+     * A WSDL file is loaded as the combined schema model of the schemas which are embedded in it.
+     *
+     * @param file    Set the XSD or WSDL file to load.
+     * @param profile Set the profile which defines how thoroughly the schemas are verified.
+     * @return Returns the schema model of the file.
+     */
+    public XSModel load(File file, XsdLoadProfile profile) {
+        Assert.notNull(file, "file cannot be null");
+        Assert.notNull(profile, "profile cannot be null");
+
+        if (XsdWsdl.isWsdl(file)) {
+            return loadWsdl(file, profile);
+        }
+
+        return load(new XMLInputSource(null, file.getAbsolutePath(), null), resourceResolver, profile);
+    }
+
+    /**
+     * Load the schema model of the given entry within an XSD archive with the {@link XsdLoadProfile#FAST} profile.
+     *
+     * @param archive Set the archive which contains the entry.
+     * @param entry   Set the path of the XSD entry within the archive.
+     * @return Returns the schema model of the entry.
+     */
+    public XSModel load(XsdArchive archive, String entry) {
+        return load(archive, entry, XsdLoadProfile.FAST);
+    }
+
+    /**
+     * Load the schema model of the given entry within an XSD archive.
+     * Imports relative to the entry are resolved within the archive, other imports are resolved through the resolver of this cache.
+     *
+     * @param archive Set the archive which contains the entry.
+     * @param entry   Set the path of the XSD entry within the archive.
+     * @param profile Set the profile which defines how thoroughly the schemas are verified.
+     * @return Returns the schema model of the entry.
+     */
+    public XSModel load(XsdArchive archive, String entry, XsdLoadProfile profile) {
+        Assert.notNull(archive, "archive cannot be null");
+        Assert.notNull(entry, "entry cannot be null");
+        Assert.notNull(profile, "profile cannot be null");
+        var source = new XMLInputSource(null, archive.getSystemId(entry), null);
+
+        try {
+            source.setByteStream(archive.open(entry));
+        } catch (IOException ex) {
+            throw new XsdLoadException(ex.getMessage(), ex);
+        }
+
+        return load(source, chain(archive), profile);
+    }
+
+    /**
+     * Remove all grammars from this cache.
+     */
+    public void clear() {
+        grammarPools.values().forEach(SharedGrammarPool::clear);
+
+        if (resourceResolver != null) {
+            resourceResolver.clear();
+        }
+    }
+
+    //endregion
+
+    //region Functions
+
+    private XSModel loadWsdl(File file, XsdLoadProfile profile) {
+        XsdWsdl wsdl;
+
+        try {
+            wsdl = new XsdWsdl(file);
+        } catch (IOException ex) {
+            throw new XsdLoadException(ex.getMessage(), ex);
+        }
+
+        log.debug("Loading {} embedded schemas of wsdl {}", wsdl.getSchemaCount(), file);
+        var source = new XMLInputSource(null, wsdl.getSystemId(), null);
+
+        source.setByteStream(wsdl.openRootSchema());
+
+        return load(source, chain(wsdl), profile);
+    }
+
+    /**
+     * Chain the given resolver with the resolver of this cache, which resolves the locations that the given resolver doesn't resolve.
+     */
+    private LSResourceResolver chain(LSResourceResolver resolver) {
+        return (type, namespaceURI, publicId, systemId, baseURI) -> {
+            var input = resolver.resolveResource(type, namespaceURI, publicId, systemId, baseURI);
+
+            return input != null || resourceResolver == null ? input : resourceResolver.resolveResource(type, namespaceURI, publicId, systemId, baseURI);
+        };
+    }
+
+    private XSModel load(XMLInputSource source, LSResourceResolver resolver, XsdLoadProfile profile) {
+        var schemaLoader = new XMLSchemaLoader(symbolTable);
+        var complete = profile == XsdLoadProfile.COMPLETE;
+
+        schemaLoader.setFeature(SCHEMA_FULL_CHECKING_FEATURE, complete);
+        schemaLoader.setFeature(VALIDATE_ANNOTATIONS_FEATURE, complete);
+        schemaLoader.setFeature(HONOUR_ALL_SCHEMA_LOCATIONS_FEATURE, complete);
+        schemaLoader.setFeature(GENERATE_SYNTHETIC_ANNOTATIONS_FEATURE, false);
+        // a grammar which has been verified with other features is never reused, so each profile has its own pool
+        schemaLoader.setProperty(GRAMMAR_POOL_PROPERTY, grammarPools.get(profile));
+
+        if (resolver != null) {
+            schemaLoader.setEntityResolver(new DOMEntityResolverWrapper(resolver));
+        }
+
+        try {
+            var grammar = (XSGrammar) schemaLoader.loadGrammar(source);
+
+            if (grammar == null) {
+                throw new XsdLoadException("no schema grammar found in " + source.getSystemId());
+            }
+
+            return grammar.toXSModel();
+        } catch (IOException ex) {
+            throw new XsdLoadException(ex.getMessage(), ex);
+        } finally {
+            closeQuietly(source);
+        }
+    }
+
+    private static void closeQuietly(XMLInputSource source) {
+        if (source.getByteStream() != null) {
+            try {
+                source.getByteStream().close();
+            } catch (IOException ex) {
+                log.trace("Unable to close schema input", ex);
+            }
+        }
+    }
+
+    private static long lastModified(String location) {
+        try {
+            var uri = new java.net.URI(location);
+
+            // a schema within an archive is modified together with the archive itself
+            if (ARCHIVE_SCHEME.equalsIgnoreCase(uri.getScheme())) {
+                var archiveLocation = uri.getRawSchemeSpecificPart();
+
+                return lastModified(archiveLocation.substring(0, archiveLocation.indexOf(ARCHIVE_ENTRY_SEPARATOR)));
+            }
+
+            return FILE_SCHEME.equalsIgnoreCase(uri.getScheme()) ? new File(uri).lastModified() : 0;
+        } catch (Exception ex) {
+            return 0;
+        }
+    }
+
+    //endregion
+
+    /**
+     * The grammar pool which is shared between the loads of this cache.
+     * Grammars are looked up by their location instead of only their namespace, as the original and new document
+     * will often use the same namespace for a different version of a schema.
+     */
+    private static class SharedGrammarPool implements XMLGrammarPool {
+        private final Map<String, List<CachedGrammar>> grammars = new HashMap<>();
+
+        private int hits;
+
+        @Override
+        public Grammar[] retrieveInitialGrammarSet(String grammarType) {
+            // grammars are only reused when they're imported, otherwise a document would be merged with every cached grammar
+            return new Grammar[0];
+        }
+
+        @Override
+        public synchronized void cacheGrammars(String grammarType, Grammar[] grammars) {
+            if (!XMLGrammarDescription.XML_SCHEMA.equals(grammarType)) {
+                return;
+            }
+
+            for (Grammar grammar : grammars) {
+                if (grammar instanceof SchemaGrammar) {
+                    cacheGrammar((SchemaGrammar) grammar);
+                }
+            }
+        }
+
+        @Override
+        public synchronized Grammar retrieveGrammar(XMLGrammarDescription description) {
+            if (!(description instanceof XSDDescription)) {
+                return null;
+            }
+
+            var schemaDescription = (XSDDescription) description;
+
+            // the document which is being loaded needs to be parsed, only imported grammars are reused
+            if (schemaDescription.getContextType() == XSDDescription.CONTEXT_PREPARSE) {
+                return null;
+            }
+
+            var locations = expandLocations(schemaDescription);
+            var cachedGrammars = this.grammars.getOrDefault(namespaceKey(schemaDescription.getTargetNamespace()), Collections.emptyList());
+
+            for (CachedGrammar cachedGrammar : cachedGrammars) {
+                if (cachedGrammar.isLocatedAt(locations)) {
+                    var grammar = cachedGrammar.getGrammar();
+
+                    if (grammar == null || cachedGrammar.isModified()) {
+                        log.debug("Cached grammar of {} has been released or modified on disk", locations);
+                        cachedGrammars.remove(cachedGrammar);
+                        return null;
+                    }
+
+                    hits++;
+                    return grammar;
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public void lockPool() {
+            //no-op
+        }
+
+        @Override
+        public void unlockPool() {
+            //no-op
+        }
+
+        @Override
+        public synchronized void clear() {
+            grammars.clear();
+        }
+
+        synchronized int size() {
+            return grammars.values().stream()
+                    .mapToInt(List::size)
+                    .sum();
+        }
+
+        synchronized int getHits() {
+            return hits;
+        }
+
+        private void cacheGrammar(SchemaGrammar grammar) {
+            var cachedGrammars = this.grammars.computeIfAbsent(namespaceKey(grammar.getTargetNamespace()), key -> new ArrayList<>());
+
+            if (cachedGrammars.stream().anyMatch(e -> e.getGrammar() == grammar)) {
+                return;
+            }
+
+            var cachedGrammar = CachedGrammar.of(grammar);
+
+            // a grammar which can't be verified on disk is never cached
+            if (cachedGrammar != null) {
+                cachedGrammars.removeIf(e -> e.isLocatedAt(cachedGrammar.getLocations()));
+                cachedGrammars.add(cachedGrammar);
+            }
+        }
+
+        private static Set<String> expandLocations(XSDDescription description) {
+            var locations = new HashSet<String>();
+            var hints = description.getLocationHints();
+
+            if (description.getExpandedSystemId() != null) {
+                locations.add(description.getExpandedSystemId());
+            }
+
+            if (hints != null) {
+                for (String hint : hints) {
+                    try {
+                        locations.add(XMLEntityManager.expandSystemId(hint, description.getBaseSystemId(), false));
+                    } catch (URI.MalformedURIException ex) {
+                        log.trace("Unable to expand schema location " + hint, ex);
+                    }
+                }
+            }
+
+            return locations;
+        }
+
+        private static String namespaceKey(String namespace) {
+            return namespace != null ? namespace : "";
+        }
+    }
+
+    /**
+     * A cached grammar together with the modification timestamps of its schema files and the files of the grammars it imports.
+     * The grammar is softly referenced, so the cache doesn't keep the schema model of detached documents in memory
+     * when the memory is needed elsewhere.
+     */
+    private static class CachedGrammar {
+        private final SoftReference<SchemaGrammar> grammar;
+        private final Set<String> locations;
+        private final Map<String, Long> timestamps;
+
+        private CachedGrammar(SchemaGrammar grammar, Set<String> locations, Map<String, Long> timestamps) {
+            this.grammar = new SoftReference<>(grammar);
+            this.locations = locations;
+            this.timestamps = timestamps;
+        }
+
+        static CachedGrammar of(SchemaGrammar grammar) {
+            var documentLocations = grammar.getDocumentLocations();
+            var locations = new HashSet<String>();
+            var timestamps = new HashMap<String, Long>();
+            var queue = new ArrayDeque<SchemaGrammar>();
+            var visited = Collections.newSetFromMap(new IdentityHashMap<SchemaGrammar, Boolean>());
+
+            for (int i = 0; i < documentLocations.getLength(); i++) {
+                locations.add(documentLocations.item(i));
+            }
+
+            queue.add(grammar);
+
+            while (!queue.isEmpty()) {
+                var current = queue.poll();
+
+                if (!visited.add(current)) {
+                    continue;
+                }
+
+                for (Object location : current.getDocumentLocations()) {
+                    var timestamp = lastModified((String) location);
+
+                    if (timestamp == 0) {
+                        return null;
+                    }
+
+                    timestamps.put((String) location, timestamp);
+                }
+
+                if (current.getImportedGrammars() != null) {
+                    for (Object importedGrammar : current.getImportedGrammars()) {
+                        queue.add((SchemaGrammar) importedGrammar);
+                    }
+                }
+            }
+
+            return locations.isEmpty() ? null : new CachedGrammar(grammar, locations, timestamps);
+        }
+
+        SchemaGrammar getGrammar() {
+            return grammar.get();
+        }
+
+        Set<String> getLocations() {
+            return locations;
+        }
+
+        boolean isLocatedAt(Set<String> locations) {
+            return locations.stream().anyMatch(this.locations::contains);
+        }
+
+        boolean isModified() {
+            return timestamps.entrySet().stream()
+                    .anyMatch(e -> lastModified(e.getKey()) != e.getValue());
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import com.compare.xsd.comparison.model.xsd.XsdLoadMonitor;
+import com.compare.xsd.comparison.model.xsd.XsdLoadOptions;
+import com.compare.xsd.comparison.model.xsd.XsdLoadStatistics;
+import org.apache.xerces.impl.xs.XSParticleDecl;
+import org.apache.xerces.xs.XSElementDeclaration;
+import org.apache.xerces.xs.XSTypeDefinition;
+import org.springframework.util.Assert;
+
+import java.util.*;
+
+/**
+ * Contains the state which is shared between all nodes during the load of a single {@link XsdDocument}.
+ */
+class XsdLoadContext {
+    private final Map<XSTypeDefinition, XsdTypeTemplate> typeTemplates = new IdentityHashMap<>();
+    private final XsdStringPool stringPool = new XsdStringPool();
+    private final Deque<PendingElement> pendingElements = new ArrayDeque<>();
+    private final XsdLoadOptions options;
+
+    private XsdLoadMonitor monitor;
+    private boolean loadingPendingElements;
+    private int typeTemplateHits;
+    private int recursiveElements;
+    private int deferredElements;
+    private int elements;
+    private int attributes;
+    private int typesExpanded;
+    private int maxDepth;
+
+    //region Constructors
+
+    /**
+     * Initialize a new instance of {@link XsdLoadContext} with the default load options.
+     */
+    XsdLoadContext() {
+        this(XsdLoadOptions.defaults());
+    }
+
+    /**
+     * Initialize a new instance of {@link XsdLoadContext}.
+     *
+     * @param options Set the options of the load.
+     */
+    XsdLoadContext(XsdLoadOptions options) {
+        this(options, null);
+    }
+
+    /**
+     * Initialize a new instance of {@link XsdLoadContext}.
+     *
+     * @param options Set the options of the load.
+     * @param monitor Set the monitor of the load (optional).
+     */
+    XsdLoadContext(XsdLoadOptions options, XsdLoadMonitor monitor) {
+        Assert.notNull(options, "options cannot be null");
+        this.options = options;
+        this.monitor = monitor;
+    }
+
+    //endregion
+
+    //region Getters & Setters
+
+    /**
+     * Check if the inner nodes of elements should only be loaded when they're requested.
+     *
+     * @return Returns true if the inner nodes are loaded on demand, else false.
+     */
+    boolean isLazy() {
+        return options.isLazy();
+    }
+
+    /**
+     * Check if the references to the Xerces schema model should be released once the document has been loaded.
+     *
+     * @return Returns true if the nodes are detached from the schema model, else false.
+     */
+    boolean isDetached() {
+        return options.isDetached() || options.isCompact();
+    }
+
+    /**
+     * Check if the inner nodes of an element at the given level should be deferred until they're requested.
+     * This is the case for a lazy load, or when the level is at or beyond the max. eager depth of the load.
+     *
+     * @param level Set the level of the element, starting at 1 for the root elements.
+     * @return Returns true if the inner nodes of the element should be loaded on demand, else false.
+     */
+    boolean isDeferred(int level) {
+        var maxEagerDepth = options.getMaxEagerDepth();
+
+        return isLazy() || (maxEagerDepth != null && level >= maxEagerDepth);
+    }
+
+    //endregion
+
+    //region Methods
+
+    /**
+     * Get the template of the given type definition.
+     * The template is only projected the first time the type definition is requested during this load.
+     *
+     * @param typeDefinition Set the type definition.
+     * @return Returns the template of the type definition.
+     */
+    XsdTypeTemplate getTypeTemplate(XSTypeDefinition typeDefinition) {
+        var template = typeTemplates.get(typeDefinition);
+
+        if (template == null) {
+            template = XsdTypeTemplate.of(typeDefinition, stringPool);
+            typeTemplates.put(typeDefinition, template);
+        } else {
+            typeTemplateHits++;
+        }
+
+        return template;
+    }
+
+    /**
+     * Start monitoring the projection of the given root elements.
+     * The number of particles which the root elements are expected to expand into is counted from the type templates,
+     * which are reused by the projection itself.
+     *
+     * @param rootElements Set the root elements which will be projected.
+     */
+    void startMonitor(List<XSElementDeclaration> rootElements) {
+        if (monitor == null) {
+            return;
+        }
+
+        long totalParticles = rootElements.size();
+
+        // a lazy load only projects the root elements, their inner nodes are loaded when they're requested
+        if (!isDeferred(1)) {
+            var particleCounts = new IdentityHashMap<XSTypeDefinition, Long>();
+
+            for (XSElementDeclaration rootElement : rootElements) {
+                totalParticles = saturatedAdd(totalParticles, countParticles(rootElement.getTypeDefinition(), particleCounts));
+            }
+        }
+
+        monitor.start(totalParticles);
+    }
+
+    /**
+     * Register that an element particle has been processed.
+     * This verifies that the load hasn't been cancelled and is therefore invoked for each projected element.
+     */
+    void registerProcessedParticle() {
+        if (monitor != null) {
+            monitor.particleProcessed();
+        }
+    }
+
+    /**
+     * Stop monitoring the load, as the document has been loaded.
+     * Inner nodes which are loaded on demand afterwards are no longer reported to the monitor.
+     */
+    void stopMonitor() {
+        if (monitor != null) {
+            monitor.done();
+            monitor = null;
+        }
+    }
+
+    /**
+     * Load the inner nodes of the given element from the given template.
+     * The inner nodes are loaded from an explicit stack instead of recursive constructor calls, so the depth of a schema
+     * doesn't exhaust the stack of the loading thread. The first invocation loads all pending elements before returning,
+     * nested invocations only add the element to the pending elements.
+     *
+     * @param element  Set the element of which the inner nodes should be loaded.
+     * @param template Set the type template of the element.
+     */
+    void loadInnerNodes(XsdElement element, XsdTypeTemplate template) {
+        pendingElements.push(new PendingElement(element, template));
+
+        if (loadingPendingElements) {
+            return;
+        }
+
+        loadingPendingElements = true;
+
+        try {
+            while (!pendingElements.isEmpty()) {
+                var pendingElement = pendingElements.pop();
+
+                pendingElement.element.loadComplexType(pendingElement.template, this);
+            }
+        } finally {
+            loadingPendingElements = false;
+            pendingElements.clear();
+        }
+    }
+
+    /**
+     * Get the pooled instance of the given value.
+     * Nodes should use this for the values which they don't receive from a type template, such as their name and namespace.
+     *
+     * @param value Set the value to pool (can be null).
+     * @return Returns the pooled instance of the value, or null if the value is null.
+     */
+    String intern(String value) {
+        return stringPool.intern(value);
+    }
+
+    /**
+     * Register that a root element of the document has been created.
+     */
+    void registerRootElement() {
+        elements++;
+        maxDepth = Math.max(maxDepth, 1);
+    }
+
+    /**
+     * Register that a complex type has been expanded into the given inner nodes.
+     *
+     * @param level      Set the level of the created inner nodes, starting at 1 for the root elements.
+     * @param elements   Set the number of created inner elements.
+     * @param attributes Set the number of created attributes.
+     */
+    void registerExpandedType(int level, int elements, int attributes) {
+        this.typesExpanded++;
+        this.elements += elements;
+        this.attributes += attributes;
+
+        if (elements > 0) {
+            maxDepth = Math.max(maxDepth, level);
+        }
+    }
+
+    /**
+     * Register that a recursive occurrence of a type has been detected.
+     */
+    void registerRecursiveElement() {
+        recursiveElements++;
+    }
+
+    /**
+     * Register that the inner nodes of an element have been deferred until they're requested.
+     */
+    void registerDeferredElement() {
+        deferredElements++;
+    }
+
+    /**
+     * Get the number of type definitions which have been projected during this load.
+     *
+     * @return Returns the number of projected type definitions.
+     */
+    int getTypeTemplateCount() {
+        return typeTemplates.size();
+    }
+
+    /**
+     * Get the number of times a type definition has been served from the template cache.
+     *
+     * @return Returns the number of cache hits.
+     */
+    int getTypeTemplateHits() {
+        return typeTemplateHits;
+    }
+
+    /**
+     * Get the number of distinct string values which are retained by the nodes of this load.
+     *
+     * @return Returns the number of pooled strings.
+     */
+    int getPooledStrings() {
+        return stringPool.getSize();
+    }
+
+    /**
+     * Get the number of times a duplicate string value or enumeration has been replaced by its pooled instance.
+     *
+     * @return Returns the number of pool hits.
+     */
+    int getPooledStringHits() {
+        return stringPool.getHits();
+    }
+
+    /**
+     * Get the number of recursive occurrences which have been detected during this load.
+     *
+     * @return Returns the number of recursive elements.
+     */
+    int getRecursiveElements() {
+        return recursiveElements;
+    }
+
+    /**
+     * Get the number of elements of which the inner nodes have been deferred during this load.
+     *
+     * @return Returns the number of deferred elements.
+     */
+    int getDeferredElements() {
+        return deferredElements;
+    }
+
+    /**
+     * Get the statistics of the nodes which have been created during this load.
+     * The timings of the load phases are not known by the load context and need to be set on the returned builder.
+     *
+     * @return Returns the statistics builder which contains the node counters of this load.
+     */
+    XsdLoadStatistics.XsdLoadStatisticsBuilder statistics() {
+        return XsdLoadStatistics.builder()
+                .elements(elements)
+                .attributes(attributes)
+                .typesExpanded(typesExpanded)
+                .projectedTypes(getTypeTemplateCount())
+                .maxDepth(maxDepth)
+                .recursiveElements(recursiveElements)
+                .deferredElements(deferredElements);
+    }
+
+    //endregion
+
+    //region Functions
+
+    /**
+     * Count the number of particles which the given type of a root element expands into, including the particles of the nested types.
+     * A type which is already being expanded by an ancestor isn't counted again, as the loader doesn't expand recursive occurrences.
+     * The types are walked with an explicit stack, so the depth of a schema doesn't exhaust the stack of the loading thread.
+     * The counts of the types are only reused when the load isn't limited to a max. eager depth, as the count then depends on the level of the type.
+     */
+    private long countParticles(XSTypeDefinition rootType, Map<XSTypeDefinition, Long> particleCounts) {
+        if (rootType.getTypeCategory() != XSTypeDefinition.COMPLEX_TYPE) {
+            return 0;
+        }
+
+        var depthLimited = options.getMaxEagerDepth() != null;
+        var cachedCount = depthLimited ? null : particleCounts.get(rootType);
+
+        if (cachedCount != null) {
+            return cachedCount;
+        }
+
+        var expandingTypes = Collections.newSetFromMap(new IdentityHashMap<XSTypeDefinition, Boolean>());
+        var stack = new ArrayDeque<TypeCount>();
+        var rootCount = new TypeCount(rootType, templateOf(rootType).getElementParticles());
+
+        expandingTypes.add(rootType);
+        stack.push(rootCount);
+
+        while (!stack.isEmpty()) {
+            var typeCount = stack.peek();
+
+            if (typeCount.particles.hasNext()) {
+                var particle = typeCount.particles.next();
+                var type = ((XSElementDeclaration) particle.getTerm()).getTypeDefinition();
+
+                typeCount.count = saturatedAdd(typeCount.count, 1);
+
+                // the particle is at the level of the stack size + 1, and its own particles are only loaded when it's not deferred
+                if (type.getTypeCategory() != XSTypeDefinition.COMPLEX_TYPE || expandingTypes.contains(type) || isDeferred(stack.size() + 1)) {
+                    continue;
+                }
+
+                var count = depthLimited ? null : particleCounts.get(type);
+
+                if (count != null) {
+                    typeCount.count = saturatedAdd(typeCount.count, count);
+                } else {
+                    expandingTypes.add(type);
+                    stack.push(new TypeCount(type, templateOf(type).getElementParticles()));
+                }
+            } else {
+                stack.pop();
+                expandingTypes.remove(typeCount.type);
+
+                if (!depthLimited) {
+                    particleCounts.put(typeCount.type, typeCount.count);
+                }
+
+                if (!stack.isEmpty()) {
+                    stack.peek().count = saturatedAdd(stack.peek().count, typeCount.count);
+                }
+            }
+        }
+
+        return rootCount.count;
+    }
+
+    private XsdTypeTemplate templateOf(XSTypeDefinition typeDefinition) {
+        // the template is projected like any other template, but the lookup isn't counted as a hit of the projection
+        return typeTemplates.computeIfAbsent(typeDefinition, key -> XsdTypeTemplate.of(key, stringPool));
+    }
+
+    private static long saturatedAdd(long value, long addition) {
+        var result = value + addition;
+
+        return result < 0 ? Long.MAX_VALUE : result;
+    }
+
+    //endregion
+
+    private static final class TypeCount {
+        private final XSTypeDefinition type;
+        private final Iterator<XSParticleDecl> particles;
+
+        private long count;
+
+        private TypeCount(XSTypeDefinition type, List<XSParticleDecl> particles) {
+            this.type = type;
+            this.particles = particles.iterator();
+        }
+    }
+
+    private static final class PendingElement {
+        private final XsdElement element;
+        private final XsdTypeTemplate template;
+
+        private PendingElement(XsdElement element, XsdTypeTemplate template) {
+            this.element = element;
+            this.template = template;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import com.compare.xsd.comparison.model.xsd.XsdFacets;
+import com.compare.xsd.comparison.model.xsd.XsdNode;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.util.Assert;
+
+import java.util.*;
+
+/**
+ * Columnar store of the projected node tree of a compact loaded {@link XsdDocument}.
+ * Each element and attribute is identified by an int id into primitive column arrays, the strings are kept once in a shared string table
+ * and the facet sets are shared between all nodes which use the same facets. The inner nodes of an element have consecutive ids,
+ * so each element only stores the offset and the count of its child elements and attributes, together with the id of its parent.
+ * The structural hash of each element is stored as well, so the created elements can still be compared by their structure.
+ * <p>
+ * The {@link XsdElement} objects of the stored nodes are only created when the inner nodes of their parent are requested,
+ * and the parent only holds the created {@link InnerNodes} weakly. The object graph therefore only exists for the parts of the tree
+ * which are actually in use, and is created again from the store once it has been released.
+ * The store is populated root element by root element, after which it should be trimmed. The store is not thread-safe.
+ */
+final class XsdNodeStore {
+    private static final int NULL = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final NodeColumns elementColumns = new NodeColumns();
+    private final NodeColumns attributeColumns = new NodeColumns();
+    private final List<String> strings = new ArrayList<>();
+    private final List<XsdFacets> facets = new ArrayList<>();
+
+    private int[] parentIds = new int[INITIAL_CAPACITY];
+    private int[] firstElement = new int[INITIAL_CAPACITY];
+    private int[] elementCount = new int[INITIAL_CAPACITY];
+    private int[] firstAttribute = new int[INITIAL_CAPACITY];
+    private int[] attributeCount = new int[INITIAL_CAPACITY];
+    private long[] structureHashes = new long[INITIAL_CAPACITY];
+    private Map<String, Integer> stringIds = new HashMap<>();
+    private Map<XsdFacets, Integer> facetIds = new HashMap<>();
+
+    //region Getters & Setters
+
+    /**
+     * Get the number of elements in this store.
+     *
+     * @return Returns the number of stored elements.
+     */
+    int getElementCount() {
+        return elementColumns.size;
+    }
+
+    /**
+     * Get the number of attributes in this store.
+     *
+     * @return Returns the number of stored attributes.
+     */
+    int getAttributeCount() {
+        return attributeColumns.size;
+    }
+
+    /**
+     * Get the number of distinct strings in the string table of this store.
+     *
+     * @return Returns the number of stored strings.
+     */
+    int getStringCount() {
+        return strings.size();
+    }
+
+    /**
+     * Get the id of the parent element of the element with the given id.
+     * Inner nodes which are shared by a recursive element always have the ancestor from which they're shared as parent.
+     *
+     * @param id Set the id of the element in this store.
+     * @return Returns the id of the parent element, or -1 for a root element.
+     */
+    int getParentId(int id) {
+        return parentIds[id];
+    }
+
+    //endregion
+
+    //region Methods
+
+    /**
+     * Append the given root element and all its loaded inner nodes to this store.
+     * The inner nodes are stored breadth first, so the child elements and attributes of each element have consecutive ids.
+     * A recursive element which isn't loaded shares the inner nodes of the ancestor from which it would copy them.
+     *
+     * @param root Set the detached root element to append.
+     * @return Returns the id of the root element in this store.
+     */
+    int append(XsdElement root) {
+        Assert.notNull(root, "root cannot be null");
+        Assert.state(stringIds != null, "node store has already been trimmed");
+        var ids = new IdentityHashMap<XsdElement, Integer>();
+        var queue = new ArrayDeque<XsdElement>();
+        var rootId = addElement(root, NULL);
+
+        ids.put(root, rootId);
+        queue.add(root);
+
+        while (!queue.isEmpty()) {
+            var element = queue.poll();
+            int id = ids.get(element);
+
+            if (!element.isLoaded()) {
+                // the ancestor has been stored before its descendants, so its inner nodes already have their ids
+                var prototypeId = ids.get(element.getPrototype());
+
+                Assert.state(prototypeId != null, "element " + element.getName() + " can only be stored when it's loaded or copies an ancestor");
+                firstElement[id] = firstElement[prototypeId];
+                elementCount[id] = elementCount[prototypeId];
+                firstAttribute[id] = firstAttribute[prototypeId];
+                attributeCount[id] = attributeCount[prototypeId];
+                continue;
+            }
+
+            firstAttribute[id] = attributeColumns.size;
+            attributeCount[id] = element.getAttributes().size();
+
+            for (XsdAttribute attribute : element.getAttributes()) {
+                attributeColumns.add(attribute);
+            }
+
+            firstElement[id] = elementColumns.size;
+            elementCount[id] = element.getElements().size();
+
+            for (XsdElement child : element.getElements()) {
+                ids.put(child, addElement(child, id));
+                queue.add(child);
+            }
+        }
+
+        return rootId;
+    }
+
+    /**
+     * Release the lookup tables which are only needed while populating this store and trim the columns to their size.
+     * No nodes can be appended anymore once the store has been trimmed.
+     */
+    void trim() {
+        stringIds = null;
+        facetIds = null;
+        ((ArrayList<String>) strings).trimToSize();
+        ((ArrayList<XsdFacets>) facets).trimToSize();
+        elementColumns.trim();
+        attributeColumns.trim();
+        parentIds = Arrays.copyOf(parentIds, elementColumns.size);
+        firstElement = Arrays.copyOf(firstElement, elementColumns.size);
+        elementCount = Arrays.copyOf(elementCount, elementColumns.size);
+        firstAttribute = Arrays.copyOf(firstAttribute, elementColumns.size);
+        attributeCount = Arrays.copyOf(attributeCount, elementColumns.size);
+        structureHashes = Arrays.copyOf(structureHashes, elementColumns.size);
+    }
+
+    /**
+     * Create the element for the given id.
+     * The inner nodes of the element are created when they're requested for the first time.
+     *
+     * @param parent Set the parent node of the element.
+     * @param id     Set the id of the element in this store.
+     * @return Returns the created element.
+     */
+    XsdElement createElement(AbstractXsdElementNode parent, int id) {
+        return new XsdElement(parent, this, id);
+    }
+
+    /**
+     * Load the stored properties of the element with the given id into the given element.
+     *
+     * @param id      Set the id of the element in this store.
+     * @param element Set the element to load the properties into.
+     */
+    void loadProperties(int id, XsdElement element) {
+        elementColumns.load(id, element);
+        // a recursive element shares the inner nodes of its ancestor, which is the parent of those inner nodes
+        element.setRecursive(elementCount[id] > 0 && parentIds[firstElement[id]] != id);
+        element.setStructureHash(structureHashes[id]);
+    }
+
+    /**
+     * Check if the element with the given id has any inner nodes.
+     *
+     * @param id Set the id of the element in this store.
+     * @return Returns true if the element has child elements or attributes, else false.
+     */
+    boolean hasInnerNodes(int id) {
+        return elementCount[id] > 0 || attributeCount[id] > 0;
+    }
+
+    /**
+     * Create the attributes and child elements of the element with the given id.
+     * The created nodes aren't added to the given element, which should only hold them weakly.
+     *
+     * @param element Set the element of which the inner nodes are created.
+     * @param id      Set the id of the element in this store.
+     * @return Returns the created inner nodes.
+     */
+    InnerNodes createInnerNodes(XsdElement element, int id) {
+        var attributes = new ArrayList<XsdAttribute>(attributeCount[id]);
+        var elements = new ArrayList<XsdElement>(elementCount[id]);
+
+        for (int i = firstAttribute[id]; i < firstAttribute[id] + attributeCount[id]; i++) {
+            var attribute = new XsdAttribute(element);
+
+            attributeColumns.load(i, attribute);
+            attributes.add(attribute);
+        }
+
+        for (int i = firstElement[id]; i < firstElement[id] + elementCount[id]; i++) {
+            elements.add(createElement(element, i));
+        }
+
+        return new InnerNodes(attributes, elements);
+    }
+
+    //endregion
+
+    //region Functions
+
+    private int addElement(XsdElement element, int parentId) {
+        var id = elementColumns.add(element);
+
+        if (id == firstElement.length) {
+            var capacity = firstElement.length * 2;
+
+            parentIds = Arrays.copyOf(parentIds, capacity);
+            firstElement = Arrays.copyOf(firstElement, capacity);
+            elementCount = Arrays.copyOf(elementCount, capacity);
+            firstAttribute = Arrays.copyOf(firstAttribute, capacity);
+            attributeCount = Arrays.copyOf(attributeCount, capacity);
+            structureHashes = Arrays.copyOf(structureHashes, capacity);
+        }
+
+        parentIds[id] = parentId;
+        structureHashes[id] = element.getStructureHash();
+        return id;
+    }
+
+    private int stringId(String value) {
+        if (value == null) {
+            return NULL;
+        }
+
+        return stringIds.computeIfAbsent(value, e -> {
+            strings.add(e);
+            return strings.size() - 1;
+        });
+    }
+
+    private String string(int id) {
+        return id != NULL ? strings.get(id) : null;
+    }
+
+    private int facetsId(XsdFacets value) {
+        return facetIds.computeIfAbsent(value, e -> {
+            facets.add(e);
+            return facets.size() - 1;
+        });
+    }
+
+    private static int toColumnValue(Integer value) {
+        return value != null ? value : NULL;
+    }
+
+    private static Integer fromColumnValue(int value) {
+        return value != NULL ? value : null;
+    }
+
+    //endregion
+
+    /**
+     * The inner nodes which have been created from the store for an element.
+     * The element only holds its inner nodes weakly, while each created node holds the inner nodes it belongs to,
+     * so the inner nodes stay the same objects for as long as any of them is in use.
+     */
+    static final class InnerNodes {
+        private final List<XsdAttribute> attributes;
+        private final List<XsdElement> elements;
+        private final List<XsdNode> nodes;
+        private final Map<String, XsdAttribute> attributeIndex = new HashMap<>();
+        private final Map<String, XsdElement> elementIndex = new HashMap<>();
+
+        private InnerNodes(List<XsdAttribute> attributes, List<XsdElement> elements) {
+            var nodes = new ArrayList<XsdNode>(attributes.size() + elements.size());
+
+            this.attributes = Collections.unmodifiableList(attributes);
+            this.elements = Collections.unmodifiableList(elements);
+
+            // the first node with a given name wins, which is in line with the index of a loaded element
+            for (XsdAttribute attribute : attributes) {
+                attribute.siblingNodes = this;
+                indexNode(attributeIndex, attribute);
+            }
+
+            for (XsdElement element : elements) {
+                element.siblingNodes = this;
+                indexNode(elementIndex, element);
+            }
+
+            nodes.addAll(attributes);
+            nodes.addAll(elements);
+            this.nodes = Collections.unmodifiableList(nodes);
+        }
+
+        List<XsdAttribute> getAttributes() {
+            return attributes;
+        }
+
+        List<XsdElement> getElements() {
+            return elements;
+        }
+
+        List<XsdNode> getNodes() {
+            return nodes;
+        }
+
+        /**
+         * Find the attribute by the given name.
+         *
+         * @param name Set the name of the attribute.
+         * @return Returns the found attribute, or null if none of the attributes has the given name.
+         */
+        XsdAttribute findAttribute(String name) {
+            return attributeIndex.get(AbstractXsdElementNode.toIndexKey(name));
+        }
+
+        /**
+         * Find the child element by the given name.
+         *
+         * @param name Set the name of the element.
+         * @return Returns the found element, or null if none of the child elements has the given name.
+         */
+        XsdElement findElement(String name) {
+            return elementIndex.get(AbstractXsdElementNode.toIndexKey(name));
+        }
+
+        private static <T extends AbstractXsdNode> void indexNode(Map<String, T> index, T node) {
+            if (StringUtils.isNotEmpty(node.getName())) {
+                index.putIfAbsent(AbstractXsdElementNode.toIndexKey(node.getName()), node);
+            }
+        }
+    }
+
+    /**
+     * The columns of the properties which are shared by elements and attributes.
+     */
+    private final class NodeColumns {
+        private int size;
+        private int[] names = new int[INITIAL_CAPACITY];
+        private int[] namespaces = new int[INITIAL_CAPACITY];
+        private int[] types = new int[INITIAL_CAPACITY];
+        private int[] fixedValues = new int[INITIAL_CAPACITY];
+        private int[] minOccurrences = new int[INITIAL_CAPACITY];
+        private int[] maxOccurrences = new int[INITIAL_CAPACITY];
+        private int[] nodeFacets = new int[INITIAL_CAPACITY];
+
+        private int add(AbstractXsdNode node) {
+            if (size == names.length) {
+                resize(size * 2);
+            }
+
+            names[size] = stringId(node.getName());
+            namespaces[size] = stringId(node.getNamespace());
+            types[size] = stringId(node.getType());
+            fixedValues[size] = stringId(node.getFixedValue());
+            minOccurrences[size] = toColumnValue(node.getMinOccurrence());
+            maxOccurrences[size] = toColumnValue(node.getMaxOccurrence());
+            nodeFacets[size] = facetsId(node.getFacets());
+
+            return size++;
+        }
+
+        private void load(int id, AbstractXsdNode node) {
+            node.setName(string(names[id]));
+            node.setNamespace(string(namespaces[id]));
+            node.setType(string(types[id]));
+            node.setFixedValue(string(fixedValues[id]));
+            node.setMinOccurrence(fromColumnValue(minOccurrences[id]));
+            node.setMaxOccurrence(fromColumnValue(maxOccurrences[id]));
+            node.setFacets(facets.get(nodeFacets[id]));
+        }
+
+        private void trim() {
+            resize(size);
+        }
+
+        private void resize(int capacity) {
+            names = Arrays.copyOf(names, capacity);
+            namespaces = Arrays.copyOf(namespaces, capacity);
+            types = Arrays.copyOf(types, capacity);
+            fixedValues = Arrays.copyOf(fixedValues, capacity);
+            minOccurrences = Arrays.copyOf(minOccurrences, capacity);
+            maxOccurrences = Arrays.copyOf(maxOccurrences, capacity);
+            nodeFacets = Arrays.copyOf(nodeFacets, capacity);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.xerces.dom.DOMInputImpl;
+import org.apache.xerces.impl.XMLEntityManager;
+import org.apache.xerces.util.URI;
+import org.springframework.util.Assert;
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSResourceResolver;
+
+import javax.xml.catalog.Catalog;
+import javax.xml.catalog.CatalogFeatures;
+import javax.xml.catalog.CatalogManager;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resolves the schemas which are imported, included or redefined by an XSD document.
+ * The schema locations are first mapped through the configured XML catalogs, which allows remote schema locations
+ * to be served from a local mirror. A namespace import without a schema location is resolved through the uri entries of the catalogs.
+ * <p>
+ * The content of each resolved schema is kept in memory, so repeated loads don't read the same files or remote locations again.
+ * The cached content of a local file is verified against the last modified timestamp of the file.
+ * The resolver can be shared between the loads of multiple documents and is thread-safe.
+ */
+@Slf4j
+public class XsdResourceResolver implements LSResourceResolver {
+    private static final String FILE_SCHEME = "file";
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final int READ_TIMEOUT = 10000;
+
+    private final Catalog catalog;
+    private final Map<String, CachedResource> resources = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+
+    //region Constructors
+
+    /**
+     * Initialize a new instance of {@link XsdResourceResolver} which doesn't use any XML catalog.
+     */
+    public XsdResourceResolver() {
+        this.catalog = null;
+    }
+
+    /**
+     * Initialize a new instance of {@link XsdResourceResolver} with the given XML catalogs.
+     * Catalog files which don't exist are ignored.
+     *
+     * @param catalogFiles Set the OASIS XML catalog files which map schema locations and namespaces to local mirrors.
+     */
+    public XsdResourceResolver(List<File> catalogFiles) {
+        Assert.notNull(catalogFiles, "catalogFiles cannot be null");
+        var catalogs = catalogFiles.stream()
+                .filter(File::isFile)
+                .map(File::toURI)
+                .toArray(java.net.URI[]::new);
+
+        if (catalogs.length > 0) {
+            log.debug("Resolving schema locations through {} xml catalogs", catalogs.length);
+            this.catalog = CatalogManager.catalog(CatalogFeatures.builder()
+                    .with(CatalogFeatures.Feature.RESOLVE, "continue")
+                    .build(), catalogs);
+        } else {
+            this.catalog = null;
+        }
+    }
+
+    //endregion
+
+    //region Getters & Setters
+
+    /**
+     * Check if the schema locations are mapped through an XML catalog.
+     * A schema which is resolved through a catalog might be read from another file than its schema location refers to.
+     *
+     * @return Returns true if at least one catalog has been configured, else false.
+     */
+    public boolean hasCatalog() {
+        return catalog != null;
+    }
+
+    /**
+     * Get the number of resolved schemas which are kept in memory.
+     *
+     * @return Returns the number of cached schemas.
+     */
+    public int getSize() {
+        return resources.size();
+    }
+
+    /**
+     * Get the number of times a schema has been served from memory.
+     *
+     * @return Returns the number of cache hits.
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    //endregion
+
+    //region LSResourceResolver
+
+    @Override
+    public LSInput resolveResource(String type, String namespaceURI, String publicId, String systemId, String baseURI) {
+        var location = resolveLocation(namespaceURI, publicId, systemId, baseURI);
+
+        if (location == null) {
+            return null;
+        }
+
+        try {
+            var resource = resources.get(location);
+
+            if (resource != null && resource.lastModified == lastModified(location)) {
+                hits.incrementAndGet();
+            } else {
+                log.trace("Reading schema {}", location);
+                resource = new CachedResource(read(location), lastModified(location));
+                resources.put(location, resource);
+            }
+
+            return new DOMInputImpl(publicId, location, null, new ByteArrayInputStream(resource.content), null);
+        } catch (IOException ex) {
+            // the schema loader will report the unresolvable location while trying to read it itself
+            log.warn("Unable to read schema {}, {}", location, ex.getMessage());
+            resources.remove(location);
+            return null;
+        }
+    }
+
+    //endregion
+
+    //region Methods
+
+    /**
+     * Remove all schemas from memory.
+     */
+    public void clear() {
+        resources.clear();
+    }
+
+    //endregion
+
+    //region Functions
+
+    private String resolveLocation(String namespaceURI, String publicId, String systemId, String baseURI) {
+        if (systemId == null) {
+            return catalog != null && namespaceURI != null ? catalog.matchURI(namespaceURI) : null;
+        }
+
+        var location = expand(systemId, baseURI);
+
+        if (catalog != null) {
+            var mirror = firstNonNull(
+                    catalog.matchSystem(systemId),
+                    catalog.matchURI(systemId),
+                    location != null ? catalog.matchSystem(location) : null,
+                    location != null ? catalog.matchURI(location) : null,
+                    publicId != null ? catalog.matchPublic(publicId) : null);
+
+            if (mirror != null) {
+                log.trace("Resolved schema location {} to {}", systemId, mirror);
+                return mirror;
+            }
+        }
+
+        return location;
+    }
+
+    private static String expand(String systemId, String baseURI) {
+        try {
+            return XMLEntityManager.expandSystemId(systemId, baseURI, false);
+        } catch (URI.MalformedURIException ex) {
+            log.trace("Unable to expand schema location " + systemId, ex);
+            return null;
+        }
+    }
+
+    private static byte[] read(String location) throws IOException {
+        var connection = new java.net.URL(location).openConnection();
+
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+
+        try (var input = connection.getInputStream()) {
+            return input.readAllBytes();
+        }
+    }
+
+    private static long lastModified(String location) {
+        try {
+            var uri = new java.net.URI(location);
+
+            return FILE_SCHEME.equalsIgnoreCase(uri.getScheme()) ? new File(uri).lastModified() : 0;
+        } catch (Exception ex) {
+            return 0;
+        }
+    }
+
+    private static String firstNonNull(String... values) {
+        for (String value : values) {
+            if (value != null) {
+                return value;
+            }
+        }
+
+        return null;
+    }
+
+    //endregion
+
+    private static final class CachedResource {
+        private final byte[] content;
+        private final long lastModified;
+
+        private CachedResource(byte[] content, long lastModified) {
+            this.content = content;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import com.compare.xsd.comparison.model.xsd.XsdFacets;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Pool which deduplicates the string values and facets of the nodes during the load of a single {@link XsdDocument}.
+ * The names of a parsed schema are already shared by Xerces, so a parsed load mostly shares the facet sets and enumerations of equal types.
+ * The values of a document which is restored by {@link XsdDocumentCodec} are read as separate copies, of which each distinct value is only retained once.
+ * The pool is not thread-safe and should not outlive the load.
+ */
+class XsdStringPool {
+    private final Map<String, String> strings = new HashMap<>();
+    private final Map<List<String>, List<String>> lists = new HashMap<>();
+    private final Map<XsdFacets, XsdFacets> facets = new HashMap<>();
+
+    private int hits;
+
+    //region Getters & Setters
+
+    /**
+     * Get the number of distinct strings in this pool.
+     *
+     * @return Returns the number of pooled strings.
+     */
+    int getSize() {
+        return strings.size();
+    }
+
+    /**
+     * Get the number of times a string, list or facet set has been replaced by the pooled instance.
+     *
+     * @return Returns the number of pool hits.
+     */
+    int getHits() {
+        return hits;
+    }
+
+    //endregion
+
+    //region Methods
+
+    /**
+     * Get the pooled instance of the given value.
+     *
+     * @param value Set the value to pool (can be null).
+     * @return Returns the pooled instance which is equal to the value, or null if the value is null.
+     */
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        var pooledValue = strings.putIfAbsent(value, value);
+
+        if (pooledValue == null) {
+            return value;
+        }
+
+        hits++;
+        return pooledValue;
+    }
+
+    /**
+     * Get the pooled instance of the given list of values.
+     * The returned list is unmodifiable, as it's shared between all nodes with the same values.
+     *
+     * @param values Set the values to pool.
+     * @return Returns the pooled unmodifiable list which is equal to the values.
+     */
+    List<String> internList(List<String> values) {
+        if (values.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        var pooledValues = lists.get(values);
+
+        if (pooledValues == null) {
+            pooledValues = values.stream()
+                    .map(this::intern)
+                    .collect(Collectors.toUnmodifiableList());
+            lists.put(pooledValues, pooledValues);
+        } else {
+            hits++;
+        }
+
+        return pooledValues;
+    }
+
+    /**
+     * Get the pooled instance of the given facet set.
+     * The values of a facet set which is added to the pool are pooled as well.
+     *
+     * @param facets Set the facet set to pool.
+     * @return Returns the pooled facet set which is equal to the given facet set.
+     */
+    XsdFacets intern(XsdFacets facets) {
+        if (facets.isEmpty()) {
+            return XsdFacets.EMPTY;
+        }
+
+        var pooledFacets = this.facets.get(facets);
+
+        if (pooledFacets == null) {
+            pooledFacets = facets.toBuilder()
+                    .pattern(intern(facets.getPattern()))
+                    .whitespace(intern(facets.getWhitespace()))
+                    .enumeration(internList(facets.getEnumeration()))
+                    .build();
+            this.facets.put(pooledFacets, pooledFacets);
+        } else {
+            hits++;
+        }
+
+        return pooledFacets;
+    }
+
+    //endregion
+}
@@ -0,0 +1,164 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import com.compare.xsd.comparison.model.xsd.XsdFacets;
+import com.compare.xsd.comparison.model.xsd.XsdNodeTraversal;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the structural hash of the loaded subtrees of a node tree, which is a Merkle hash of the properties that are compared
+ * by a comparison (name, namespace, type, cardinality, fixed value and facets) and the hashes of the attributes and child elements.
+ * Two subtrees with the same hash will never have any modification when they're compared with each other.
+ * <p>
+ * The inner nodes of a recursive element repeat the inner nodes of an ancestor and are never compared,
+ * so the hash of a recursive element only covers its own properties. The hash of a subtree which contains an element
+ * of which the inner nodes haven't been loaded, such as the elements of a lazy loaded document, is unknown.
+ */
+final class XsdStructureHash {
+    /**
+     * The hash of a subtree of which not all inner nodes have been loaded.
+     */
+    static final long UNKNOWN = 0;
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final long NULL_VALUE = 0x9e3779b97f4a7c15L;
+    private static final long RECURSIVE_MARKER = 0x5245435552534956L;
+
+    private XsdStructureHash() {
+    }
+
+    //region Methods
+
+    /**
+     * Compute the structural hash of the given node and all its loaded inner nodes.
+     * Elements which haven't been loaded keep the hash they already have, which is the case for copies and for elements
+     * which are created from a node store.
+     *
+     * @param root Set the root node of the tree.
+     */
+    static void compute(AbstractXsdElementNode root) {
+        // the facet sets are shared between many nodes, so each set is only hashed once
+        var facetHashes = new IdentityHashMap<XsdFacets, Long>();
+
+        XsdNodeTraversal.postOrder(root, XsdStructureHash::innerElements, (node, depth) -> {
+            if (node.isLoaded() || node.isRecursive()) {
+                node.setStructureHash(hash(node, facetHashes));
+            }
+        });
+    }
+
+    //endregion
+
+    //region Functions
+
+    private static List<XsdElement> innerElements(AbstractXsdElementNode node) {
+        return node.isLoaded() && !node.isRecursive() ? node.elements : Collections.emptyList();
+    }
+
+    private static long hash(AbstractXsdElementNode node, Map<XsdFacets, Long> facetHashes) {
+        var hash = hashProperties(node, facetHashes);
+
+        if (node.isRecursive()) {
+            return finish(combine(hash, RECURSIVE_MARKER));
+        }
+
+        if (node instanceof XsdElement) {
+            var attributes = ((XsdElement) node).getAttributes();
+
+            hash = combine(hash, attributes.size());
+
+            for (XsdAttribute attribute : attributes) {
+                hash = combine(hash, hashProperties(attribute, facetHashes));
+            }
+        }
+
+        hash = combine(hash, node.elements.size());
+
+        for (XsdElement element : node.elements) {
+            if (element.getStructureHash() == UNKNOWN) {
+                return UNKNOWN;
+            }
+
+            hash = combine(hash, element.getStructureHash());
+        }
+
+        return finish(hash);
+    }
+
+    private static long hashProperties(AbstractXsdNode node, Map<XsdFacets, Long> facetHashes) {
+        var hash = OFFSET_BASIS;
+
+        hash = combine(hash, hash(node.getName()));
+        hash = combine(hash, hash(node.getNamespace()));
+        hash = combine(hash, hash(node.getType()));
+        hash = combine(hash, hash(node.getFixedValue()));
+        hash = combine(hash, hash(node.getMinOccurrence()));
+        hash = combine(hash, hash(node.getMaxOccurrence()));
+        hash = combine(hash, facetHashes.computeIfAbsent(node.getFacets(), XsdStructureHash::hash));
+
+        return hash;
+    }
+
+    private static long hash(XsdFacets facets) {
+        var hash = OFFSET_BASIS;
+
+        hash = combine(hash, hash(facets.getLength()));
+        hash = combine(hash, hash(facets.getMinLength()));
+        hash = combine(hash, hash(facets.getMaxLength()));
+        hash = combine(hash, hash(facets.getPattern()));
+        hash = combine(hash, hash(facets.getWhitespace()));
+        hash = combine(hash, facets.getEnumeration().size());
+
+        for (String value : facets.getEnumeration()) {
+            hash = combine(hash, hash(value));
+        }
+
+        return hash;
+    }
+
+    private static long hash(String value) {
+        if (value == null) {
+            return NULL_VALUE;
+        }
+
+        // 64-bit FNV-1a, as the 32-bit hash code of a string collides far too easily to identify a subtree
+        var hash = OFFSET_BASIS;
+
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * PRIME;
+        }
+
+        return hash;
+    }
+
+    private static long hash(Integer value) {
+        return value != null ? value : NULL_VALUE;
+    }
+
+    private static long combine(long hash, long value) {
+        return (hash ^ mix(value)) * PRIME;
+    }
+
+    private static long finish(long hash) {
+        var result = mix(hash);
+
+        // the unknown hash is reserved for subtrees which haven't been loaded
+        return result != UNKNOWN ? result : 1;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+
+        return value;
+    }
+
+    //endregion
+}
@@ -0,0 +1,191 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import com.compare.xsd.comparison.model.xsd.XsdFacets;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.xerces.impl.xs.XSAttributeUseImpl;
+import org.apache.xerces.impl.xs.XSComplexTypeDecl;
+import org.apache.xerces.impl.xs.XSModelGroupImpl;
+import org.apache.xerces.impl.xs.XSParticleDecl;
+import org.apache.xerces.xs.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The projection of a Xerces type definition into the values used by the XSD nodes.
+ * A template is created once per type definition during a load and is shared by all nodes which use the type.
+ */
+@Slf4j
+@Getter
+class XsdTypeTemplate {
+    private static final String SCHEMA_DEFINITION = "http://www.w3.org/2001/XMLSchema";
+
+    private final List<XSParticleDecl> elementParticles = new ArrayList<>();
+    private final List<XSAttributeUseImpl> attributeUses = new ArrayList<>();
+
+    private String type;
+    private XsdFacets facets = XsdFacets.EMPTY;
+
+    //region Constructors
+
+    private XsdTypeTemplate() {
+    }
+
+    //endregion
+
+    //region Methods
+
+    /**
+     * Create a new template for the given type definition.
+     *
+     * @param typeDefinition Set the type definition to project.
+     * @param stringPool     Set the pool of the load which deduplicates the projected values.
+     * @return Returns the template of the type definition.
+     */
+    static XsdTypeTemplate of(XSTypeDefinition typeDefinition, XsdStringPool stringPool) {
+        var template = new XsdTypeTemplate();
+
+        if (typeDefinition.getTypeCategory() == XSTypeDefinition.COMPLEX_TYPE) {
+            template.loadComplexType((XSComplexTypeDecl) typeDefinition);
+        } else if (typeDefinition.getTypeCategory() == XSTypeDefinition.SIMPLE_TYPE) {
+            template.loadSimpleType((XSSimpleTypeDefinition) typeDefinition);
+        } else {
+            log.warn("Unknown type category " + typeDefinition.getTypeCategory());
+        }
+
+        template.intern(stringPool);
+
+        return template;
+    }
+
+    /**
+     * Get the element particles of the type.
+     * The particles of nested model groups are flattened in document order.
+     *
+     * @return Returns the element particles of the type.
+     */
+    public List<XSParticleDecl> getElementParticles() {
+        return Collections.unmodifiableList(elementParticles);
+    }
+
+    /**
+     * Get the attribute uses of the type.
+     *
+     * @return Returns the attribute uses of the type.
+     */
+    public List<XSAttributeUseImpl> getAttributeUses() {
+        return Collections.unmodifiableList(attributeUses);
+    }
+
+    //endregion
+
+    //region Functions
+
+    private void intern(XsdStringPool stringPool) {
+        this.type = stringPool.intern(type);
+        this.facets = stringPool.intern(facets);
+    }
+
+    private void loadComplexType(XSComplexTypeDecl complexType) {
+        var particle = (XSParticleDecl) complexType.getParticle();
+        var attributes = complexType.getAttributeUses();
+
+        if (particle != null) {
+            processComplexGroup((XSModelGroupImpl) particle.getTerm());
+        } else {
+            loadType(complexType);
+        }
+
+        if (CollectionUtils.isNotEmpty(attributes)) {
+            for (Object attribute : attributes) {
+                attributeUses.add((XSAttributeUseImpl) attribute);
+            }
+        }
+    }
+
+    private void processComplexGroup(XSModelGroupImpl group) {
+        var children = group.getParticles();
+
+        for (Object childItem : children) {
+            if (childItem instanceof XSParticle) {
+                XSParticleDecl child = (XSParticleDecl) childItem;
+
+                if (child.getTerm() instanceof XSElementDeclaration) {
+                    elementParticles.add(child);
+                } else if (child.getTerm() instanceof XSModelGroupImpl) {
+                    processComplexGroup((XSModelGroupImpl) child.getTerm());
+                }
+            }
+        }
+    }
+
+    private void loadType(XSTypeDefinition typeDefinition) {
+        while (typeDefinition.getBaseType() != null && !isTypeDefinitionDefaultXsdSchemaDefinition(typeDefinition)) {
+            typeDefinition = typeDefinition.getBaseType();
+        }
+
+        this.type = typeDefinition.getName();
+    }
+
+    private void loadSimpleType(XSSimpleTypeDefinition simpleType) {
+        var facetsBuilder = XsdFacets.builder();
+        var enumeration = new ArrayList<String>();
+
+        loadType(simpleType);
+
+        for (Object facetObject : simpleType.getFacets()) {
+            var facet = (XSFacet) facetObject;
+
+            switch (facet.getFacetKind()) {
+                case XSSimpleTypeDefinition.FACET_LENGTH:
+                    facetsBuilder.length(Integer.valueOf(facet.getLexicalFacetValue()));
+                    break;
+                case XSSimpleTypeDefinition.FACET_MINLENGTH:
+                    facetsBuilder.minLength(Integer.valueOf(facet.getLexicalFacetValue()));
+                    break;
+                case XSSimpleTypeDefinition.FACET_MAXLENGTH:
+                    facetsBuilder.maxLength(Integer.valueOf(facet.getLexicalFacetValue()));
+                    break;
+                case XSSimpleTypeDefinition.FACET_PATTERN:
+                    facetsBuilder.pattern(facet.getLexicalFacetValue());
+                    break;
+                case XSSimpleTypeDefinition.FACET_WHITESPACE:
+                    facetsBuilder.whitespace(facet.getLexicalFacetValue());
+                    break;
+                default:
+                    log.warn("Facet type " + facet.getFacetKind() + " is not implemented at the moment");
+                    break;
+            }
+        }
+
+        for (Object facetObject : simpleType.getMultiValueFacets()) {
+            var facet = (XSMultiValueFacet) facetObject;
+
+            switch (facet.getFacetKind()) {
+                case XSSimpleTypeDefinition.FACET_ENUMERATION:
+                    enumeration.addAll(facet.getLexicalFacetValues());
+                    break;
+                case XSSimpleTypeDefinition.FACET_PATTERN:
+                    facetsBuilder.pattern(String.join(", ", facet.getLexicalFacetValues()));
+                    break;
+                default:
+                    log.warn("Multi facet value type " + facet.getFacetKind() + " is not implemented at the moment");
+                    break;
+            }
+        }
+
+        this.facets = facetsBuilder
+                .enumeration(enumeration)
+                .build();
+    }
+
+    private static boolean isTypeDefinitionDefaultXsdSchemaDefinition(XSTypeDefinition typeDefinition) {
+        return Objects.equals(typeDefinition.getNamespace(), SCHEMA_DEFINITION);
+    }
+
+    //endregion
+}
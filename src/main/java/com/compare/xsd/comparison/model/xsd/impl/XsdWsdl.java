@@ -0,0 +1,328 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.xerces.dom.DOMInputImpl;
+import org.apache.xerces.impl.XMLEntityManager;
+import org.apache.xerces.util.URI;
+import org.springframework.util.Assert;
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSResourceResolver;
+
+import javax.xml.stream.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The XSD schemas which are embedded in a WSDL file.
+ * The WSDL is streamed once, during which each embedded schema is copied into memory together with the namespace declarations
+ * of its WSDL ancestors, so the QName references of the schema still resolve. The WSDL itself is never loaded into a DOM.
+ * <p>
+ * The embedded schemas are combined by a generated root schema which imports each of them, so they're loaded as a single schema model.
+ * Embedded schemas import each other by namespace, and relative schema locations are resolved against the location of the WSDL file.
+ */
+@Slf4j
+final class XsdWsdl implements LSResourceResolver {
+    static final String EXTENSION = ".wsdl";
+
+    private static final String XSD_NAMESPACE = "http://www.w3.org/2001/XMLSchema";
+    private static final String SCHEMA_ELEMENT = "schema";
+    private static final String TARGET_NAMESPACE_ATTRIBUTE = "targetNamespace";
+    private static final String ROOT_NAMESPACE = "urn:xsd-compare:wsdl";
+    private static final String SCHEMA_FRAGMENT = "#schema";
+    private static final String NAMESPACE_FRAGMENT = "#namespace";
+
+    /**
+     * The WSDL file.
+     */
+    @Getter
+    private final File file;
+    /**
+     * The system identifier of the generated root schema, which is the location of the WSDL file.
+     */
+    @Getter
+    private final String systemId;
+    private final Map<String, EmbeddedSchema> schemas = new LinkedHashMap<>();
+    private final Map<String, String> namespaceLocations = new HashMap<>();
+
+    private int embeddedSchemas;
+    private byte[] rootSchema;
+
+    //region Constructors
+
+    /**
+     * Initialize a new instance of {@link XsdWsdl} by extracting the embedded schemas of the given WSDL file.
+     *
+     * @param file Set the WSDL file to read.
+     * @throws IOException Is thrown when the file couldn't be read or isn't a well-formed XML document.
+     */
+    XsdWsdl(File file) throws IOException {
+        Assert.notNull(file, "file cannot be null");
+        this.file = file;
+        this.systemId = file.getAbsoluteFile().toURI().toString();
+
+        try (var input = new BufferedInputStream(new FileInputStream(file))) {
+            extract(input);
+        } catch (XMLStreamException ex) {
+            throw new IOException("Invalid WSDL " + file.getAbsolutePath() + ", " + ex.getMessage(), ex);
+        }
+
+        createRootSchema();
+    }
+
+    //endregion
+
+    //region Getters & Setters
+
+    /**
+     * Get the number of schemas which are embedded in the WSDL.
+     *
+     * @return Returns the number of embedded schemas.
+     */
+    int getSchemaCount() {
+        return embeddedSchemas;
+    }
+
+    //endregion
+
+    //region LSResourceResolver
+
+    @Override
+    public LSInput resolveResource(String type, String namespaceURI, String publicId, String systemId, String baseURI) {
+        var location = systemId != null ? expand(systemId, baseURI) : namespaceLocations.get(namespaceKey(namespaceURI));
+        var schema = location != null ? schemas.get(location) : null;
+
+        if (schema == null) {
+            return null;
+        }
+
+        log.trace("Resolved embedded schema {} of {}", location, file);
+        return new DOMInputImpl(publicId, location, baseURI, new ByteArrayInputStream(schema.content), null);
+    }
+
+    //endregion
+
+    //region Methods
+
+    /**
+     * Open the generated root schema, which imports all embedded schemas.
+     *
+     * @return Returns the input stream of the root schema.
+     */
+    InputStream openRootSchema() {
+        return new ByteArrayInputStream(rootSchema);
+    }
+
+    /**
+     * Check if the given file is a WSDL file, based on the extension of the path which is loaded.
+     *
+     * @param file Set the file to check.
+     * @return Returns true if the file is a WSDL file, else false.
+     */
+    static boolean isWsdl(File file) {
+        var path = file.getAbsolutePath();
+
+        return path != null && path.toLowerCase(Locale.ROOT).endsWith(EXTENSION);
+    }
+
+    //endregion
+
+    //region Functions
+
+    private void extract(InputStream input) throws XMLStreamException {
+        var inputFactory = XMLInputFactory.newFactory();
+
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+
+        var reader = inputFactory.createXMLStreamReader(input);
+        // the namespace declarations of the ancestors of the current element, from the innermost to the outermost element
+        var namespaces = new ArrayDeque<Map<String, String>>();
+
+        try {
+            while (reader.hasNext()) {
+                var event = reader.next();
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (XSD_NAMESPACE.equals(reader.getNamespaceURI()) && SCHEMA_ELEMENT.equals(reader.getLocalName())) {
+                        // the schema element is copied including its end element, so it's never pushed onto the namespace stack
+                        addSchema(reader.getAttributeValue(null, TARGET_NAMESPACE_ATTRIBUTE), copySchema(reader, namespaces));
+                    } else {
+                        namespaces.push(readNamespaces(reader));
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    namespaces.pop();
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private byte[] copySchema(XMLStreamReader reader, Deque<Map<String, String>> ancestorNamespaces) throws XMLStreamException {
+        var output = new ByteArrayOutputStream();
+        var writer = XMLOutputFactory.newFactory().createXMLStreamWriter(output, StandardCharsets.UTF_8.name());
+        var inScopeNamespaces = new LinkedHashMap<String, String>();
+        var depth = 0;
+
+        // the outermost declarations are applied first, so the declarations of the inner elements override them
+        for (Iterator<Map<String, String>> iterator = ancestorNamespaces.descendingIterator(); iterator.hasNext(); ) {
+            inScopeNamespaces.putAll(iterator.next());
+        }
+
+        inScopeNamespaces.putAll(readNamespaces(reader));
+        writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+
+        do {
+            switch (reader.getEventType()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    writeStartElement(reader, writer, depth == 0 ? inScopeNamespaces : readNamespaces(reader));
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    writer.writeEndElement();
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    writer.writeCharacters(reader.getText());
+                    break;
+                default:
+                    // comments and processing instructions don't affect the schema
+                    break;
+            }
+
+            if (depth > 0) {
+                reader.next();
+            }
+        } while (depth > 0);
+
+        writer.writeEndDocument();
+        writer.close();
+
+        return output.toByteArray();
+    }
+
+    private static void writeStartElement(XMLStreamReader reader, XMLStreamWriter writer, Map<String, String> namespaces) throws XMLStreamException {
+        writer.writeStartElement(nullToEmpty(reader.getPrefix()), reader.getLocalName(), nullToEmpty(reader.getNamespaceURI()));
+
+        for (Map.Entry<String, String> namespace : namespaces.entrySet()) {
+            if (namespace.getKey().isEmpty()) {
+                writer.writeDefaultNamespace(namespace.getValue());
+            } else {
+                writer.writeNamespace(namespace.getKey(), namespace.getValue());
+            }
+        }
+
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            writer.writeAttribute(nullToEmpty(reader.getAttributePrefix(i)), nullToEmpty(reader.getAttributeNamespace(i)),
+                    reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+    }
+
+    private static Map<String, String> readNamespaces(XMLStreamReader reader) {
+        var namespaces = new LinkedHashMap<String, String>();
+
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            namespaces.put(nullToEmpty(reader.getNamespacePrefix(i)), nullToEmpty(reader.getNamespaceURI(i)));
+        }
+
+        return namespaces;
+    }
+
+    private void addSchema(String targetNamespace, byte[] content) {
+        var location = systemId + SCHEMA_FRAGMENT + ++embeddedSchemas;
+
+        schemas.put(location, new EmbeddedSchema(namespaceKey(targetNamespace), content));
+        namespaceLocations.putIfAbsent(namespaceKey(targetNamespace), location);
+    }
+
+    /**
+     * Create the root schema which imports every embedded schema.
+     * A namespace can only be imported once, so the schemas which share a namespace are combined by a generated schema of that namespace
+     * which includes each of them.
+     */
+    private void createRootSchema() throws IOException {
+        if (schemas.isEmpty()) {
+            throw new IOException("No embedded schema found in " + file.getAbsolutePath());
+        }
+
+        var schemasByNamespace = new LinkedHashMap<String, List<String>>();
+        var root = new StringBuilder();
+        var namespaceSchemas = 0;
+
+        schemas.forEach((location, schema) -> schemasByNamespace.computeIfAbsent(schema.namespace, e -> new ArrayList<>()).add(location));
+        root.append("<xs:schema xmlns:xs=\"").append(XSD_NAMESPACE).append("\" targetNamespace=\"").append(ROOT_NAMESPACE).append("\">\n");
+
+        for (Map.Entry<String, List<String>> namespace : schemasByNamespace.entrySet()) {
+            var location = namespace.getValue().get(0);
+
+            if (namespace.getValue().size() > 1) {
+                location = systemId + NAMESPACE_FRAGMENT + ++namespaceSchemas;
+                schemas.put(location, new EmbeddedSchema(namespace.getKey(), createNamespaceSchema(namespace.getKey(), namespace.getValue())));
+                namespaceLocations.put(namespace.getKey(), location);
+            }
+
+            root.append("    <xs:import");
+
+            if (!namespace.getKey().isEmpty()) {
+                root.append(" namespace=\"").append(escape(namespace.getKey())).append("\"");
+            }
+
+            root.append(" schemaLocation=\"").append(escape(location)).append("\"/>\n");
+        }
+
+        this.rootSchema = root.append("</xs:schema>\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] createNamespaceSchema(String namespace, List<String> locations) {
+        var schema = new StringBuilder("<xs:schema xmlns:xs=\"" + XSD_NAMESPACE + "\"");
+
+        if (!namespace.isEmpty()) {
+            schema.append(" targetNamespace=\"").append(escape(namespace)).append("\"");
+        }
+
+        schema.append(">\n");
+
+        for (String location : locations) {
+            schema.append("    <xs:include schemaLocation=\"").append(escape(location)).append("\"/>\n");
+        }
+
+        return schema.append("</xs:schema>\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String expand(String systemId, String baseURI) {
+        try {
+            return XMLEntityManager.expandSystemId(systemId, baseURI, false);
+        } catch (URI.MalformedURIException ex) {
+            log.trace("Unable to expand schema location " + systemId, ex);
+            return null;
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;");
+    }
+
+    private static String namespaceKey(String namespace) {
+        return namespace != null ? namespace : "";
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    //endregion
+
+    private static final class EmbeddedSchema {
+        private final String namespace;
+        private final byte[] content;
+
+        private EmbeddedSchema(String namespace, byte[] content) {
+            this.namespace = namespace;
+            this.content = content;
+        }
+    }
+}
@@ -2,8 +2,12 @@ package com.compare.xsd.controllers;
 
 import com.compare.xsd.comparison.PropertyViewManager;
 import com.compare.xsd.comparison.TreeViewManager;
+import com.compare.xsd.comparison.XsdCompareOptions;
 import com.compare.xsd.comparison.XsdComparer;
+import com.compare.xsd.comparison.XsdFileWatcher;
+import com.compare.xsd.comparison.XsdLoadFuture;
 import com.compare.xsd.comparison.XsdLoader;
+import com.compare.xsd.comparison.model.xsd.XsdLoadOptions;
 import com.compare.xsd.comparison.model.xsd.XsdNode;
 import com.compare.xsd.comparison.model.xsd.impl.XsdDocument;
 import com.compare.xsd.controllers.components.MenuComponent;
@@ -26,11 +30,19 @@ import javafx.stage.Stage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.IteratorUtils;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Controller;
 
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleConsumer;
 
 @Slf4j
 @Controller
@@ -43,6 +55,13 @@ public class MainController extends ScaleAwareImpl implements Initializable, Sta
     private final SettingsService settingsService;
     private final MenuComponent menuComponent;
     private final LocaleText localeText;
+    private final TaskExecutor taskExecutor;
+    private final XsdFileWatcher fileWatcher;
+
+    /**
+     * The loads which are currently running, these are only accessed on the JavaFX thread.
+     */
+    private final List<XsdLoadFuture> runningLoads = new ArrayList<>();
 
     private XsdComparer comparer;
 
@@ -68,6 +87,8 @@ public class MainController extends ScaleAwareImpl implements Initializable, Sta
     private Label progressBarLabel;
     @FXML
     private ProgressBar progressBar;
+    @FXML
+    private Hyperlink cancelLoadLink;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -124,8 +145,14 @@ public class MainController extends ScaleAwareImpl implements Initializable, Sta
     public void onDragDropped(DragEvent event) {
         if (event.getSource() instanceof TreeTableView) {
             TreeTableView<XsdNode> source = (TreeTableView<XsdNode>) event.getSource();
+            var files = event.getDragboard().getFiles();
 
-            loadTree(treeViewManager.getRenderer(source), event.getDragboard().getFiles().get(0));
+            // when 2 files are dropped at once, they're loaded in parallel as the original and new document
+            if (files.size() > 1) {
+                loadTrees(files.get(0), files.get(1));
+            } else {
+                loadTree(treeViewManager.getRenderer(source), files.get(0));
+            }
 
             event.consume();
         } else {
@@ -133,10 +160,19 @@ public class MainController extends ScaleAwareImpl implements Initializable, Sta
         }
     }
 
+    /**
+     * Cancel all running loads.
+     */
+    public void onCancelLoad() {
+        // the list is copied as the cancelled loads remove themselves from the running loads
+        new ArrayList<>(runningLoads).forEach(e -> e.cancel(true));
+    }
+
     /**
      * Clear all tree views.
      */
     public void clearAll() {
+        fileWatcher.unwatchAll();
         treeViewManager.clearAll();
         propertyViewManager.clearAll();
         modificationsLabel.setText("");
@@ -160,7 +196,7 @@ public class MainController extends ScaleAwareImpl implements Initializable, Sta
             try {
                 setWriting();
 
-                comparisonWriter.save(comparer, comparisonWriter.showSaveDialog())
+                comparisonWriter.save(comparer.getDiff(), comparisonWriter.showSaveDialog())
                         .thenAccept(state -> {
                             Platform.runLater(() -> {
                                 if (state) {
@@ -180,19 +216,47 @@ public class MainController extends ScaleAwareImpl implements Initializable, Sta
     private void compare() {
         XsdDocument originalDocument = treeViewManager.getLeftTreeRender().getDocument();
         XsdDocument newDocument = treeViewManager.getRightTreeRender().getDocument();
-        XsdComparer comparer = new XsdComparer(originalDocument, newDocument);
 
-        setLoading();
+        setComparing();
+        compareAsync(originalDocument, newDocument)
+                .whenComplete((comparer, ex) -> Platform.runLater(() -> {
+                    if (comparer != null) {
+                        this.treeViewManager.render(comparer.getDiff()); // render the aligned documents to reflect removed and added items
+                    }
+
+                    onCompared(comparer, ex);
+                }));
+    }
+
+    private CompletableFuture<XsdComparer> compareAsync(XsdDocument originalDocument, XsdDocument newDocument) {
+        return CompletableFuture.supplyAsync(() -> compareDocuments(originalDocument, newDocument), taskExecutor);
+    }
+
+    private XsdComparer compareDocuments(XsdDocument originalDocument, XsdDocument newDocument) {
+        var options = XsdCompareOptions.parallel();
+
+        options.setDetectRenames(settingsService.getSettings().getCompareSettings().isDetectRenames());
+
+        XsdComparer comparer = new XsdComparer(originalDocument, newDocument, options);
 
-        if (comparer.compare()) {
+        return comparer.compare() ? comparer : null;
+    }
+
+    private void onCompared(XsdComparer comparer, Throwable ex) {
+        treeSplitPane.setDisable(false);
+
+        if (comparer != null) {
             this.propertyViewManager.clearAll();
-            this.treeViewManager.refresh(); // refresh tree views to reflect removed and added items
             this.modificationsLabel.setText(comparer.toString());
             this.menuComponent.setComparisonEnabled(true);
             this.comparer = comparer;
 
             setLoadingDone();
         } else {
+            if (ex != null) {
+                log.error(ex.getMessage(), ex);
+            }
+
             setLoadingFailed();
         }
     }
@@ -202,31 +266,143 @@ public class MainController extends ScaleAwareImpl implements Initializable, Sta
     }
 
     private void loadTree(TreeViewRender treeViewRender, File file) {
-        XsdDocument xsdDocument;
+        // the file chooser needs to be shown on the JavaFX thread, only the actual load is done in the background
+        File xsdFile = file != null ? file : xsdLoader.choose();
+
+        if (xsdFile == null) {
+            return;
+        }
+
+        setLoadingProgress(0);
+        startLoad(xsdFile, this::setLoadingProgress)
+                .whenComplete((xsdDocument, ex) -> Platform.runLater(() -> {
+                    if (ex != null) {
+                        onLoadFailed(ex);
+                        return;
+                    }
+
+                    renderTree(treeViewRender, xsdDocument);
+
+                    if (treeViewManager.getLeftTreeRender().isRendering() && treeViewManager.getRightTreeRender().isRendering()) {
+                        compare();
+                    } else {
+                        setLoadingDone();
+                    }
+                }));
+    }
 
-        try {
-            setLoading();
+    private void loadTrees(File originalFile, File newFile) {
+        // each loaded document accounts for a third of the progress, the comparison accounts for the last third
+        var progress = new double[2];
 
-            if (file == null) {
-                xsdDocument = xsdLoader.chooseAndLoad();
-            } else {
-                xsdDocument = xsdLoader.load(file);
+        setLoadingProgress(0);
+
+        // both documents are parsed in parallel and are only joined for the comparison
+        // the documents are rendered once the comparison is done, so each document is only rendered once
+        var originalDocument = startLoad(originalFile, e -> {
+            progress[0] = e;
+            setLoadingProgress((progress[0] + progress[1]) / 3);
+        });
+        var newDocument = startLoad(newFile, e -> {
+            progress[1] = e;
+            setLoadingProgress((progress[0] + progress[1]) / 3);
+        });
+
+        originalDocument.thenCombineAsync(newDocument, (original, modified) -> {
+                    Platform.runLater(this::setComparing);
+                    return compareDocuments(original, modified);
+                }, taskExecutor)
+                .whenComplete((comparer, ex) -> Platform.runLater(() -> {
+                    if (ex != null) {
+                        // the other document is of no use anymore when one of the loads failed or has been cancelled
+                        originalDocument.cancel(true);
+                        newDocument.cancel(true);
+                        onLoadFailed(ex);
+                        return;
+                    }
+
+                    var diff = comparer != null ? comparer.getDiff() : null;
+
+                    renderTree(treeViewManager.getLeftTreeRender(), originalDocument.join(), diff != null ? diff.getOriginalSide() : originalDocument.join());
+                    renderTree(treeViewManager.getRightTreeRender(), newDocument.join(), diff != null ? diff.getNewSide() : newDocument.join());
+                    onCompared(comparer, null);
+                }));
+    }
+
+    /**
+     * Start the cancellable load of the given file.
+     * The given progress listener is invoked on the JavaFX thread as long as the load is running.
+     */
+    private XsdLoadFuture startLoad(File file, DoubleConsumer progressListener) {
+        var futureReference = new AtomicReference<XsdLoadFuture>();
+        // the rendered documents don't need the schema model anymore, so it's released to reduce the memory of an open comparison
+        var options = XsdLoadOptions.detached();
+
+        options.setProfile(settingsService.getSettings().getCompareSettings().getLoadProfile());
+
+        var future = xsdLoader.loadCancellable(file, options, progress -> Platform.runLater(() -> {
+            // progress which is reported right before a cancellation should not overwrite the cancelled state
+            if (runningLoads.contains(futureReference.get())) {
+                progressListener.accept(progress);
             }
+        }));
+
+        futureReference.set(future);
+        runningLoads.add(future);
+        updateCancelLoadLink();
+        future.whenComplete((document, ex) -> Platform.runLater(() -> {
+            runningLoads.remove(future);
+            updateCancelLoadLink();
+        }));
+
+        return future;
+    }
 
-            if (xsdDocument != null) {
-                treeViewRender.render(xsdDocument);
+    private void renderTree(TreeViewRender treeViewRender, XsdDocument xsdDocument) {
+        renderTree(treeViewRender, xsdDocument, xsdDocument);
+    }
+
+    private void renderTree(TreeViewRender treeViewRender, XsdDocument xsdDocument, XsdNode root) {
+        fileWatcher.unwatch(treeViewRender.getDocument());
+        treeViewRender.render(xsdDocument, root);
+
+        if (settingsService.getSettings().getCompareSettings().isWatchFiles()) {
+            fileWatcher.watch(xsdDocument, this::onDocumentChanged);
+        }
+    }
+
+    private void onDocumentChanged(XsdDocument xsdDocument) {
+        Platform.runLater(() -> {
+            if (!settingsService.getSettings().getCompareSettings().isWatchFiles()) {
+                return;
             }
 
-            if (treeViewManager.getLeftTreeRender().isRendering() && treeViewManager.getRightTreeRender().isRendering()) {
-                compare();
+            // only the changed document is reloaded, the document of the other tree is reused for the comparison
+            if (treeViewManager.getLeftTreeRender().getDocument() == xsdDocument) {
+                log.info("Reloading changed file " + xsdDocument.getFile());
+                loadTree(treeViewManager.getLeftTreeRender(), xsdDocument.getFile());
+            } else if (treeViewManager.getRightTreeRender().getDocument() == xsdDocument) {
+                log.info("Reloading changed file " + xsdDocument.getFile());
+                loadTree(treeViewManager.getRightTreeRender(), xsdDocument.getFile());
             }
+        });
+    }
 
-            setLoadingDone();
-        } catch (Exception ex) {
-            log.error(ex.getMessage(), ex);
-            setLoadingFailed();
-            new Alert(Alert.AlertType.ERROR, "We are sorry, but an unexpected error occurred.\n" + ex.getMessage(), ButtonType.OK).show();
+    private void onLoadFailed(Throwable ex) {
+        // unwrap the exception of the background task
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+
+        if (cause instanceof CancellationException) {
+            log.info("Load has been cancelled");
+            treeSplitPane.setDisable(false);
+            setLoadingCancelled();
+            return;
         }
+
+        log.error(cause.getMessage(), cause);
+        treeSplitPane.setDisable(false);
+        setLoadingFailed();
+        new Alert(Alert.AlertType.ERROR, "We are sorry, but an unexpected error occurred.\n" + cause.getMessage(), ButtonType.OK).show();
     }
 
     private void synchronizeDividers() {
@@ -245,9 +421,22 @@ public class MainController extends ScaleAwareImpl implements Initializable, Sta
         return IteratorUtils.toList(dividers.iterator()).get(0);
     }
 
-    private void setLoading() {
+    private void setLoadingProgress(double progress) {
         progressBarLabel.setText("Loading...");
-        progressBar.setProgress(-1);
+        progressBar.setProgress(progress);
+        progressBar.setStyle("-fx-accent: dodgerblue");
+    }
+
+    private void setComparing() {
+        // the comparison doesn't modify the documents, but the tree views are replaced by the rendered diff once it's done
+        // so they're disabled in the meantime to prevent interacting with trees which are about to be discarded
+        treeSplitPane.setDisable(true);
+        progressBarLabel.setText("Comparing...");
+
+        if (progressBar.getProgress() < 0 || progressBar.getProgress() >= 1) {
+            progressBar.setProgress(-1);
+        }
+
         progressBar.setStyle("-fx-accent: dodgerblue");
     }
 
@@ -263,6 +452,17 @@ public class MainController extends ScaleAwareImpl implements Initializable, Sta
         progressBar.setStyle("-fx-accent: limegreen");
     }
 
+    private void setLoadingCancelled() {
+        progressBarLabel.setText("Cancelled");
+        progressBar.setProgress(0);
+        progressBar.setStyle("-fx-accent: dodgerblue");
+    }
+
+    private void updateCancelLoadLink() {
+        cancelLoadLink.setVisible(!runningLoads.isEmpty());
+        cancelLoadLink.setManaged(!runningLoads.isEmpty());
+    }
+
     private void setLoadingFailed() {
         progressBarLabel.setText("Failed");
         progressBar.setProgress(1);
@@ -1,5 +1,6 @@
 package com.compare.xsd.controllers.components;
 
+import com.compare.xsd.comparison.model.xsd.XsdLoadProfile;
 import com.compare.xsd.settings.SettingsService;
 import com.compare.xsd.settings.model.ApplicationSettings;
 import com.compare.xsd.settings.model.CompareColumns;
@@ -10,6 +11,8 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.ListView;
 import javafx.scene.control.cell.CheckBoxListCell;
 import lombok.Data;
@@ -28,10 +31,19 @@ public class SettingsCompareComponent implements Initializable, SettingComponent
 
     @FXML
     public ListView<ShownColumnItem> shownColumns;
+    @FXML
+    public CheckBox watchFiles;
+    @FXML
+    public ChoiceBox<XsdLoadProfile> loadProfile;
+    @FXML
+    public CheckBox detectRenames;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         initializeListView();
+        initializeWatchFiles();
+        initializeLoadProfile();
+        initializeDetectRenames();
     }
 
     @Override
@@ -43,6 +55,9 @@ public class SettingsCompareComponent implements Initializable, SettingComponent
                 .map(e -> e.getName().getValue())
                 .map(CompareColumns::valueOf)
                 .collect(Collectors.toList()));
+        compareSettings.setWatchFiles(watchFiles.isSelected());
+        compareSettings.setLoadProfile(loadProfile.getValue());
+        compareSettings.setDetectRenames(detectRenames.isSelected());
     }
 
     private void initializeListView() {
@@ -54,6 +69,19 @@ public class SettingsCompareComponent implements Initializable, SettingComponent
                 .collect(Collectors.toList()));
     }
 
+    private void initializeWatchFiles() {
+        watchFiles.setSelected(settingsService.getSettings().getCompareSettings().isWatchFiles());
+    }
+
+    private void initializeLoadProfile() {
+        loadProfile.getItems().addAll(XsdLoadProfile.values());
+        loadProfile.setValue(settingsService.getSettings().getCompareSettings().getLoadProfile());
+    }
+
+    private void initializeDetectRenames() {
+        detectRenames.setSelected(settingsService.getSettings().getCompareSettings().isDetectRenames());
+    }
+
     @Data
     public static class ShownColumnItem {
         private StringProperty name = new SimpleStringProperty();
@@ -61,7 +61,7 @@ public class PropertyViewRender implements RenderView {
      */
     public void render(XsdNode node) {
         ObservableList<Property> items = this.propertyView.getItems();
-        Modifications modifications = node.getModifications() != null ? node.getModifications() : new Modifications();
+        Modifications modifications = node.getModifications() != null ? node.getModifications() : Modifications.NONE;
 
         items.clear();
         items.add(new Property("Namespace", node.getNamespace(), modifications.isNamespaceChanged()));
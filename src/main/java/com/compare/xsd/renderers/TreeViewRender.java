@@ -1,12 +1,15 @@
 package com.compare.xsd.renderers;
 
+import com.compare.xsd.comparison.model.diff.XsdDiff;
 import com.compare.xsd.comparison.model.xsd.XsdNode;
+import com.compare.xsd.comparison.model.xsd.XsdNodeTraversal;
 import com.compare.xsd.comparison.model.xsd.impl.XsdDocument;
 import com.compare.xsd.messages.MenuMessage;
 import com.compare.xsd.settings.model.CompareColumns;
 import com.github.spring.boot.javafx.text.LocaleText;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.ObservableList;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.*;
@@ -18,9 +21,9 @@ import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.util.Assert;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,6 +39,10 @@ public class TreeViewRender implements RenderView {
     private List<CompareColumns> visibleColumns;
 
     private XsdDocument document;
+    /**
+     * The rendered root node, which is either the document itself or the view of the document within a comparison.
+     */
+    private XsdNode root;
 
     //region Implementation of RenderView
 
@@ -62,7 +69,7 @@ public class TreeViewRender implements RenderView {
      */
     public void refresh() {
         if (isRendering()) {
-            this.render(this.document);
+            this.render(this.document, this.root);
         }
     }
 
@@ -72,18 +79,32 @@ public class TreeViewRender implements RenderView {
      * @param xsdDocument Set the xsd document.
      */
     public void render(XsdDocument xsdDocument) {
+        render(xsdDocument, xsdDocument);
+    }
+
+    /**
+     * Render the given root node of the {@link XsdDocument} in the tree view.
+     * The root node is either the document itself or the view of the document within a comparison, see {@link XsdDiff}.
+     *
+     * @param xsdDocument Set the xsd document.
+     * @param root        Set the root node of the document to render.
+     */
+    public void render(XsdDocument xsdDocument, XsdNode root) {
         Assert.notNull(xsdDocument, "xsdDocument cannot be null");
-        TreeItem<XsdNode> rootItem = new TreeItem<>(xsdDocument);
+        Assert.notNull(root, "root cannot be null");
+        TreeItem<XsdNode> rootItem = new TreeItem<>(root);
 
-        renderChildren(xsdDocument.getNodes(), rootItem);
+        renderChildren(root.getNodes(), rootItem);
 
         rootItem.setExpanded(true);
         this.treeView.setRoot(rootItem);
         this.document = xsdDocument;
+        this.root = root;
     }
 
     public void clear() {
         this.document = null;
+        this.root = null;
         this.treeView.setRoot(null);
     }
 
@@ -169,16 +190,28 @@ public class TreeViewRender implements RenderView {
     }
 
     private void renderChildren(List<XsdNode> elements, TreeItem<XsdNode> parent) {
-        for (XsdNode element : elements) {
-            TreeItem<XsdNode> elementTree = new TreeItem<>(element);
+        List<TreeItem<XsdNode>> path = new ArrayList<>();
+
+        path.add(parent);
+
+        XsdNodeTraversal.preOrderAll(elements, XsdNode::getNodes, (element, depth) -> {
+            TreeItem<XsdNode> elementTree;
+            boolean renderInnerNodes = !element.isRecursive() && element.isLoaded();
 
-            if (CollectionUtils.isNotEmpty(element.getNodes())) {
-                renderChildren(element.getNodes(), elementTree);
+            if (renderInnerNodes) {
+                elementTree = new TreeItem<>(element);
+                elementTree.setExpanded(true);
+            } else {
+                // the inner nodes are only rendered when the item is expanded by the user
+                elementTree = new OnDemandTreeItem(element);
             }
 
-            elementTree.setExpanded(true);
-            parent.getChildren().add(elementTree);
-        }
+            path.get(depth).getChildren().add(elementTree);
+            path.subList(depth + 1, path.size()).clear();
+            path.add(elementTree);
+
+            return renderInnerNodes;
+        });
     }
 
     private void addNameColumn() {
@@ -336,4 +369,31 @@ public class TreeViewRender implements RenderView {
     }
 
     //endregion
+
+    /**
+     * Tree item which only renders the inner nodes of the {@link XsdNode} when the children of the item are requested.
+     * This is used for nodes of which the inner nodes are loaded on demand, such as recursive nodes.
+     */
+    private class OnDemandTreeItem extends TreeItem<XsdNode> {
+        private boolean childrenRendered;
+
+        private OnDemandTreeItem(XsdNode node) {
+            super(node);
+        }
+
+        @Override
+        public ObservableList<TreeItem<XsdNode>> getChildren() {
+            if (!childrenRendered) {
+                childrenRendered = true;
+                renderChildren(getValue().getNodes(), this);
+            }
+
+            return super.getChildren();
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return childrenRendered && super.getChildren().isEmpty();
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.compare.xsd.settings.model;
 
+import com.compare.xsd.comparison.model.xsd.XsdLoadProfile;
 import lombok.*;
 
 import java.util.List;
@@ -14,9 +15,27 @@ import static java.util.Arrays.asList;
 @AllArgsConstructor
 public class CompareSettings extends AbstractSettings {
     public static final String SHOW_COLUMNS_PROPERTY = "showColumns";
+    public static final String WATCH_FILES_PROPERTY = "watchFiles";
+    public static final String LOAD_PROFILE_PROPERTY = "loadProfile";
+    public static final String DETECT_RENAMES_PROPERTY = "detectRenames";
 
     @Builder.Default
     private List<CompareColumns> shownColumns = asList(CompareColumns.TYPE, CompareColumns.CARDINALITY);
+    /**
+     * Indicates if the loaded files are reloaded and compared again when they're changed on disk.
+     */
+    @Builder.Default
+    private boolean watchFiles = true;
+    /**
+     * The profile with which the compared files are loaded.
+     */
+    @Builder.Default
+    private XsdLoadProfile loadProfile = XsdLoadProfile.FAST;
+    /**
+     * Indicates if removed and added siblings which are most likely the same node under another name are shown as renamed.
+     */
+    @Builder.Default
+    private boolean detectRenames = false;
 
     public void setShownColumns(List<CompareColumns> shownColumns) {
         if (Objects.equals(this.shownColumns, shownColumns))
@@ -26,4 +45,31 @@ public class CompareSettings extends AbstractSettings {
         this.shownColumns = shownColumns;
         changes.firePropertyChange(SHOW_COLUMNS_PROPERTY, oldValue, shownColumns);
     }
+
+    public void setWatchFiles(boolean watchFiles) {
+        if (this.watchFiles == watchFiles)
+            return;
+
+        var oldValue = this.watchFiles;
+        this.watchFiles = watchFiles;
+        changes.firePropertyChange(WATCH_FILES_PROPERTY, oldValue, watchFiles);
+    }
+
+    public void setLoadProfile(XsdLoadProfile loadProfile) {
+        if (this.loadProfile == loadProfile)
+            return;
+
+        var oldValue = this.loadProfile;
+        this.loadProfile = loadProfile;
+        changes.firePropertyChange(LOAD_PROFILE_PROPERTY, oldValue, loadProfile);
+    }
+
+    public void setDetectRenames(boolean detectRenames) {
+        if (this.detectRenames == detectRenames)
+            return;
+
+        var oldValue = this.detectRenames;
+        this.detectRenames = detectRenames;
+        changes.firePropertyChange(DETECT_RENAMES_PROPERTY, oldValue, detectRenames);
+    }
 }
@@ -1,11 +1,10 @@
 package com.compare.xsd.writers;
 
-import com.compare.xsd.comparison.XsdComparer;
 import com.compare.xsd.comparison.model.Modifications;
+import com.compare.xsd.comparison.model.diff.XsdDiff;
 import com.compare.xsd.comparison.model.xsd.XsdNode;
+import com.compare.xsd.comparison.model.xsd.XsdNodeTraversal;
 import com.compare.xsd.comparison.model.xsd.impl.XsdDocument;
-import com.compare.xsd.comparison.model.xsd.impl.XsdEmptyAttributeNode;
-import com.compare.xsd.comparison.model.xsd.impl.XsdEmptyElementNode;
 import com.compare.xsd.excel.CellRange;
 import com.compare.xsd.excel.Workbook;
 import com.compare.xsd.excel.Worksheet;
@@ -92,22 +91,22 @@ public class ExcelComparisonWriter {
     }
 
     /**
-     * Save the given comparer to an Excel file.
+     * Save the given comparison to an Excel file.
      *
-     * @param comparer Set the comparer to save.
-     * @return Returns true if the comparer was saved with success, else false.
+     * @param diff Set the comparison to save.
+     * @return Returns true if the comparison was saved with success, else false.
      */
     @Async
-    public CompletableFuture<Boolean> save(XsdComparer comparer, File file) {
-        Assert.notNull(comparer, "comparer cannot be null");
+    public CompletableFuture<Boolean> save(XsdDiff diff, File file) {
+        Assert.notNull(diff, "diff cannot be null");
 
         try {
             if (file != null) {
                 Workbook workbook = new Workbook(file);
 
-                writeXsdOverview(comparer.getOriginalDocument(), "Original document", workbook);
-                writeXsdOverview(comparer.getNewDocument(), "New document", workbook);
-                writeXsdComparison(comparer, workbook);
+                writeXsdOverview(diff.getOriginalDocument(), "Original document", workbook);
+                writeXsdOverview(diff.getNewDocument(), "New document", workbook);
+                writeXsdComparison(diff, workbook);
 
                 workbook.save();
                 return CompletableFuture.completedFuture(Boolean.TRUE);
@@ -133,9 +132,7 @@ public class ExcelComparisonWriter {
 
         tableHeader.writeHeader(worksheet);
 
-        for (XsdNode node : document.getElements()) {
-            rowIndex = writeXsdNode(node, tableHeader, 0, rowIndex + 1, worksheet, false);
-        }
+        rowIndex = writeXsdNodes(document.getElements(), tableHeader, rowIndex, worksheet, false);
 
         worksheet.createTable(name, new CellRange.Range(LEVEL_COLUMN_START_INDEX, tableHeader.getColumnEndIndex(), rowStartIndex, rowIndex));
     }
@@ -206,105 +203,106 @@ public class ExcelComparisonWriter {
         worksheet.write(valueCells);
     }
 
-    private int writeXsdNode(XsdNode node, TableHeader tableHeader, int levelIndex, int rowIndex, Worksheet worksheet, boolean isComparison) {
-        if (levelIndex <= tableHeader.getLevelColumns().size() - 1) {
-            Modifications modifications = ofNullable(node.getModifications()).orElse(new Modifications());
-            Color backgroundColor = getBackgroundColor(modifications);
-            Color transparent = new Color(255, 255, 255, 0);
-            List<CellRange> nameCells = new ArrayList<>();
-            CellRange type = CellRange.builder()
-                    .range(new CellRange.Range(tableHeader.getTypeColumn().getRange().getColumnEndIndex(), rowIndex))
-                    .autoSizeColumn(true)
-                    .value(node.getType())
-                    .fontColor(isComparison && modifications.isTypeChanged() ? Color.RED : Color.BLACK)
-                    .backgroundColor(isComparison ? backgroundColor : transparent)
-                    .fillPattern(isComparison ? FillPatternType.SOLID_FOREGROUND : FillPatternType.NO_FILL)
-                    .build();
-            CellRange cardinality = CellRange.builder()
-                    .range(new CellRange.Range(tableHeader.getCardinalityColumn().getRange().getColumnEndIndex(), rowIndex))
-                    .autoSizeColumn(true)
-                    .value(node.getCardinality())
-                    .fontColor(isComparison && modifications.isCardinalityChanged() ? Color.RED : Color.BLACK)
-                    .backgroundColor(isComparison ? backgroundColor : transparent)
-                    .fillPattern(isComparison ? FillPatternType.SOLID_FOREGROUND : FillPatternType.NO_FILL)
-                    .build();
-            CellRange fixedValue = CellRange.builder()
-                    .range(new CellRange.Range(tableHeader.getFixedValueColumn().getRange().getColumnEndIndex(), rowIndex))
-                    .autoSizeColumn(true)
-                    .value(node.getFixedValue())
-                    .fontColor(isComparison && modifications.isFixedValueChanged() ? Color.RED : Color.BLACK)
-                    .backgroundColor(isComparison ? backgroundColor : transparent)
-                    .fillPattern(isComparison ? FillPatternType.SOLID_FOREGROUND : FillPatternType.NO_FILL)
-                    .build();
-            CellRange pattern = CellRange.builder()
-                    .range(new CellRange.Range(tableHeader.getPatternColumn().getRange().getColumnEndIndex(), rowIndex))
-                    .autoSizeColumn(true)
-                    .value(node.getPattern())
-                    .fontColor(isComparison && modifications.isPatternChanged() ? Color.RED : Color.BLACK)
-                    .backgroundColor(isComparison ? backgroundColor : transparent)
-                    .fillPattern(isComparison ? FillPatternType.SOLID_FOREGROUND : FillPatternType.NO_FILL)
-                    .build();
-            CellRange enumeration = CellRange.builder()
-                    .range(new CellRange.Range(tableHeader.getEnumerationColumn().getRange().getColumnEndIndex(), rowIndex))
-                    .autoSizeColumn(true)
-                    .value(node.getEnumeration())
-                    .fontColor(isComparison && modifications.isEnumerationChanged() ? Color.RED : Color.BLACK)
-                    .backgroundColor(isComparison ? backgroundColor : transparent)
-                    .fillPattern(isComparison ? FillPatternType.SOLID_FOREGROUND : FillPatternType.NO_FILL)
-                    .build();
-
-            for (CellRange column : tableHeader.getLevelColumns()) {
-                CellRange cell = CellRange.builder()
-                        .range(new CellRange.Range(column.getRange().getColumnStart(), rowIndex))
-                        .fontColor(isComparison && modifications.isNameChanged() ? Color.RED : Color.BLACK)
-                        .backgroundColor(isComparison ? backgroundColor : transparent)
-                        .fillPattern(isComparison ? FillPatternType.SOLID_FOREGROUND : FillPatternType.NO_FILL)
-                        .build();
+    private int writeXsdNodes(List<? extends XsdNode> nodes, TableHeader tableHeader, int rowIndex, Worksheet worksheet, boolean isComparison) {
+        int[] lastRowIndex = {rowIndex};
 
-                if (tableHeader.getLevelColumns().indexOf(column) == levelIndex) {
-                    cell.setValue(node.getName());
-                }
+        // the inner nodes of a recursive node are only written when they have already been loaded
+        XsdNodeTraversal.<XsdNode>preOrderAll(nodes, XsdNodeTraversal::loadedNodes, (node, levelIndex) -> {
+            lastRowIndex[0]++;
 
-                nameCells.add(cell);
+            if (levelIndex > tableHeader.getLevelColumns().size() - 1) {
+                log.warn("Exceeding max level " + LEVEL_LIMIT + " for node " + node);
+                return false;
             }
 
-            worksheet.write(ListUtils.union(nameCells, asList(type, cardinality, fixedValue, pattern, enumeration)));
+            writeXsdNode(node, tableHeader, levelIndex, lastRowIndex[0], worksheet, isComparison);
+            return true;
+        });
+
+        return lastRowIndex[0];
+    }
+
+    private void writeXsdNode(XsdNode node, TableHeader tableHeader, int levelIndex, int rowIndex, Worksheet worksheet, boolean isComparison) {
+        Modifications modifications = ofNullable(node.getModifications()).orElse(Modifications.NONE);
+        Color backgroundColor = getBackgroundColor(modifications);
+        Color transparent = new Color(255, 255, 255, 0);
+        List<CellRange> nameCells = new ArrayList<>();
+        CellRange type = CellRange.builder()
+                .range(new CellRange.Range(tableHeader.getTypeColumn().getRange().getColumnEndIndex(), rowIndex))
+                .autoSizeColumn(true)
+                .value(node.getType())
+                .fontColor(isComparison && modifications.isTypeChanged() ? Color.RED : Color.BLACK)
+                .backgroundColor(isComparison ? backgroundColor : transparent)
+                .fillPattern(isComparison ? FillPatternType.SOLID_FOREGROUND : FillPatternType.NO_FILL)
+                .build();
+        CellRange cardinality = CellRange.builder()
+                .range(new CellRange.Range(tableHeader.getCardinalityColumn().getRange().getColumnEndIndex(), rowIndex))
+                .autoSizeColumn(true)
+                .value(node.getCardinality())
+                .fontColor(isComparison && modifications.isCardinalityChanged() ? Color.RED : Color.BLACK)
+                .backgroundColor(isComparison ? backgroundColor : transparent)
+                .fillPattern(isComparison ? FillPatternType.SOLID_FOREGROUND : FillPatternType.NO_FILL)
+                .build();
+        CellRange fixedValue = CellRange.builder()
+                .range(new CellRange.Range(tableHeader.getFixedValueColumn().getRange().getColumnEndIndex(), rowIndex))
+                .autoSizeColumn(true)
+                .value(node.getFixedValue())
+                .fontColor(isComparison && modifications.isFixedValueChanged() ? Color.RED : Color.BLACK)
+                .backgroundColor(isComparison ? backgroundColor : transparent)
+                .fillPattern(isComparison ? FillPatternType.SOLID_FOREGROUND : FillPatternType.NO_FILL)
+                .build();
+        CellRange pattern = CellRange.builder()
+                .range(new CellRange.Range(tableHeader.getPatternColumn().getRange().getColumnEndIndex(), rowIndex))
+                .autoSizeColumn(true)
+                .value(node.getPattern())
+                .fontColor(isComparison && modifications.isPatternChanged() ? Color.RED : Color.BLACK)
+                .backgroundColor(isComparison ? backgroundColor : transparent)
+                .fillPattern(isComparison ? FillPatternType.SOLID_FOREGROUND : FillPatternType.NO_FILL)
+                .build();
+        CellRange enumeration = CellRange.builder()
+                .range(new CellRange.Range(tableHeader.getEnumerationColumn().getRange().getColumnEndIndex(), rowIndex))
+                .autoSizeColumn(true)
+                .value(node.getEnumeration())
+                .fontColor(isComparison && modifications.isEnumerationChanged() ? Color.RED : Color.BLACK)
+                .backgroundColor(isComparison ? backgroundColor : transparent)
+                .fillPattern(isComparison ? FillPatternType.SOLID_FOREGROUND : FillPatternType.NO_FILL)
+                .build();
+
+        for (CellRange column : tableHeader.getLevelColumns()) {
+            CellRange cell = CellRange.builder()
+                    .range(new CellRange.Range(column.getRange().getColumnStart(), rowIndex))
+                    .fontColor(isComparison && modifications.isNameChanged() ? Color.RED : Color.BLACK)
+                    .backgroundColor(isComparison ? backgroundColor : transparent)
+                    .fillPattern(isComparison ? FillPatternType.SOLID_FOREGROUND : FillPatternType.NO_FILL)
+                    .build();
 
-            for (XsdNode childNode : node.getNodes()) {
-                if (notEmptyNode(childNode) || isComparison) {
-                    rowIndex = writeXsdNode(childNode, tableHeader, levelIndex + 1, rowIndex + 1, worksheet, isComparison);
-                }
+            if (tableHeader.getLevelColumns().indexOf(column) == levelIndex) {
+                cell.setValue(node.getName());
             }
-        } else {
-            log.warn("Exceeding max level " + LEVEL_LIMIT + " for node " + node);
+
+            nameCells.add(cell);
         }
 
-        return rowIndex;
+        worksheet.write(ListUtils.union(nameCells, asList(type, cardinality, fixedValue, pattern, enumeration)));
     }
 
-    private void writeXsdComparison(XsdComparer comparer, Workbook workbook) {
+    private void writeXsdComparison(XsdDiff diff, Workbook workbook) {
         Worksheet worksheet = workbook.deleteAndCreateWorksheet("Comparison", true);
         int rowIndex = 5;
 
-        writeCompareInformation(comparer, worksheet);
+        writeCompareInformation(diff, worksheet);
         TableHeader tableHeaderOriginal = createTableHeader(LEVEL_COLUMN_START_INDEX, LEVEL_LIMIT, 5);
         TableHeader tableHeaderNew = createTableHeader(tableHeaderOriginal.getEnumerationColumn().getRange().getColumnEndIndex() + 2, LEVEL_LIMIT, 5);
 
         tableHeaderOriginal.writeHeader(worksheet);
         tableHeaderNew.writeHeader(worksheet);
 
-        for (XsdNode node : comparer.getOriginalDocument().getElements()) {
-            rowIndex = writeXsdNode(node, tableHeaderOriginal, 0, rowIndex + 1, worksheet, true);
-        }
-
-        rowIndex = 5;
-
-        for (XsdNode node : comparer.getNewDocument().getElements()) {
-            rowIndex = writeXsdNode(node, tableHeaderNew, 0, rowIndex + 1, worksheet, true);
-        }
+        // both sides of the comparison are aligned, so each node is written on the same row as its counterpart
+        writeXsdNodes(diff.getOriginalSide().getNodes(), tableHeaderOriginal, rowIndex, worksheet, true);
+        writeXsdNodes(diff.getNewSide().getNodes(), tableHeaderNew, rowIndex, worksheet, true);
     }
 
-    private void writeCompareInformation(XsdComparer comparer, Worksheet worksheet) {
+    private void writeCompareInformation(XsdDiff diff, Worksheet worksheet) {
         List<CellRange> propertyCells = asList(CellRange.builder()
                 .range(new CellRange.Range(0, 0))
                 .autoSizeColumn(true)
@@ -328,16 +326,16 @@ public class ExcelComparisonWriter {
                 .build());
         List<CellRange> informationCells = asList(CellRange.builder()
                 .range(new CellRange.Range(1, 0))
-                .value(comparer.getOriginalDocument().getName())
+                .value(diff.getOriginalDocument().getName())
                 .build(), CellRange.builder()
                 .range(new CellRange.Range(1, 1))
-                .value(comparer.getOriginalDocument().getFile().getAbsolutePath())
+                .value(diff.getOriginalDocument().getFile().getAbsolutePath())
                 .build(), CellRange.builder()
                 .range(new CellRange.Range(1, 2))
-                .value(comparer.getNewDocument().getName())
+                .value(diff.getNewDocument().getName())
                 .build(), CellRange.builder()
                 .range(new CellRange.Range(1, 3))
-                .value(comparer.getNewDocument().getFile().getAbsolutePath())
+                .value(diff.getNewDocument().getFile().getAbsolutePath())
                 .build());
 
         worksheet.write(propertyCells);
@@ -365,9 +363,5 @@ public class ExcelComparisonWriter {
         return transparent;
     }
 
-    private boolean notEmptyNode(XsdNode node) {
-        return !(node instanceof XsdEmptyElementNode) && !(node instanceof XsdEmptyAttributeNode);
-    }
-
     //endregion
 }
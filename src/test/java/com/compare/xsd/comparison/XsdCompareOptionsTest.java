@@ -0,0 +1,33 @@
+package com.compare.xsd.comparison;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class XsdCompareOptionsTest {
+    @Test
+    public void testBuild_shouldThrowIllegalArgumentExceptionWhenParallelismIsZero() {
+        var builder = XsdCompareOptions.builder()
+                .parallel(true)
+                .parallelism(0);
+
+        assertThrows(IllegalArgumentException.class, builder::build, "parallelism must be larger than 0");
+    }
+
+    @Test
+    public void testBuild_shouldThrowIllegalArgumentExceptionWhenRenameSimilarityIsLargerThanOne() {
+        var builder = XsdCompareOptions.builder()
+                .renameSimilarity(1.5);
+
+        assertThrows(IllegalArgumentException.class, builder::build, "renameSimilarity must be larger than 0 and at most 1");
+    }
+
+    @Test
+    public void testBuild_shouldUseDefaultValuesWhenValuesAreNotSet() {
+        var options = XsdCompareOptions.builder().build();
+
+        assertEquals(Runtime.getRuntime().availableProcessors(), options.getParallelism());
+        assertEquals(0.6, options.getRenameSimilarity());
+    }
+}
@@ -2,7 +2,9 @@ package com.compare.xsd.comparison;
 
 import com.compare.xsd.comparison.model.ModificationType;
 import com.compare.xsd.comparison.model.xsd.XsdElementNode;
+import com.compare.xsd.comparison.model.xsd.XsdLoadOptions;
 import com.compare.xsd.comparison.model.xsd.XsdNode;
+import com.compare.xsd.comparison.model.xsd.XsdNodeTraversal;
 import com.compare.xsd.comparison.model.xsd.impl.XsdDocument;
 import com.github.spring.boot.javafx.view.ViewManager;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,8 +15,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.io.ClassPathResource;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,7 +33,7 @@ public class XsdComparerTest {
 
     @BeforeEach
     public void setup() {
-        xsdLoader = new XsdLoader(viewManager);
+        xsdLoader = new XsdLoader(viewManager, null, null, null, null);
     }
 
     @Test
@@ -52,10 +59,11 @@ public class XsdComparerTest {
 
         assertTrue(comparer.compare());
 
+        XsdNode attribute = findNode(findNode(comparer.getDiff().getNewSide(), "MyRootElement"), "attribute2");
         XsdElementNode element = newDocument.getElementByName("MyRootElement");
-        XsdNode attribute = element.findAttributeByName("attribute2");
 
         assertEquals(ModificationType.ADDED, attribute.getModifications().getType());
+        assertNull(element.findAttributeByName("attribute2").getModifications());
     }
 
     @Test
@@ -68,9 +76,268 @@ public class XsdComparerTest {
 
         assertTrue(comparer.compare());
 
+        XsdNode attribute = findNode(findNode(comparer.getDiff().getOriginalSide(), "MyRootElement"), "attribute2");
         XsdElementNode element = originalDocument.getElementByName("MyRootElement");
-        XsdNode attribute = element.findAttributeByName("attribute2");
 
         assertEquals(ModificationType.REMOVED, attribute.getModifications().getType());
+        assertNull(element.findAttributeByName("attribute2").getModifications());
+    }
+
+    @Test
+    public void testCompare_shouldReturnTrueWhenDocumentsContainRecursiveTypes() throws IOException {
+        ClassPathResource resource = new ClassPathResource("xsd/recursive_example.xsd");
+        XsdDocument originalDocument = xsdLoader.load(resource.getFile());
+        XsdDocument newDocument = xsdLoader.load(resource.getFile());
+        XsdComparer comparer = new XsdComparer(originalDocument, newDocument);
+
+        assertTrue(comparer.compare());
+        assertEquals(0, comparer.getAdded());
+        assertEquals(0, comparer.getRemoved());
+    }
+
+    @Test
+    public void testCompare_shouldReturnSameResultWhenComparedAgain() throws IOException {
+        //GIVEN
+        ClassPathResource originalResource = new ClassPathResource("xsd/example_base_attribute.xsd");
+        ClassPathResource newResource = new ClassPathResource("xsd/example_additional_attribute.xsd");
+        XsdDocument originalDocument = xsdLoader.load(originalResource.getFile());
+        XsdDocument newDocument = xsdLoader.load(newResource.getFile());
+        assertTrue(new XsdComparer(originalDocument, newDocument).compare());
+        XsdComparer comparer = new XsdComparer(originalDocument, newDocument);
+
+        //WHEN
+        boolean result = comparer.compare();
+
+        //THEN
+        assertTrue(result);
+        assertEquals(1, comparer.getAdded());
+        // the removed attribute is only aligned with an empty node within the comparison, not within the document
+        assertEquals(1, originalDocument.findElement("MyRootElement").getAttributes().size());
+        assertEquals(2, findNode(comparer.getDiff().getOriginalSide(), "MyRootElement").getNodes().size());
+    }
+
+    @Test
+    public void testCompare_shouldSkipSubtreesWithSameStructure() throws IOException {
+        //GIVEN
+        ClassPathResource resource = new ClassPathResource("xsd/simple_example.xsd");
+        XsdDocument originalDocument = xsdLoader.load(resource.getFile(), XsdLoadOptions.compact());
+        XsdDocument newDocument = xsdLoader.load(resource.getFile(), XsdLoadOptions.compact());
+        XsdComparer comparer = new XsdComparer(originalDocument, newDocument);
+
+        //WHEN
+        boolean result = comparer.compare();
+
+        //THEN
+        assertTrue(result);
+        assertEquals(1, comparer.getSkipped());
+        assertEquals(0, comparer.getModified());
+        // the inner nodes of the compact loaded element are only created when they're compared
+        assertFalse(originalDocument.getElements().get(0).isLoaded());
+        assertFalse(newDocument.getElements().get(0).isLoaded());
+    }
+
+    @Test
+    public void testCompare_shouldMatchSiblingsWithSameNameByOccurrence() throws IOException {
+        //GIVEN
+        ClassPathResource originalResource = new ClassPathResource("xsd/example_base_duplicate.xsd");
+        ClassPathResource newResource = new ClassPathResource("xsd/example_additional_duplicate.xsd");
+        XsdDocument originalDocument = xsdLoader.load(originalResource.getFile());
+        XsdDocument newDocument = xsdLoader.load(newResource.getFile());
+        XsdComparer comparer = new XsdComparer(originalDocument, newDocument);
+
+        //WHEN
+        boolean result = comparer.compare();
+
+        //THEN
+        assertTrue(result);
+        XsdNode originalRoot = findNode(comparer.getDiff().getOriginalSide(), "MyRootElement");
+        XsdNode newRoot = findNode(comparer.getDiff().getNewSide(), "MyRootElement");
+        assertEquals(List.of("A", "B", "A", ""), names(originalRoot));
+        assertEquals(List.of("A", "B", "A", "C"), names(newRoot));
+        assertEquals(ModificationType.ADDED, newRoot.getNodes().get(3).getModifications().getType());
+        assertEquals(1, comparer.getAdded());
+        assertEquals(0, comparer.getRemoved());
+        assertEquals(0, comparer.getMoved());
+    }
+
+    @Test
+    public void testCompare_shouldNotCompareFacetsOfNodesWithTheSameFacetSet() throws IOException {
+        //GIVEN
+        ClassPathResource originalResource = new ClassPathResource("xsd/example_base_facets.xsd");
+        ClassPathResource newResource = new ClassPathResource("xsd/example_modified_facets.xsd");
+        XsdDocument originalDocument = xsdLoader.load(originalResource.getFile());
+        XsdDocument newDocument = xsdLoader.load(newResource.getFile());
+        XsdComparer comparer = new XsdComparer(originalDocument, newDocument);
+
+        //WHEN
+        boolean result = comparer.compare();
+
+        //THEN
+        assertTrue(result);
+        // the status element has become optional and still uses the same simple type, so its facets aren't compared
+        var modifications = findNode(findNode(comparer.getDiff().getNewSide(), "MyRootElement"), "status").getModifications();
+        assertEquals(originalDocument.findElement("MyRootElement").findElement("status").getFacets(),
+                newDocument.findElement("MyRootElement").findElement("status").getFacets());
+        assertEquals(ModificationType.MODIFIED, modifications.getType());
+        assertTrue(modifications.isCardinalityChanged());
+        assertFalse(modifications.isEnumerationChanged());
+        assertFalse(modifications.isTypeChanged());
+    }
+
+    @Test
+    public void testCompare_shouldMarkNodeAsModifiedWhenFacetsAreDifferent() throws IOException {
+        //GIVEN
+        ClassPathResource originalResource = new ClassPathResource("xsd/example_base_facets.xsd");
+        ClassPathResource newResource = new ClassPathResource("xsd/example_modified_facets.xsd");
+        XsdDocument originalDocument = xsdLoader.load(originalResource.getFile());
+        XsdDocument newDocument = xsdLoader.load(newResource.getFile());
+        XsdComparer comparer = new XsdComparer(originalDocument, newDocument);
+
+        //WHEN
+        boolean result = comparer.compare();
+
+        //THEN
+        assertTrue(result);
+        var modifications = findNode(findNode(comparer.getDiff().getNewSide(), "MyRootElement"), "name").getModifications();
+        assertEquals(ModificationType.MODIFIED, modifications.getType());
+        assertTrue(modifications.isMaxLengthChanged());
+        assertFalse(modifications.isTypeChanged());
+        assertFalse(modifications.isCardinalityChanged());
+    }
+
+    @Test
+    public void testCompare_shouldMarkReorderedElementAsMoved() throws IOException {
+        //GIVEN
+        ClassPathResource originalResource = new ClassPathResource("xsd/example_base_order.xsd");
+        ClassPathResource newResource = new ClassPathResource("xsd/example_moved_order.xsd");
+        XsdDocument originalDocument = xsdLoader.load(originalResource.getFile());
+        XsdDocument newDocument = xsdLoader.load(newResource.getFile());
+        XsdComparer comparer = new XsdComparer(originalDocument, newDocument);
+
+        //WHEN
+        boolean result = comparer.compare();
+
+        //THEN
+        assertTrue(result);
+        XsdNode originalRoot = findNode(comparer.getDiff().getOriginalSide(), "MyRootElement");
+        XsdNode newRoot = findNode(comparer.getDiff().getNewSide(), "MyRootElement");
+        assertEquals(ModificationType.MOVED, findNode(originalRoot, "element1").getModifications().getType());
+        assertEquals(ModificationType.MOVED, findNode(newRoot, "element1").getModifications().getType());
+        assertNull(findNode(newRoot, "element2").getModifications());
+        assertNull(findNode(newRoot, "element3").getModifications());
+        assertEquals(originalRoot.getNodes().size(), newRoot.getNodes().size());
+    }
+
+    @Test
+    public void testCompare_shouldMarkElementMovedToAnotherParentAsMoved() throws IOException {
+        //GIVEN
+        ClassPathResource originalResource = new ClassPathResource("xsd/example_base_order.xsd");
+        ClassPathResource newResource = new ClassPathResource("xsd/example_moved_order.xsd");
+        XsdDocument originalDocument = xsdLoader.load(originalResource.getFile());
+        XsdDocument newDocument = xsdLoader.load(newResource.getFile());
+        XsdComparer comparer = new XsdComparer(originalDocument, newDocument);
+
+        //WHEN
+        boolean result = comparer.compare();
+
+        //THEN
+        assertTrue(result);
+        XsdNode originalGroup = findNode(findNode(comparer.getDiff().getOriginalSide(), "MyRootElement"), "group1");
+        XsdNode newGroup = findNode(findNode(comparer.getDiff().getNewSide(), "MyRootElement"), "group2");
+        assertEquals(ModificationType.MOVED, findNode(originalGroup, "moving").getModifications().getType());
+        assertEquals(ModificationType.MOVED, findNode(newGroup, "moving").getModifications().getType());
+        assertEquals(0, comparer.getAdded());
+        assertEquals(0, comparer.getRemoved());
+        assertEquals(2, comparer.getMoved());
+        assertNull(originalGroup.getModifications());
+    }
+
+    @Test
+    public void testCompare_shouldMarkRenamedElementsAsModifiedWhenRenamesAreDetected() throws IOException {
+        //GIVEN
+        ClassPathResource originalResource = new ClassPathResource("xsd/example_base_order.xsd");
+        ClassPathResource newResource = new ClassPathResource("xsd/example_renamed_order.xsd");
+        XsdDocument originalDocument = xsdLoader.load(originalResource.getFile());
+        XsdDocument newDocument = xsdLoader.load(newResource.getFile());
+        XsdComparer comparer = new XsdComparer(originalDocument, newDocument, XsdCompareOptions.builder()
+                .detectRenames(true)
+                .build());
+
+        //WHEN
+        boolean result = comparer.compare();
+
+        //THEN
+        assertTrue(result);
+        XsdNode newRoot = findNode(comparer.getDiff().getNewSide(), "MyRootElement");
+        assertTrue(findNode(newRoot, "element4").getModifications().isNameChanged());
+        assertEquals(ModificationType.MODIFIED, findNode(newRoot, "groupB").getModifications().getType());
+        assertNull(findNode(findNode(newRoot, "groupB"), "stay").getModifications());
+        assertEquals(0, comparer.getAdded());
+        assertEquals(0, comparer.getRemoved());
+    }
+
+    @Test
+    public void testCompare_shouldMarkRenamedElementsAsRemovedAndAddedByDefault() throws IOException {
+        //GIVEN
+        ClassPathResource originalResource = new ClassPathResource("xsd/example_base_order.xsd");
+        ClassPathResource newResource = new ClassPathResource("xsd/example_renamed_order.xsd");
+        XsdDocument originalDocument = xsdLoader.load(originalResource.getFile());
+        XsdDocument newDocument = xsdLoader.load(newResource.getFile());
+        XsdComparer comparer = new XsdComparer(originalDocument, newDocument);
+
+        //WHEN
+        boolean result = comparer.compare();
+
+        //THEN
+        assertTrue(result);
+        assertEquals(2, comparer.getAdded());
+        assertEquals(2, comparer.getRemoved());
+    }
+
+    @Test
+    public void testCompare_shouldReturnSameResultAsSequentialComparisonWhenComparedInParallel() throws IOException {
+        //GIVEN
+        ClassPathResource originalResource = new ClassPathResource("xsd/example_base_attribute.xsd");
+        ClassPathResource newResource = new ClassPathResource("xsd/example_additional_attribute.xsd");
+        XsdDocument sequentialOriginalDocument = xsdLoader.load(originalResource.getFile());
+        XsdDocument sequentialNewDocument = xsdLoader.load(newResource.getFile());
+        XsdDocument parallelOriginalDocument = xsdLoader.load(originalResource.getFile());
+        XsdDocument parallelNewDocument = xsdLoader.load(newResource.getFile());
+        XsdComparer sequentialComparer = new XsdComparer(sequentialOriginalDocument, sequentialNewDocument);
+        XsdComparer parallelComparer = new XsdComparer(parallelOriginalDocument, parallelNewDocument, XsdCompareOptions.parallel());
+        assertTrue(sequentialComparer.compare());
+
+        //WHEN
+        boolean result = parallelComparer.compare();
+
+        //THEN
+        assertTrue(result);
+        assertEquals(sequentialComparer.toString(), parallelComparer.toString());
+        assertEquals(modifications(sequentialComparer.getDiff().getOriginalSide()), modifications(parallelComparer.getDiff().getOriginalSide()));
+        assertEquals(modifications(sequentialComparer.getDiff().getNewSide()), modifications(parallelComparer.getDiff().getNewSide()));
+    }
+
+    private static XsdNode findNode(XsdNode node, String name) {
+        return node.getNodes().stream()
+                .filter(e -> name.equals(e.getName()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static List<String> names(XsdNode node) {
+        return node.getNodes().stream()
+                .map(XsdNode::getName)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> modifications(XsdNode side) {
+        List<String> modifications = new ArrayList<>();
+
+        XsdNodeTraversal.preOrder(side, XsdNodeTraversal::loadedNodes, (node, depth) -> {
+            modifications.add(depth + " " + node.getName() + " " + (node.getModifications() != null ? node.getModifications().getType() : null));
+            return true;
+        });
+
+        return modifications;
     }
 }
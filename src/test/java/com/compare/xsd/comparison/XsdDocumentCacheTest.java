@@ -0,0 +1,111 @@
+package com.compare.xsd.comparison;
+
+import com.compare.xsd.comparison.model.xsd.impl.XsdDocument;
+import com.compare.xsd.comparison.model.xsd.impl.XsdElement;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XsdDocumentCacheTest {
+    private File directory;
+    private File schemaDirectory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("xsd-cache").toFile();
+        schemaDirectory = Files.createTempDirectory("xsd-schemas").toFile();
+
+        for (String name : new String[]{"import_example.xsd", "remote_import_example.xsd", "common_components.xsd", "recursive_example.xsd"}) {
+            FileUtils.copyFile(new ClassPathResource("xsd/" + name).getFile(), new File(schemaDirectory, name));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+        FileUtils.deleteDirectory(schemaDirectory);
+    }
+
+    @Test
+    public void testGet_shouldRestoreTheStoredNodeTreeWhenSchemaIsUnchanged() {
+        //GIVEN
+        var cache = new XsdDocumentCache(directory, XsdDocumentCache.DEFAULT_MAX_SIZE);
+        var file = new File(schemaDirectory, "import_example.xsd");
+        var document = new XsdDocument(file);
+        cache.put(document);
+
+        //WHEN
+        var result = cache.get(file);
+
+        //THEN
+        assertTrue(result.isPresent());
+        XsdElement total = result.get().findElement("Invoice").findElement("Total");
+        assertEquals("decimal", total.getType());
+        assertEquals("1..1", total.getCardinality());
+        assertEquals("currency", total.findAttributeByName("currency").getName());
+        assertEquals(document.findElement("Invoice").findElement("Total").getXPath(), total.getXPath());
+    }
+
+    @Test
+    public void testGet_shouldReturnEmptyWhenImportedSchemaHasChanged() throws IOException {
+        //GIVEN
+        var cache = new XsdDocumentCache(directory, XsdDocumentCache.DEFAULT_MAX_SIZE);
+        var file = new File(schemaDirectory, "import_example.xsd");
+        var importedFile = new File(schemaDirectory, "common_components.xsd");
+        cache.put(new XsdDocument(file));
+
+        //WHEN
+        FileUtils.writeStringToFile(importedFile, FileUtils.readFileToString(importedFile, "UTF-8").replace("currency", "currencyCode"), "UTF-8");
+        var result = cache.get(file);
+
+        //THEN
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    public void testPut_shouldNotStoreDocumentWhenItContainsRecursiveElements() {
+        //GIVEN
+        var cache = new XsdDocumentCache(directory, XsdDocumentCache.DEFAULT_MAX_SIZE);
+        var file = new File(schemaDirectory, "recursive_example.xsd");
+
+        //WHEN
+        cache.put(new XsdDocument(file));
+
+        //THEN
+        assertFalse(cache.get(file).isPresent());
+    }
+
+    @Test
+    public void testKey_shouldReturnEmptyWhenSchemaHasRemoteImport() {
+        //GIVEN
+        var cache = new XsdDocumentCache(directory, XsdDocumentCache.DEFAULT_MAX_SIZE);
+        var file = new File(schemaDirectory, "remote_import_example.xsd");
+
+        //WHEN
+        var result = cache.key(file);
+
+        //THEN
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    public void testPut_shouldEvictEntriesWhenMaxSizeIsExceeded() {
+        //GIVEN
+        var cache = new XsdDocumentCache(directory, 1);
+        var file = new File(schemaDirectory, "import_example.xsd");
+
+        //WHEN
+        cache.put(new XsdDocument(file));
+
+        //THEN
+        assertFalse(cache.get(file).isPresent());
+    }
+}
@@ -0,0 +1,98 @@
+package com.compare.xsd.comparison;
+
+import com.compare.xsd.comparison.model.xsd.impl.XsdDocument;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class XsdFileWatcherTest {
+    private static final long DEBOUNCE_MILLIS = 200;
+
+    private File schemaDirectory;
+    private XsdFileWatcher fileWatcher;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        schemaDirectory = Files.createTempDirectory("xsd-watch").toFile();
+        fileWatcher = new XsdFileWatcher(DEBOUNCE_MILLIS);
+
+        for (String name : new String[]{"import_example.xsd", "remote_import_example.xsd", "common_components.xsd"}) {
+            FileUtils.copyFile(new ClassPathResource("xsd/" + name).getFile(), new File(schemaDirectory, name));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        fileWatcher.close();
+        FileUtils.deleteDirectory(schemaDirectory);
+    }
+
+    @Test
+    public void testWatch_shouldNotifyOnceWhenImportedSchemaIsChangedMultipleTimes() throws IOException, InterruptedException {
+        //GIVEN
+        var document = new XsdDocument(new File(schemaDirectory, "import_example.xsd"));
+        var importedFile = new File(schemaDirectory, "common_components.xsd");
+        var notifications = new AtomicInteger();
+        var latch = new CountDownLatch(1);
+        fileWatcher.watch(document, e -> {
+            notifications.incrementAndGet();
+            latch.countDown();
+        });
+
+        //WHEN
+        for (int i = 0; i < 3; i++) {
+            FileUtils.writeStringToFile(importedFile, "<!-- change " + i + " -->", "UTF-8", true);
+        }
+
+        //THEN
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Thread.sleep(DEBOUNCE_MILLIS * 3);
+        assertEquals(1, notifications.get());
+    }
+
+    @Test
+    public void testWatch_shouldNotifyWhenLocalImportOfSchemaWithRemoteImportIsChanged() throws IOException, InterruptedException {
+        //GIVEN
+        var document = mock(XsdDocument.class);
+        var importedFile = new File(schemaDirectory, "common_components.xsd");
+        var latch = new CountDownLatch(1);
+        when(document.getFile()).thenReturn(new File(schemaDirectory, "remote_import_example.xsd"));
+        fileWatcher.watch(document, e -> latch.countDown());
+
+        //WHEN
+        FileUtils.writeStringToFile(importedFile, "<!-- change -->", "UTF-8", true);
+
+        //THEN
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testUnwatch_shouldNotNotifyWhenDocumentIsNoLongerWatched() throws IOException, InterruptedException {
+        //GIVEN
+        var file = new File(schemaDirectory, "import_example.xsd");
+        var document = new XsdDocument(file);
+        var latch = new CountDownLatch(1);
+        fileWatcher.watch(document, e -> latch.countDown());
+
+        //WHEN
+        fileWatcher.unwatch(document);
+        FileUtils.writeStringToFile(file, "<!-- change -->", "UTF-8", true);
+
+        //THEN
+        assertFalse(fileWatcher.isWatching(document));
+        assertFalse(latch.await(DEBOUNCE_MILLIS * 5, TimeUnit.MILLISECONDS));
+    }
+}
@@ -1,9 +1,17 @@
 package com.compare.xsd.comparison;
 
+import com.compare.xsd.comparison.model.xsd.XsdLoadCancelledException;
+import com.compare.xsd.comparison.model.xsd.XsdLoadMonitor;
+import com.compare.xsd.comparison.model.xsd.XsdLoadOptions;
 import com.compare.xsd.comparison.model.xsd.impl.XsdDocument;
+import com.compare.xsd.comparison.model.xsd.impl.XsdElement;
+import com.compare.xsd.comparison.model.xsd.impl.XsdResourceResolver;
 import com.github.spring.boot.javafx.view.ViewManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -11,9 +19,13 @@ import org.springframework.core.io.ClassPathResource;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
 public class XsdLoaderTest {
@@ -40,4 +52,111 @@ public class XsdLoaderTest {
 
         assertNotNull(document);
     }
+
+    @Test
+    public void testLoad_shouldLoadRecursiveTypeOnDemandWhenTypeContainsItself() throws IOException {
+        ClassPathResource resource = new ClassPathResource("xsd/recursive_example.xsd");
+
+        XsdDocument document = xsdLoader.load(resource.getFile());
+        XsdElement node = document.findElement("Tree").findElement("Node");
+
+        assertTrue(node.isRecursive());
+        assertFalse(node.isLoaded());
+        assertEquals("Node", node.findElement("Node").getName());
+        assertTrue(node.isLoaded());
+    }
+
+    @Test
+    public void testLoad_shouldLoadInnerNodesOnDemandWhenLazyOptionIsEnabled() throws IOException {
+        ClassPathResource resource = new ClassPathResource("xsd/simple_example.xsd");
+
+        XsdDocument document = xsdLoader.load(resource.getFile(), XsdLoadOptions.lazy());
+        XsdElement rootElement = document.findElement("MyRootElement");
+
+        assertFalse(rootElement.isLoaded());
+        assertEquals(2, rootElement.getNodes().size());
+        assertTrue(rootElement.isLoaded());
+        assertSame(rootElement.getNodes(), rootElement.getNodes());
+    }
+
+    @Test
+    public void testLoad_shouldRecordLoadMetricsWhenMeterRegistryIsPresent() throws IOException {
+        //GIVEN
+        var meterRegistry = new SimpleMeterRegistry();
+        var loader = new XsdLoader(viewManager, null, meterRegistry, null, null);
+        var resource = new ClassPathResource("xsd/simple_example.xsd");
+
+        //WHEN
+        loader.load(resource.getFile());
+
+        //THEN
+        assertEquals(1, meterRegistry.get("xsd.load.parse").tag("schema", "simple_example.xsd").timer().count());
+        assertEquals(1, meterRegistry.get("xsd.load.projection").tag("schema", "simple_example.xsd").timer().count());
+        assertEquals(3.0, meterRegistry.get("xsd.load.elements").tag("schema", "simple_example.xsd").summary().totalAmount());
+        assertEquals(2.0, meterRegistry.get("xsd.load.depth").tag("schema", "simple_example.xsd").summary().max());
+    }
+
+    @Test
+    public void testLoad_shouldNotUseDocumentCacheWhenCatalogIsConfigured(@TempDir Path tempDirectory) throws IOException {
+        //GIVEN
+        var catalogFile = tempDirectory.resolve("catalog.xml").toFile();
+        var cacheDirectory = tempDirectory.resolve("cache").toFile();
+        FileUtils.writeStringToFile(catalogFile, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<catalog xmlns=\"urn:oasis:names:tc:entity:xmlns:xml:catalog\">\n" +
+                "    <uri name=\"urn:example:common\" uri=\"common_components.xsd\"/>\n" +
+                "</catalog>\n", "UTF-8");
+        var loader = new XsdLoader(viewManager, new XsdDocumentCache(cacheDirectory, XsdDocumentCache.DEFAULT_MAX_SIZE), null,
+                new XsdResourceResolver(List.of(catalogFile)), null);
+        var resource = new ClassPathResource("xsd/simple_example.xsd");
+
+        //WHEN
+        var result = loader.load(resource.getFile());
+
+        //THEN
+        assertEquals("MyRootElement", result.getElements().get(0).getName());
+        assertFalse(cacheDirectory.exists());
+    }
+
+    @Test
+    public void testLoadCancellable_shouldReportProgressUntilDoneWhenFileIsLoaded() throws Exception {
+        //GIVEN
+        var resource = new ClassPathResource("xsd/simple_example.xsd");
+        var progress = new CopyOnWriteArrayList<Double>();
+
+        //WHEN
+        var document = xsdLoader.loadCancellable(resource.getFile(), XsdLoadOptions.defaults(), progress::add).get();
+
+        //THEN
+        assertNotNull(document.findElement("MyRootElement"));
+        assertEquals(List.of(1.0 / 3, 2.0 / 3, 1.0), progress);
+    }
+
+    @Test
+    public void testLoad_shouldThrowXsdLoadCancelledExceptionWhenMonitorIsCancelled() throws IOException {
+        //GIVEN
+        var file = new ClassPathResource("xsd/simple_example.xsd").getFile();
+        var monitor = new XsdLoadMonitor();
+        monitor.cancel();
+
+        //WHEN
+        assertThrows(XsdLoadCancelledException.class, () -> xsdLoader.load(file, XsdLoadOptions.defaults(), monitor));
+    }
+
+    @Test
+    public void testLoadCancellable_shouldCancelLoadWhenFutureIsCancelled() throws IOException {
+        //GIVEN
+        // the load is only started once the future has been cancelled, so it can't complete before the cancellation
+        var tasks = new ArrayList<Runnable>();
+        var loader = new XsdLoader(viewManager, null, null, null, tasks::add);
+        var file = new ClassPathResource("xsd/simple_example.xsd").getFile();
+        var future = loader.loadCancellable(file, XsdLoadOptions.defaults(), null);
+
+        //WHEN
+        future.cancel(true);
+        tasks.forEach(Runnable::run);
+
+        //THEN
+        assertTrue(future.isCancelled());
+        assertThrows(CancellationException.class, future::get);
+    }
 }
@@ -0,0 +1,89 @@
+package com.compare.xsd.comparison;
+
+import com.compare.xsd.comparison.model.xsd.XsdNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class XsdRenameDetectionTest {
+    @Test
+    public void testPair_shouldPairMostSimilarSiblings() {
+        //GIVEN
+        var removedNodes = List.of(node("element3", "xs:int"), node("address", "xs:string"));
+        var addedNodes = List.of(node("adres", "xs:string"), node("element4", "xs:int"));
+
+        //WHEN
+        var result = XsdRenameDetection.pair(removedNodes, addedNodes, 0.6);
+
+        //THEN
+        assertArrayEquals(new int[]{1, 0}, result);
+    }
+
+    @Test
+    public void testPair_shouldNotPairSiblingsWhichAreNotSimilarEnough() {
+        //GIVEN
+        var removedNodes = List.of(node("element3", "xs:int"));
+        var addedNodes = List.of(node("description", "xs:string"));
+
+        //WHEN
+        var result = XsdRenameDetection.pair(removedNodes, addedNodes, 0.6);
+
+        //THEN
+        assertArrayEquals(new int[]{XsdRenameDetection.NO_MATCH}, result);
+    }
+
+    @Test
+    public void testPair_shouldPairSiblingsOfWideNode() {
+        //GIVEN
+        var removedNodes = new ArrayList<XsdNode>();
+        var addedNodes = new ArrayList<XsdNode>();
+
+        for (int i = 0; i < 50; i++) {
+            removedNodes.add(node("customerAddress" + i, "xs:string"));
+            addedNodes.add(node("custAddress" + i, "xs:string"));
+        }
+
+        Collections.reverse(addedNodes);
+
+        //WHEN
+        var result = XsdRenameDetection.pair(removedNodes, addedNodes, 0.6);
+
+        //THEN
+        for (int i = 0; i < result.length; i++) {
+            assertEquals("custAddress" + i, addedNodes.get(result[i]).getName());
+        }
+    }
+
+    @Test
+    public void testPair_shouldNotLoadInnerNodesOfSiblings() {
+        //GIVEN
+        var removedNode = node("element3", "xs:int");
+        var addedNode = node("element4", "xs:int");
+
+        //WHEN
+        var result = XsdRenameDetection.pair(List.of(removedNode), List.of(addedNode), 0.6);
+
+        //THEN
+        assertArrayEquals(new int[]{0}, result);
+        verify(removedNode, never()).getNodes();
+        verify(addedNode, never()).getNodes();
+    }
+
+    private static XsdNode node(String name, String type) {
+        var node = mock(XsdNode.class);
+
+        when(node.getName()).thenReturn(name);
+        when(node.getType()).thenReturn(type);
+
+        return node;
+    }
+}
@@ -0,0 +1,55 @@
+package com.compare.xsd.comparison.model.diff;
+
+import com.compare.xsd.comparison.XsdComparer;
+import com.compare.xsd.comparison.model.ModificationType;
+import com.compare.xsd.comparison.model.xsd.XsdLoadOptions;
+import com.compare.xsd.comparison.model.xsd.XsdNode;
+import com.compare.xsd.comparison.model.xsd.impl.XsdDocument;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XsdDiffNodeTest {
+    @Test
+    public void testGetNodes_shouldMirrorRecursiveNodeOfAddedSubtreeWhenExpanded() {
+        //GIVEN
+        var originalDocument = new XsdDocument(new File(getClass().getResource("/xsd/example_base_attribute.xsd").getFile()), XsdLoadOptions.detached());
+        var newDocument = new XsdDocument(new File(getClass().getResource("/xsd/example_additional_recursive.xsd").getFile()), XsdLoadOptions.detached());
+        var comparer = new XsdComparer(originalDocument, newDocument);
+        assertTrue(comparer.compare());
+        var addedNode = findNode(findNode(comparer.getDiff().getNewSide(), "Tree"), "Node");
+        var mirroredNode = comparer.getDiff().getOriginalSide().getNodes().get(1).getNodes().get(1);
+        assertEquals(ModificationType.ADDED, findNode(comparer.getDiff().getNewSide(), "Tree").getModifications().getType());
+        assertTrue(mirroredNode.isRecursive());
+        assertFalse(mirroredNode.isLoaded());
+
+        //WHEN
+        var result = addedNode.getNodes();
+
+        //THEN
+        var mirroredNodes = mirroredNode.getNodes();
+        assertEquals(List.of("Value", "Node"), names(result));
+        assertTrue(mirroredNode.isLoaded());
+        assertEquals(result.size(), mirroredNodes.size());
+        assertEquals("", mirroredNodes.get(1).getName());
+        assertEquals(result.get(1).isRecursive(), mirroredNodes.get(1).isRecursive());
+        assertEquals(result.get(1).isLoaded(), mirroredNodes.get(1).isLoaded());
+    }
+
+    private static XsdNode findNode(XsdNode node, String name) {
+        return node.getNodes().stream()
+                .filter(e -> name.equals(e.getName()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static List<String> names(List<XsdNode> nodes) {
+        return nodes.stream()
+                .map(XsdNode::getName)
+                .collect(Collectors.toList());
+    }
+}
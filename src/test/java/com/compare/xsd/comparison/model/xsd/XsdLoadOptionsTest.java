@@ -0,0 +1,51 @@
+package com.compare.xsd.comparison.model.xsd;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class XsdLoadOptionsTest {
+    @Test
+    public void testBuild_shouldThrowIllegalArgumentExceptionWhenMaxEagerDepthIsZero() {
+        var builder = XsdLoadOptions.builder()
+                .maxEagerDepth(0);
+
+        assertThrows(IllegalArgumentException.class, builder::build, "maxEagerDepth must be larger than 0");
+    }
+
+    @Test
+    public void testBuild_shouldThrowIllegalArgumentExceptionWhenDetachedLoadIsLazy() {
+        var builder = XsdLoadOptions.builder()
+                .detached(true)
+                .lazy(true);
+
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+
+    @Test
+    public void testSetMaxEagerDepth_shouldThrowIllegalArgumentExceptionWhenLoadIsCompact() {
+        var options = XsdLoadOptions.compact();
+
+        assertThrows(IllegalArgumentException.class, () -> options.setMaxEagerDepth(2));
+        assertNull(options.getMaxEagerDepth());
+    }
+
+    @Test
+    public void testSetDetached_shouldThrowIllegalArgumentExceptionWhenLoadIsDepthLimited() {
+        var options = XsdLoadOptions.maxEagerDepth(2);
+
+        assertThrows(IllegalArgumentException.class, () -> options.setDetached(true));
+        assertFalse(options.isDetached());
+    }
+
+    @Test
+    public void testBuild_shouldUseDefaultValuesWhenValuesAreNotSet() {
+        var options = XsdLoadOptions.builder().build();
+
+        assertEquals(XsdLoadProfile.FAST, options.getProfile());
+        assertNull(options.getMaxEagerDepth());
+    }
+}
@@ -0,0 +1,107 @@
+package com.compare.xsd.comparison.model.xsd;
+
+import com.compare.xsd.comparison.XsdComparer;
+import com.compare.xsd.comparison.model.xsd.impl.XsdDocument;
+import com.compare.xsd.comparison.model.xsd.impl.XsdElement;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XsdNodeTraversalTest {
+    private static final Map<String, List<String>> TREE = Map.of(
+            "root", List.of("a", "b"),
+            "a", List.of("a1", "a2"),
+            "b", List.of("b1"));
+    private static final int DEEP_SCHEMA_DEPTH = 3000;
+    private static final long SMALL_STACK_SIZE = 256 * 1024;
+
+    @Test
+    public void testPreOrder_shouldVisitNodesBeforeTheirInnerNodes() {
+        //GIVEN
+        var visited = new ArrayList<String>();
+
+        //WHEN
+        XsdNodeTraversal.preOrder("root", XsdNodeTraversalTest::children, (node, depth) -> {
+            visited.add(node + ":" + depth);
+            return !node.equals("a");
+        });
+
+        //THEN
+        assertEquals(List.of("root:0", "a:1", "b:1", "b1:2"), visited);
+    }
+
+    @Test
+    public void testPostOrder_shouldVisitNodesAfterTheirInnerNodes() {
+        //GIVEN
+        var visited = new ArrayList<String>();
+
+        //WHEN
+        XsdNodeTraversal.postOrder("root", XsdNodeTraversalTest::children, (node, depth) -> visited.add(node + ":" + depth));
+
+        //THEN
+        assertEquals(List.of("a1:2", "a2:2", "a:1", "b1:2", "b:1", "root:0"), visited);
+    }
+
+    @Test
+    public void testTraversal_shouldNotExhaustTheStackWhenSchemaIsDeeplyNested() throws Exception {
+        //GIVEN
+        var file = Files.createTempFile("deep_example", ".xsd").toFile();
+        var result = new AtomicReference<Object>();
+        FileUtils.writeStringToFile(file, createDeepSchema(), "UTF-8");
+
+        //WHEN
+        var thread = new Thread(null, () -> {
+            try {
+                var originalDocument = new XsdDocument(file);
+                var newDocument = new XsdDocument(file);
+                var comparer = new XsdComparer(originalDocument, newDocument);
+                XsdElement element = originalDocument.getElements().get(0);
+
+                while (!element.getElements().isEmpty()) {
+                    element = element.getElements().get(0);
+                }
+
+                result.set(comparer.compare() ? element.getXPath() : "comparison failed");
+            } catch (Throwable ex) {
+                result.set(ex);
+            }
+        }, "deep-schema", SMALL_STACK_SIZE);
+
+        thread.start();
+        thread.join();
+        FileUtils.deleteQuietly(file);
+
+        //THEN
+        assertTrue(result.get() instanceof String, "expected an xpath but got " + result.get());
+        assertTrue(((String) result.get()).endsWith("/*:Level" + DEEP_SCHEMA_DEPTH));
+    }
+
+    private static List<String> children(String node) {
+        return TREE.getOrDefault(node, Collections.emptyList());
+    }
+
+    private static String createDeepSchema() {
+        var schema = new StringBuilder();
+
+        schema.append("<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\n")
+                .append("<xs:element name=\"Level0\" type=\"Level0Type\"/>\n");
+
+        for (int i = 0; i < DEEP_SCHEMA_DEPTH; i++) {
+            schema.append("<xs:complexType name=\"Level").append(i).append("Type\"><xs:sequence>")
+                    .append("<xs:element name=\"Level").append(i + 1).append("\" type=\"Level").append(i + 1).append("Type\"/>")
+                    .append("</xs:sequence></xs:complexType>\n");
+        }
+
+        return schema.append("<xs:complexType name=\"Level").append(DEEP_SCHEMA_DEPTH).append("Type\"/>\n")
+                .append("</xs:schema>\n")
+                .toString();
+    }
+}
@@ -0,0 +1,68 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes a large XSD file with a root element which has an item element for each of its complex types.
+ * Each complex type contains the given number of fields, which alternate between an enumeration type, a restriction of that type and a string.
+ */
+final class LargeSchemaFixture {
+    static final String FILENAME = "large_example.xsd";
+
+    private LargeSchemaFixture() {
+    }
+
+    /**
+     * Write the large schema to the given directory.
+     *
+     * @param directory       Set the directory to write the schema to.
+     * @param complexTypes    Set the number of complex types, and thereby the number of items of the root element.
+     * @param elementsPerType Set the number of fields of each complex type.
+     * @return Returns the written schema file.
+     * @throws IOException Is thrown when the schema couldn't be written.
+     */
+    static File write(Path directory, int complexTypes, int elementsPerType) throws IOException {
+        var file = directory.resolve(FILENAME).toFile();
+
+        FileUtils.writeStringToFile(file, createSchema(complexTypes, elementsPerType), "UTF-8");
+
+        return file;
+    }
+
+    private static String createSchema(int complexTypes, int elementsPerType) {
+        var schema = new StringBuilder();
+
+        schema.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" xmlns=\"urn:example:large\" ")
+                .append("targetNamespace=\"urn:example:large\" elementFormDefault=\"qualified\">\n")
+                .append("<xs:simpleType name=\"StatusType\"><xs:restriction base=\"xs:string\">")
+                .append("<xs:enumeration value=\"ACTIVE\"/><xs:enumeration value=\"INACTIVE\"/><xs:enumeration value=\"PENDING\"/>")
+                .append("</xs:restriction></xs:simpleType>\n")
+                .append("<xs:simpleType name=\"DerivedStatusType\"><xs:restriction base=\"StatusType\"/></xs:simpleType>\n")
+                .append("<xs:element name=\"Root\"><xs:complexType><xs:sequence>\n");
+
+        for (int i = 0; i < complexTypes; i++) {
+            schema.append("<xs:element name=\"Item").append(i).append("\" type=\"ItemType").append(i).append("\"/>\n");
+        }
+
+        schema.append("</xs:sequence></xs:complexType></xs:element>\n");
+
+        for (int i = 0; i < complexTypes; i++) {
+            schema.append("<xs:complexType name=\"ItemType").append(i).append("\"><xs:sequence>\n");
+
+            for (int j = 0; j < elementsPerType; j++) {
+                var type = j % 3 == 0 ? "StatusType" : j % 3 == 1 ? "DerivedStatusType" : "xs:string";
+
+                schema.append("<xs:element name=\"Field").append(j).append("\" type=\"").append(type).append("\" minOccurs=\"0\"/>\n");
+            }
+
+            schema.append("</xs:sequence><xs:attribute name=\"id\" type=\"xs:string\"/></xs:complexType>\n");
+        }
+
+        return schema.append("</xs:schema>\n").toString();
+    }
+}
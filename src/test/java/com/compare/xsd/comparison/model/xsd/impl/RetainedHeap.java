@@ -0,0 +1,114 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Measures the objects which are retained by a root object, by walking the object graph which is reachable from it.
+ * Objects of the JDK are only walked through their public collection API, as their fields can't be accessed.
+ */
+final class RetainedHeap {
+    private final int objects;
+    private final int xercesObjects;
+    private final long stringChars;
+
+    private RetainedHeap(int objects, int xercesObjects, long stringChars) {
+        this.objects = objects;
+        this.xercesObjects = xercesObjects;
+        this.stringChars = stringChars;
+    }
+
+    /**
+     * Measure the objects which are retained by the given root object.
+     *
+     * @param root Set the object to start from.
+     * @return Returns the measured objects.
+     */
+    static RetainedHeap measure(Object root) {
+        var visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        // the queue allows null values, as fields and collections can contain null
+        var queue = new LinkedList<Object>();
+        var xercesObjects = 0;
+        var stringChars = 0L;
+
+        queue.add(root);
+
+        while (!queue.isEmpty()) {
+            var object = queue.poll();
+
+            if (object == null || object instanceof Class || !visited.add(object)) {
+                continue;
+            }
+
+            var type = object.getClass();
+
+            if (type.getName().startsWith("org.apache.xerces")) {
+                xercesObjects++;
+            }
+
+            if (object instanceof String) {
+                stringChars += ((String) object).length();
+            } else if (type.isArray()) {
+                if (!type.getComponentType().isPrimitive()) {
+                    for (int i = 0; i < Array.getLength(object); i++) {
+                        queue.add(Array.get(object, i));
+                    }
+                }
+            } else if (object instanceof Collection) {
+                queue.addAll((Collection<?>) object);
+            } else if (object instanceof Map) {
+                queue.addAll(((Map<?, ?>) object).keySet());
+                queue.addAll(((Map<?, ?>) object).values());
+            } else if (!type.getName().startsWith("java")) {
+                for (var current = type; current != null; current = current.getSuperclass()) {
+                    for (Field field : current.getDeclaredFields()) {
+                        if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+                            try {
+                                field.setAccessible(true);
+                                queue.add(field.get(object));
+                            } catch (ReflectiveOperationException | RuntimeException ex) {
+                                // fields which can't be accessed aren't measured
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return new RetainedHeap(visited.size(), xercesObjects, stringChars);
+    }
+
+    /**
+     * Get the number of distinct objects which are retained.
+     *
+     * @return Returns the number of retained objects.
+     */
+    int getObjects() {
+        return objects;
+    }
+
+    /**
+     * Get the number of retained objects of Xerces.
+     *
+     * @return Returns the number of retained Xerces objects.
+     */
+    int getXercesObjects() {
+        return xercesObjects;
+    }
+
+    /**
+     * Get the number of characters of the distinct strings which are retained.
+     *
+     * @return Returns the number of retained characters.
+     */
+    long getStringChars() {
+        return stringChars;
+    }
+
+    @Override
+    public String toString() {
+        return "objects=" + objects + ", xercesObjects=" + xercesObjects + ", stringChars=" + stringChars;
+    }
+}
@@ -0,0 +1,109 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import com.compare.xsd.comparison.model.xsd.XsdLoadOptions;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XsdArchiveTest {
+    private static final String COMMON_SCHEMA = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"urn:common\">\n" +
+            "    <xs:complexType name=\"AmountType\">\n" +
+            "        <xs:attribute name=\"currency\" type=\"xs:string\"/>\n" +
+            "    </xs:complexType>\n" +
+            "</xs:schema>\n";
+
+    private File directory;
+    private File file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("xsd archive").toFile();
+        file = new File(directory, "bundle.zip");
+
+        try (var output = new ZipOutputStream(new FileOutputStream(file))) {
+            writeEntry(output, "common/common.xsd", COMMON_SCHEMA);
+            writeEntry(output, "invoice/invoice.xsd", createSchema("Invoice"));
+            writeEntry(output, "invoice/credit note.xsd", createSchema("CreditNote"));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void testGetEntries_shouldReturnAllSchemasInTheArchive() throws IOException {
+        //GIVEN
+        try (var archive = new XsdArchive(file)) {
+            //WHEN
+            var result = archive.getEntries();
+
+            //THEN
+            assertEquals(Arrays.asList("common/common.xsd", "invoice/credit note.xsd", "invoice/invoice.xsd"), result);
+        }
+    }
+
+    @Test
+    public void testDocumentConstructor_shouldResolveRelativeImportWithinArchiveWhenEntryIsLoaded() throws IOException {
+        //GIVEN
+        try (var archive = new XsdArchive(file)) {
+            //WHEN
+            var result = new XsdDocument(archive, "invoice/invoice.xsd", XsdLoadOptions.defaults(), new XsdGrammarCache(), null);
+
+            //THEN
+            assertEquals("invoice.xsd", result.getName());
+            assertEquals("currency", result.findElement("Invoice").findElement("Total").getAttributes().get(0).getName());
+        }
+    }
+
+    @Test
+    public void testDocumentConstructor_shouldReuseImportedGrammarWhenEntriesOfSameArchiveAreLoaded() throws IOException {
+        //GIVEN
+        var grammarCache = new XsdGrammarCache();
+
+        try (var archive = new XsdArchive(file)) {
+            new XsdDocument(archive, "invoice/invoice.xsd", XsdLoadOptions.defaults(), grammarCache, null);
+
+            //WHEN
+            var result = new XsdDocument(archive, "invoice/credit note.xsd", XsdLoadOptions.defaults(), grammarCache, null);
+
+            //THEN
+            assertEquals(1, grammarCache.getHits());
+            assertEquals("currency", result.findElement("CreditNote").findElement("Total").getAttributes().get(0).getName());
+        }
+    }
+
+    private static void writeEntry(ZipOutputStream output, String name, String content) throws IOException {
+        output.putNextEntry(new ZipEntry(name));
+        output.write(content.getBytes(StandardCharsets.UTF_8));
+        output.closeEntry();
+    }
+
+    private static String createSchema(String rootElement) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" xmlns:common=\"urn:common\">\n" +
+                "    <xs:import namespace=\"urn:common\" schemaLocation=\"../common/common.xsd\"/>\n" +
+                "    <xs:element name=\"" + rootElement + "\">\n" +
+                "        <xs:complexType>\n" +
+                "            <xs:sequence>\n" +
+                "                <xs:element name=\"Total\" type=\"common:AmountType\"/>\n" +
+                "            </xs:sequence>\n" +
+                "        </xs:complexType>\n" +
+                "    </xs:element>\n" +
+                "</xs:schema>\n";
+    }
+}
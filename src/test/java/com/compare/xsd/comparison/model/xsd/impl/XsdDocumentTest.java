@@ -1,12 +1,21 @@
 package com.compare.xsd.comparison.model.xsd.impl;
 
+import com.compare.xsd.comparison.XsdComparer;
+import com.compare.xsd.comparison.model.xsd.NodeNotFoundException;
+import com.compare.xsd.comparison.model.xsd.XsdLoadOptions;
+import com.compare.xsd.comparison.model.xsd.XsdNodeTraversal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.lenient;
@@ -14,8 +23,13 @@ import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 public class XsdDocumentTest {
+    private static final int LARGE_SCHEMA_TYPES = 100;
+    private static final int LARGE_SCHEMA_FIELDS = 20;
+
     @Mock
     private File file;
+    @TempDir
+    Path tempDirectory;
 
     @BeforeEach
     public void setUp() {
@@ -65,6 +79,21 @@ public class XsdDocumentTest {
         assertEquals(child2, result.getElements().get(1).getName());
     }
 
+    @Test
+    public void testFileConstructor_shouldContainLoadStatisticsWhenLoaded() {
+        //WHEN
+        var result = new XsdDocument(file).getLoadStatistics();
+
+        //THEN
+        assertNotNull(result);
+        assertEquals(3, result.getElements());
+        assertEquals(0, result.getAttributes());
+        assertEquals(1, result.getTypesExpanded());
+        assertEquals(2, result.getMaxDepth());
+        assertFalse(result.getParseTime().isNegative());
+        assertFalse(result.getProjectionTime().isNegative());
+    }
+
     @Test
     public void shouldReturnTheExpectedResultWhenGetXPathIsCalled() {
         //GIVEN
@@ -104,10 +133,188 @@ public class XsdDocumentTest {
         assertNotNull(result.getIcon());
     }
 
+    @Test
+    public void testFindElement_shouldIgnoreCaseWhenLookingUpTheElement() {
+        //GIVEN
+        XsdDocument document = new XsdDocument(file);
+
+        //WHEN
+        XsdElement result = document.findElement("myrootelement");
+
+        //THEN
+        assertEquals("MyRootElement", result.getName());
+    }
+
+    @Test
+    public void testFindElement_shouldThrowNodeNotFoundExceptionWhenElementDoesNotExist() {
+        XsdDocument document = new XsdDocument(file);
+
+        assertThrows(NodeNotFoundException.class, () -> document.findElement("UnknownElement"), "Node couldn't be found with name 'UnknownElement'");
+    }
+
     @Test
     public void testFindAttributeByName_shouldThrowUnsupportedException() {
         XsdDocument document = new XsdDocument(file);
 
         assertThrows(UnsupportedOperationException.class, () -> document.findAttributeByName("test"), "getAttributeByName is not supported for XsdDocument");
     }
+
+    @Test
+    public void testFileConstructor_shouldReleaseSchemaModelWhenLoadedDetached() {
+        //GIVEN
+        var resource = new File(getClass().getResource("/xsd/import_example.xsd").getFile());
+
+        //WHEN
+        var result = new XsdDocument(resource, XsdLoadOptions.detached());
+
+        //THEN
+        var attachedDocument = new XsdDocument(resource, XsdLoadOptions.defaults());
+        var xPaths = new ArrayList<String>();
+        XsdNodeTraversal.preOrderAll(result.getElements(), XsdElement::getElements, (element, depth) -> {
+            assertNull(element.getElement());
+            assertNull(element.getDefinition());
+            element.getAttributes().forEach(e -> assertNull(e.getAttribute()));
+            xPaths.add(element.getXPath() + element.getType() + element.getCardinality());
+            return true;
+        });
+        var attachedXPaths = new ArrayList<String>();
+        XsdNodeTraversal.preOrderAll(attachedDocument.getElements(), XsdElement::getElements, (element, depth) -> {
+            attachedXPaths.add(element.getXPath() + element.getType() + element.getCardinality());
+            return true;
+        });
+        assertEquals(attachedXPaths, xPaths);
+    }
+
+    @Test
+    public void testFindElement_shouldCopyInnerNodesOfAncestorWhenRecursiveElementIsDetached() {
+        //GIVEN
+        var resource = new File(getClass().getResource("/xsd/recursive_example.xsd").getFile());
+        var document = new XsdDocument(resource, XsdLoadOptions.detached());
+        var node = document.findElement("Tree").findElement("Node");
+
+        //WHEN
+        var result = node.findElement("Node");
+
+        //THEN
+        assertTrue(node.isRecursive());
+        assertTrue(node.isLoaded());
+        assertTrue(result.isRecursive());
+        assertFalse(result.isLoaded());
+        assertEquals("id", node.getAttributes().get(0).getName());
+        assertEquals("Value", result.findElement("Value").getName());
+        assertEquals("///*:Tree/*:Node[]/*:Node[]/*:Value", result.findElement("Value").getXPath());
+    }
+
+    @Test
+    public void testFileConstructor_shouldDeferElementsBeyondMaxEagerDepthWhenLoadedDepthLimited() throws IOException {
+        //GIVEN
+        var resource = LargeSchemaFixture.write(tempDirectory, LARGE_SCHEMA_TYPES, LARGE_SCHEMA_FIELDS);
+
+        //WHEN
+        var result = new XsdDocument(resource, XsdLoadOptions.maxEagerDepth(2));
+
+        //THEN
+        var statistics = result.getLoadStatistics();
+        var item = result.findElement("Root").findElement("Item0");
+        assertEquals(101, statistics.getElements());
+        assertEquals(100, statistics.getDeferredElements());
+        assertFalse(item.isLoaded());
+        assertEquals("Field19", item.findElement("Field19").getName());
+        assertTrue(item.isLoaded());
+        assertEquals(xPaths(new XsdDocument(resource, XsdLoadOptions.defaults())), xPaths(result));
+    }
+
+    @Test
+    public void testFileConstructor_shouldRetainLessHeapWhenLargeSchemaIsLoadedDetached() throws IOException {
+        //GIVEN
+        var resource = LargeSchemaFixture.write(tempDirectory, LARGE_SCHEMA_TYPES, LARGE_SCHEMA_FIELDS);
+
+        //WHEN
+        var attachedDocument = new XsdDocument(resource, XsdLoadOptions.defaults());
+        var detachedDocument = new XsdDocument(resource, XsdLoadOptions.detached());
+
+        //THEN
+        var attachedHeap = RetainedHeap.measure(attachedDocument);
+        var detachedHeap = RetainedHeap.measure(detachedDocument);
+
+        assertEquals(0, detachedHeap.getXercesObjects(), "expected no reachable xerces objects");
+        assertTrue(attachedHeap.getXercesObjects() > 0, "expected reachable xerces objects");
+        assertTrue(detachedHeap.getObjects() * 3 < attachedHeap.getObjects() * 2,
+                "expected a reduction of more than a third, retained " + detachedHeap + " instead of " + attachedHeap);
+    }
+
+    @Test
+    public void testFileConstructor_shouldCreateSameTreeFromNodeStoreWhenLoadedCompact() throws IOException {
+        //GIVEN
+        var resource = LargeSchemaFixture.write(tempDirectory, LARGE_SCHEMA_TYPES, LARGE_SCHEMA_FIELDS);
+
+        //WHEN
+        var result = new XsdDocument(resource, XsdLoadOptions.compact());
+
+        //THEN
+        var detachedDocument = new XsdDocument(resource, XsdLoadOptions.detached());
+        var compactHeap = RetainedHeap.measure(result);
+        var detachedHeap = RetainedHeap.measure(detachedDocument);
+
+        assertFalse(result.getElements().get(0).isLoaded());
+        assertTrue(compactHeap.getObjects() * 10 < detachedHeap.getObjects(),
+                "expected less than a tenth of the objects, retained " + compactHeap + " instead of " + detachedHeap);
+        assertEquals(xPaths(new XsdDocument(resource, XsdLoadOptions.defaults())), xPaths(result));
+        assertEquals("id", result.findElement("Root").findElement("Item42").getAttributes().get(0).getName());
+    }
+
+    @Test
+    public void testFindElement_shouldShareInnerNodesOfAncestorWhenRecursiveElementIsCompact() {
+        //GIVEN
+        var resource = new File(getClass().getResource("/xsd/recursive_example.xsd").getFile());
+        var document = new XsdDocument(resource, XsdLoadOptions.compact());
+        var node = document.findElement("Tree").findElement("Node");
+
+        //WHEN
+        var result = node.findElement("Node");
+
+        //THEN
+        assertTrue(node.isRecursive());
+        assertFalse(node.isLoaded());
+        assertTrue(result.isRecursive());
+        assertFalse(result.isLoaded());
+        assertEquals("id", node.getAttributes().get(0).getName());
+        assertEquals("///*:Tree/*:Node[]/*:Node[]/*:Node[]/*:Value", result.findElement("Node").findElement("Value").getXPath());
+    }
+
+    @Test
+    public void testCompare_shouldNotRetainInnerNodesOfCompactDocumentAfterFullComparison() throws IOException {
+        //GIVEN
+        var originalResource = LargeSchemaFixture.write(Files.createDirectory(tempDirectory.resolve("original")), LARGE_SCHEMA_TYPES, LARGE_SCHEMA_FIELDS);
+        var newResource = LargeSchemaFixture.write(Files.createDirectory(tempDirectory.resolve("new")), LARGE_SCHEMA_TYPES, LARGE_SCHEMA_FIELDS + 1);
+        var compactDocument = new XsdDocument(originalResource, XsdLoadOptions.compact());
+        var detachedDocument = new XsdDocument(originalResource, XsdLoadOptions.detached());
+        // each item type has an additional field in the new schema, so none of the subtrees can be skipped
+        var compactComparer = new XsdComparer(compactDocument, new XsdDocument(newResource, XsdLoadOptions.compact()));
+        var detachedComparer = new XsdComparer(detachedDocument, new XsdDocument(newResource, XsdLoadOptions.detached()));
+
+        //WHEN
+        compactComparer.compare();
+        detachedComparer.compare();
+
+        //THEN
+        var compactHeap = RetainedHeap.measure(compactDocument);
+        var detachedHeap = RetainedHeap.measure(detachedDocument);
+
+        assertEquals(LARGE_SCHEMA_TYPES, compactComparer.getAdded());
+        assertEquals(detachedComparer.getAdded(), compactComparer.getAdded());
+        assertTrue(compactHeap.getObjects() * 10 < detachedHeap.getObjects(),
+                "expected less than a tenth of the objects, retained " + compactHeap + " instead of " + detachedHeap);
+    }
+
+    private static List<String> xPaths(XsdDocument document) {
+        var xPaths = new ArrayList<String>();
+
+        XsdNodeTraversal.preOrderAll(document.getElements(), XsdElement::getElements, (element, depth) -> {
+            xPaths.add(element.getXPath() + element.getType() + element.getCardinality());
+            return true;
+        });
+
+        return xPaths;
+    }
 }
@@ -32,7 +32,7 @@ public class XsdElementTest {
 
     @Test
     public void testFindAttributeByName_shouldThrowIllegalArgumentException_whenNameIsNull() {
-        assertThrows(IllegalArgumentException.class, () -> new XsdElement().findAttributeByName(null), "name cannot be null");
+        assertThrows(IllegalArgumentException.class, () -> new XsdElement((AbstractXsdElementNode) null).findAttributeByName(null), "name cannot be null");
     }
 
     @Test
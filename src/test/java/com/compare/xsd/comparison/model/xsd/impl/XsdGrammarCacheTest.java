@@ -0,0 +1,79 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import com.compare.xsd.comparison.model.xsd.XsdLoadOptions;
+import com.compare.xsd.comparison.model.xsd.XsdLoadProfile;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XsdGrammarCacheTest {
+    private final XsdGrammarCache grammarCache = new XsdGrammarCache();
+
+    @Test
+    public void testLoad_shouldReuseImportedGrammarWhenLoadedTwice() {
+        //GIVEN
+        File file = new File(getClass().getResource("/xsd/import_example.xsd").getFile());
+
+        //WHEN
+        XsdDocument originalDocument = new XsdDocument(file, XsdLoadOptions.defaults(), grammarCache);
+        XsdDocument newDocument = new XsdDocument(file, XsdLoadOptions.defaults(), grammarCache);
+
+        //THEN
+        assertEquals(1, grammarCache.getHits());
+        assertEquals("currency", newDocument.findElement("Invoice").findElement("Total").getAttributes().get(0).getName());
+        assertNotSame(originalDocument.findElement("Invoice"), newDocument.findElement("Invoice"));
+    }
+
+    @Test
+    public void testLoad_shouldNotReuseLoadedDocumentWhenSameNamespaceIsLoadedFromAnotherFile() {
+        //GIVEN
+        File originalFile = new File(getClass().getResource("/xsd/example_base_attribute.xsd").getFile());
+        File newFile = new File(getClass().getResource("/xsd/example_additional_attribute.xsd").getFile());
+
+        //WHEN
+        new XsdDocument(originalFile, XsdLoadOptions.defaults(), grammarCache);
+        new XsdDocument(newFile, XsdLoadOptions.defaults(), grammarCache);
+
+        //THEN
+        assertEquals(0, grammarCache.getHits());
+        assertEquals(2, grammarCache.getSize());
+    }
+
+    @Test
+    public void testLoad_shouldParseImportedGrammarAgainWhenLoadedWithCompleteProfileAfterFastProfile() {
+        //GIVEN
+        File file = new File(getClass().getResource("/xsd/import_example.xsd").getFile());
+        XsdLoadOptions options = XsdLoadOptions.builder()
+                .profile(XsdLoadProfile.COMPLETE)
+                .build();
+        new XsdDocument(file, XsdLoadOptions.defaults(), grammarCache);
+
+        //WHEN
+        XsdDocument result = new XsdDocument(file, options, grammarCache);
+
+        //THEN
+        assertEquals(0, grammarCache.getHits());
+        assertEquals(XsdLoadProfile.COMPLETE, result.getLoadStatistics().getProfile());
+        assertTrue(result.getLoadStatistics().toLogString().contains("profile=COMPLETE"));
+        assertEquals("currency", result.findElement("Invoice").findElement("Total").getAttributes().get(0).getName());
+    }
+
+    @Test
+    public void testLoad_shouldReuseImportedGrammarWhenLoadedTwiceWithCompleteProfile() {
+        //GIVEN
+        File file = new File(getClass().getResource("/xsd/import_example.xsd").getFile());
+        XsdLoadOptions options = XsdLoadOptions.builder()
+                .profile(XsdLoadProfile.COMPLETE)
+                .build();
+        new XsdDocument(file, options, grammarCache);
+
+        //WHEN
+        XsdDocument result = new XsdDocument(file, options, grammarCache);
+
+        //THEN
+        assertEquals(1, grammarCache.getHits());
+        assertEquals("currency", result.findElement("Invoice").findElement("Total").getAttributes().get(0).getName());
+    }
+}
@@ -0,0 +1,110 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import com.compare.xsd.comparison.model.xsd.XsdLoadOptions;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XsdResourceResolverTest {
+    private static final String REMOTE_LOCATION = "http://schemas.example.invalid/common/";
+    private static final String COMMON_SCHEMA = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"urn:common\">\n" +
+            "    <xs:complexType name=\"AmountType\">\n" +
+            "        <xs:attribute name=\"currency\" type=\"xs:string\"/>\n" +
+            "    </xs:complexType>\n" +
+            "</xs:schema>\n";
+
+    private File directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("xsd-catalog").toFile();
+        FileUtils.writeStringToFile(new File(directory, "mirror/common.xsd"), COMMON_SCHEMA, "UTF-8");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void testResolveResource_shouldLoadRemoteSchemaLocationFromMirrorWhenCatalogRewritesLocation() throws IOException {
+        //GIVEN
+        var file = writeSchema("schemaLocation=\"" + REMOTE_LOCATION + "common.xsd\"");
+        var resolver = new XsdResourceResolver(Collections.singletonList(writeCatalog(
+                "<rewriteSystem systemIdStartString=\"" + REMOTE_LOCATION + "\" rewritePrefix=\"mirror/\"/>")));
+
+        //WHEN
+        var document = new XsdDocument(file, XsdLoadOptions.defaults(), new XsdGrammarCache(resolver));
+
+        //THEN
+        assertEquals("currency", document.findElement("Invoice").findElement("Total").getAttributes().get(0).getName());
+        assertEquals(1, resolver.getSize());
+    }
+
+    @Test
+    public void testResolveResource_shouldLoadNamespaceFromMirrorWhenImportHasNoSchemaLocation() throws IOException {
+        //GIVEN
+        var file = writeSchema("");
+        var resolver = new XsdResourceResolver(Collections.singletonList(writeCatalog(
+                "<uri name=\"urn:common\" uri=\"mirror/common.xsd\"/>")));
+
+        //WHEN
+        var document = new XsdDocument(file, XsdLoadOptions.defaults(), new XsdGrammarCache(resolver));
+
+        //THEN
+        assertEquals("currency", document.findElement("Invoice").findElement("Total").getAttributes().get(0).getName());
+    }
+
+    @Test
+    public void testResolveResource_shouldServeSchemaFromMemoryWhenLoadedAgain() throws IOException {
+        //GIVEN
+        var file = writeSchema("schemaLocation=\"mirror/common.xsd\"");
+        var resolver = new XsdResourceResolver();
+        new XsdDocument(file, XsdLoadOptions.defaults(), new XsdGrammarCache(resolver));
+
+        //WHEN
+        var document = new XsdDocument(file, XsdLoadOptions.defaults(), new XsdGrammarCache(resolver));
+
+        //THEN
+        assertEquals(1, resolver.getHits());
+        assertEquals("currency", document.findElement("Invoice").findElement("Total").getAttributes().get(0).getName());
+    }
+
+    private File writeSchema(String schemaLocation) throws IOException {
+        var file = new File(directory, "invoice.xsd");
+
+        FileUtils.writeStringToFile(file, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" xmlns:common=\"urn:common\">\n" +
+                "    <xs:import namespace=\"urn:common\" " + schemaLocation + "/>\n" +
+                "    <xs:element name=\"Invoice\">\n" +
+                "        <xs:complexType>\n" +
+                "            <xs:sequence>\n" +
+                "                <xs:element name=\"Total\" type=\"common:AmountType\"/>\n" +
+                "            </xs:sequence>\n" +
+                "        </xs:complexType>\n" +
+                "    </xs:element>\n" +
+                "</xs:schema>\n", "UTF-8");
+
+        return file;
+    }
+
+    private File writeCatalog(String entry) throws IOException {
+        var file = new File(directory, "catalog.xml");
+
+        FileUtils.writeStringToFile(file, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<catalog xmlns=\"urn:oasis:names:tc:entity:xmlns:xml:catalog\">\n" +
+                "    " + entry + "\n" +
+                "</catalog>\n", "UTF-8");
+
+        return file;
+    }
+}
@@ -0,0 +1,138 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import com.compare.xsd.comparison.model.xsd.XsdFacets;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XsdStringPoolTest {
+    private static final int COMPLEX_TYPES = 200;
+    private static final int ELEMENTS_PER_TYPE = 20;
+
+    @TempDir
+    Path tempDirectory;
+
+    @Test
+    public void testIntern_shouldReturnTheFirstInstanceOfEqualValues() {
+        //GIVEN
+        var stringPool = new XsdStringPool();
+        var value = new String("urn:example");
+        stringPool.intern(value);
+
+        //WHEN
+        var result = stringPool.intern(new String("urn:example"));
+
+        //THEN
+        assertSame(value, result);
+        assertEquals(1, stringPool.getHits());
+    }
+
+    @Test
+    public void testIntern_shouldReturnTheFirstInstanceOfEqualFacets() {
+        //GIVEN
+        var stringPool = new XsdStringPool();
+        var facets = stringPool.intern(XsdFacets.builder()
+                .maxLength(10)
+                .enumeration(List.of("A", "B"))
+                .build());
+
+        //WHEN
+        var result = stringPool.intern(XsdFacets.builder()
+                .maxLength(10)
+                .enumeration(new ArrayList<>(List.of("A", "B")))
+                .build());
+
+        //THEN
+        assertSame(facets, result);
+        assertSame(XsdFacets.EMPTY, stringPool.intern(XsdFacets.builder().build()));
+    }
+
+    @Test
+    public void testLoad_shouldShareFacetsOfTypesWithTheSameFacets() throws IOException {
+        //GIVEN
+        var file = LargeSchemaFixture.write(tempDirectory, COMPLEX_TYPES, ELEMENTS_PER_TYPE);
+
+        //WHEN
+        var document = new XsdDocument(file);
+
+        //THEN
+        var facets = Collections.newSetFromMap(new IdentityHashMap<XsdFacets, Boolean>());
+        var enumerations = Collections.newSetFromMap(new IdentityHashMap<List<String>, Boolean>());
+
+        for (AbstractXsdNode node : collectNodes(document)) {
+            if (!node.getEnumeration().isEmpty()) {
+                facets.add(node.getFacets());
+                enumerations.add(node.getEnumeration());
+            }
+        }
+
+        // the status type and its restriction without additional facets share the same facet set
+        assertEquals(1, facets.size());
+        assertEquals(1, enumerations.size());
+    }
+
+    @Test
+    public void testRead_shouldRetainLessHeapWhenRestoredValuesArePooled() throws IOException {
+        //GIVEN
+        var file = LargeSchemaFixture.write(tempDirectory, COMPLEX_TYPES, ELEMENTS_PER_TYPE);
+        var output = new ByteArrayOutputStream();
+        XsdDocumentCodec.write(new XsdDocument(file), output);
+
+        //WHEN
+        var pooledDocument = XsdDocumentCodec.read(file, new ByteArrayInputStream(output.toByteArray()), new XsdStringPool());
+        var unpooledDocument = XsdDocumentCodec.read(file, new ByteArrayInputStream(output.toByteArray()), new UnpooledStringPool());
+
+        //THEN
+        var pooledHeap = RetainedHeap.measure(pooledDocument);
+        var unpooledHeap = RetainedHeap.measure(unpooledDocument);
+
+        assertEquals(collectNodes(unpooledDocument).size(), collectNodes(pooledDocument).size());
+        assertTrue(collectNodes(pooledDocument).size() > COMPLEX_TYPES * ELEMENTS_PER_TYPE, "expected a large number of nodes");
+        assertTrue(pooledHeap.getStringChars() * 5 < unpooledHeap.getStringChars(),
+                "expected a reduction of more than 80% of the retained chars, retained " + pooledHeap + " instead of " + unpooledHeap);
+        assertTrue(pooledHeap.getObjects() * 2 < unpooledHeap.getObjects(),
+                "expected a reduction of more than half of the objects, retained " + pooledHeap + " instead of " + unpooledHeap);
+    }
+
+    private static List<AbstractXsdNode> collectNodes(XsdDocument document) {
+        var nodes = new ArrayList<AbstractXsdNode>();
+        var queue = new ArrayDeque<XsdElement>(document.getElements());
+
+        while (!queue.isEmpty()) {
+            var element = queue.poll();
+
+            nodes.add(element);
+            nodes.addAll(element.getAttributes());
+            queue.addAll(element.getElements());
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Pool which retains every value as it is, which is the heap of a restored document without deduplication.
+     */
+    private static class UnpooledStringPool extends XsdStringPool {
+        @Override
+        String intern(String value) {
+            return value;
+        }
+
+        @Override
+        List<String> internList(List<String> values) {
+            return values;
+        }
+
+        @Override
+        XsdFacets intern(XsdFacets facets) {
+            return facets;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XsdTypeTemplateTest {
+    private static final String COMMON_NAMESPACE = "urn:example:common";
+
+    private final XsdGrammarCache grammarCache = new XsdGrammarCache();
+
+    @Test
+    public void testGetTypeTemplate_shouldReuseTemplateWhenElementsHaveTheSameNamedType() {
+        //GIVEN
+        File file = new File(getClass().getResource("/xsd/shared_type_example.xsd").getFile());
+        var model = grammarCache.load(file);
+        var loadContext = new XsdLoadContext();
+        var billingTemplate = loadContext.getTypeTemplate(model.getElementDeclaration("BillingAddress", null).getTypeDefinition());
+
+        //WHEN
+        var result = loadContext.getTypeTemplate(model.getElementDeclaration("ShippingAddress", null).getTypeDefinition());
+
+        //THEN
+        assertSame(billingTemplate, result);
+        assertEquals(1, loadContext.getTypeTemplateCount());
+        assertEquals(1, loadContext.getTypeTemplateHits());
+    }
+
+    @Test
+    public void testGetTypeTemplate_shouldNotShareTemplateBetweenDocumentsWhichShareTheTypeDefinition() {
+        //GIVEN
+        File file = new File(getClass().getResource("/xsd/import_example.xsd").getFile());
+        var originalTypeDefinition = grammarCache.load(file).getTypeDefinition("AmountType", COMMON_NAMESPACE);
+        var newTypeDefinition = grammarCache.load(file).getTypeDefinition("AmountType", COMMON_NAMESPACE);
+        // each document is loaded with its own context
+        var originalTemplate = new XsdLoadContext().getTypeTemplate(originalTypeDefinition);
+        var loadContext = new XsdLoadContext();
+
+        //WHEN
+        var result = loadContext.getTypeTemplate(newTypeDefinition);
+
+        //THEN
+        assertSame(originalTypeDefinition, newTypeDefinition);
+        assertNotSame(originalTemplate, result);
+        assertEquals(0, loadContext.getTypeTemplateHits());
+        assertEquals(originalTemplate.getType(), result.getType());
+    }
+}
@@ -0,0 +1,58 @@
+package com.compare.xsd.comparison.model.xsd.impl;
+
+import com.compare.xsd.comparison.XsdLoadException;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XsdWsdlTest {
+    @Test
+    public void testConstructor_shouldExtractEveryEmbeddedSchema() throws IOException {
+        //GIVEN
+        var file = new File(getClass().getResource("/xsd/service_example.wsdl").getFile());
+
+        //WHEN
+        var result = new XsdWsdl(file);
+
+        //THEN
+        assertEquals(3, result.getSchemaCount());
+    }
+
+    @Test
+    public void testDocumentConstructor_shouldResolveImportsBetweenEmbeddedSchemasWhenWsdlIsLoaded() {
+        //GIVEN
+        var file = new File(getClass().getResource("/xsd/service_example.wsdl").getFile());
+
+        //WHEN
+        var result = new XsdDocument(file);
+
+        //THEN
+        var order = result.findElement("Order");
+        assertEquals(1, result.getElements().size());
+        assertEquals("urn:orders", order.getNamespace());
+        assertEquals("currency", order.findElement("Total").getAttributes().get(0).getName());
+        assertEquals("Name", order.findElement("Customer").findElement("Name").getName());
+    }
+
+    @Test
+    public void testDocumentConstructor_shouldThrowXsdLoadExceptionWhenWsdlHasNoEmbeddedSchema() throws IOException {
+        //GIVEN
+        var file = Files.createTempFile("empty_example", XsdWsdl.EXTENSION).toFile();
+        FileUtils.writeStringToFile(file, "<definitions xmlns=\"http://schemas.xmlsoap.org/wsdl/\"/>", "UTF-8");
+
+        try {
+            //WHEN
+            var result = assertThrows(XsdLoadException.class, () -> new XsdDocument(file));
+
+            //THEN
+            assertTrue(result.getMessage().contains("No embedded schema found"), result.getMessage());
+        } finally {
+            FileUtils.deleteQuietly(file);
+        }
+    }
+}